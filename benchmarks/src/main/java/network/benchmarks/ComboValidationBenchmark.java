@@ -0,0 +1,64 @@
+package network.benchmarks;
+
+import network.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking two and three of a kind, on moves which the checks reject: the
+ * player lacks the cards, or names different cards. Nothing is played, thus
+ * the game stays the same between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComboValidationBenchmark {
+    private final Move twoMissing = new Move();
+    private final Move threeMissing = new Move();
+    private final Move twoDifferent = new Move();
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < 4; seat++) {
+            players.add(new HumanPlayer("player" + (char) ('a' + seat), seat));
+        }
+        game = new Game(players, GameListener.NONE, new SplittableRandom(42));
+        game.init();
+        // The player must lack the cards of the combo
+        Hand hand = game.getCurrentPlayer().getHand();
+        while (hand.has(Card.TACOCAT)) {
+            hand.remove(Card.TACOCAT);
+        }
+        String target = game.getPlayers()
+                .get((game.getCurrentPlayerTurnIndex() + 1) % players.size()).getName();
+        twoMissing.parse("play TACOCAT TACOCAT " + target);
+        threeMissing.parse("play TACOCAT TACOCAT TACOCAT " + target + " DEFUSE");
+        twoDifferent.parse("play TACOCAT RAINBOW " + target);
+    }
+
+    @Benchmark
+    public Game twoOfAKindMissingCards() {
+        game.processPlay(twoMissing);
+        return game;
+    }
+
+    @Benchmark
+    public Game threeOfAKindMissingCards() {
+        game.processPlay(threeMissing);
+        return game;
+    }
+
+    @Benchmark
+    public Game twoOfAKindDifferentCards() {
+        game.processPlay(twoDifferent);
+        return game;
+    }
+}
@@ -0,0 +1,44 @@
+package network.benchmarks;
+
+import network.model.Deck;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and shuffling a deck, which every game does once and every
+ * SHUFFLE and every player who leaves does again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+    private final SplittableRandom random = new SplittableRandom(42);
+    private Deck deck;
+
+    @Setup
+    public void setUp() {
+        deck = new Deck(random);
+    }
+
+    @Benchmark
+    public Deck generateDeck() {
+        deck.generateDeck(random);
+        return deck;
+    }
+
+    @Benchmark
+    public Deck shuffle() {
+        deck.shuffle(random);
+        return deck;
+    }
+
+    @Benchmark
+    public Deck newDeck() {
+        return new Deck(random);
+    }
+}
@@ -0,0 +1,131 @@
+package network.benchmarks;
+
+import network.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Game#processPlay(Move)} for each card that can be played on a turn,
+ * and for the combos. Before each play, the current player is handed the
+ * cards of the move; after it, whatever the play changed besides the deck
+ * is put back, such that every invocation plays the same move from the same
+ * state without building a new game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private static final int NUMBER_OF_PLAYERS = 4;
+    /** Replaced by the name of the player the move targets */
+    private static final String TARGET = "<target>";
+
+    public enum Play {
+        ATTACK("play ATTACK", Card.ATTACK),
+        FAVOR("play FAVOR " + TARGET, Card.FAVOR),
+        SHUFFLE("play SHUFFLE", Card.SHUFFLE),
+        SKIP("play SKIP", Card.SKIP),
+        FUTURE("play FUTURE", Card.FUTURE),
+        TWO_OF_A_KIND("play TACOCAT TACOCAT " + TARGET, Card.TACOCAT, Card.TACOCAT),
+        THREE_OF_A_KIND("play TACOCAT TACOCAT TACOCAT " + TARGET + " DEFUSE",
+                Card.TACOCAT, Card.TACOCAT, Card.TACOCAT);
+
+        private final String text;
+        private final Card[] cards;
+
+        Play(String text, Card... cards) {
+            this.text = text;
+            this.cards = cards;
+        }
+    }
+
+    /** Takes note of what has to be put back after a play */
+    private static class Undo implements GameListener {
+        private String rejected = null;
+        private Player thief = null;
+        private Player victim = null;
+        private Card taken = null;
+
+        @Override
+        public void onRejected(Player player, String reason) {
+            rejected = reason;
+        }
+
+        @Override
+        public void onCardStolen(Player thief, Player victim, Card card) {
+            this.take(thief, victim, card);
+        }
+
+        @Override
+        public void onCardDemanded(Player thief, Player victim, Card card, boolean isGiven) {
+            if (isGiven) {
+                this.take(thief, victim, card);
+            }
+        }
+
+        private void take(Player thief, Player victim, Card card) {
+            this.thief = thief;
+            this.victim = victim;
+            this.taken = card;
+        }
+    }
+
+    @Param
+    public Play play;
+
+    private final Undo undo = new Undo();
+    private final Move move = new Move();
+    private Game game;
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < NUMBER_OF_PLAYERS; seat++) {
+            players.add(new HumanPlayer("player" + (char) ('a' + seat), seat));
+        }
+        game = new Game(players, undo, new SplittableRandom(42));
+        game.init();
+        player = game.getCurrentPlayer();
+        Player target = game.getPlayers().get((game.getCurrentPlayerTurnIndex() + 1) % NUMBER_OF_PLAYERS);
+        move.parse(play.text.replace(TARGET, target.getName()));
+
+        this.processPlay();
+        if (undo.rejected != null) {
+            throw new IllegalStateException(play + " was rejected: " + undo.rejected);
+        }
+    }
+
+    @Benchmark
+    public Game processPlay() {
+        for (Card card : play.cards) {
+            player.getHand().add(card);
+        }
+        game.processPlay(move);
+        this.putBack();
+        return game;
+    }
+
+    /** Puts back the cards taken, the turns and the discard pile */
+    private void putBack() {
+        if (undo.taken != null) {
+            undo.thief.getHand().remove(undo.taken);
+            undo.victim.getHand().add(undo.taken);
+            undo.taken = null;
+        }
+        // A FAVOR is only discarded once the target gave a card
+        if (play == Play.FAVOR) {
+            player.getHand().remove(Card.FAVOR);
+        }
+        for (Player other : game.getPlayers()) {
+            int turns = (other == player) ? 1 : 0;
+            other.setTurnsToPlay(turns - other.getTurnsToPlay());
+        }
+        game.getDiscardPile().clear();
+    }
+}
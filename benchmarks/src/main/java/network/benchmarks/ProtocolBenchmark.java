@@ -0,0 +1,64 @@
+package network.benchmarks;
+
+import network.Protocol.ProtocolLine;
+import network.model.Card;
+import network.model.Hand;
+import network.model.Move;
+import network.server.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the server does with every line it reads and with every hand it
+ * sends: checking a name, cutting a line into its arguments and reading the
+ * move in it, and writing the "Your hand:" message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolBenchmark {
+    private static final String PLAYMOVE_LINE = "PLAYMOVE|play TACOCAT TACOCAT bob";
+
+    private final ProtocolLine line = new ProtocolLine();
+    private final Move move = new Move();
+    private final Hand hand = new Hand();
+    private Server server;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Port 0 binds any free port; the server never accepts a client
+        server = new Server(new String[]{"0"});
+        for (Card card : new Card[]{Card.DEFUSE, Card.NOPE, Card.NOPE, Card.ATTACK,
+                Card.FUTURE, Card.TACOCAT, Card.TACOCAT, Card.RAINBOW}) {
+            hand.add(card);
+        }
+    }
+
+    @Benchmark
+    public boolean isNameValid() {
+        return server.isNameValid("alice");
+    }
+
+    @Benchmark
+    public boolean isNameValidForCardName() {
+        return server.isNameValid("TACOCAT");
+    }
+
+    /** What ClientHandler.getArgSplit used to do, with the parser replacing it */
+    @Benchmark
+    public Move parsePlayMove() {
+        line.parse(PLAYMOVE_LINE);
+        move.parse(line.line(), line.start(1), line.end(1));
+        return move;
+    }
+
+    @Benchmark
+    public String handMessage() {
+        return "Your hand: " + hand;
+    }
+}
@@ -0,0 +1,299 @@
+package network.Protocol;
+
+import network.model.Card;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Binary form of the lines of the {@link Protocol}, for clients that announce
+ * {@link #FEATURE}. The server confirms the feature by ending its
+ * {@link Protocol#WELCOME} with the same flag; from then on, both sides send
+ * frames instead of lines.
+ * <p>
+ * A frame is a two byte, big-endian length followed by that many bytes: one
+ * opcode and the payload. The opcode is the index of the command in
+ * {@link #OPCODES}, with its highest bit set if the line has arguments. The
+ * payload is the rest of the line after the first {@link Protocol#DELIMITER},
+ * in UTF-8, except that:
+ * <ul>
+ *     <li>{@link #CARD} and an ordinal stand for the name of a {@link Card},</li>
+ *     <li>{@link #PHRASE} and an index stand for one of the {@link #PHRASES},</li>
+ *     <li>{@link #LITERAL} and a byte stand for that byte.</li>
+ * </ul>
+ * A frame decodes to exactly the line it was made of, such that the handling
+ * of the commands does not depend on the encoding of the connection.
+ */
+public final class FrameCodec {
+    /** Feature flag of {@link Protocol#ANNOUNCE} asking for frames */
+    public static final String FEATURE = "B";
+
+    /** Bytes of the length in front of each frame */
+    public static final int HEADER_LENGTH = 2;
+
+    /** Longest frame body, opcode included */
+    public static final int MAX_FRAME_LENGTH = 0xFFFF;
+
+    static final byte CARD = 1;
+    static final byte PHRASE = 2;
+    static final byte LITERAL = 3;
+
+    /** Commands by opcode. Opcode 0 means that the command is unknown and
+     * stays in the payload. New commands go at the end. */
+    private static final String[] OPCODES = {
+            null,
+            Protocol.ANNOUNCE, Protocol.WELCOME, Protocol.REQUESTGAME, Protocol.START,
+            Protocol.DRAW, Protocol.SEETHEFUTURE, Protocol.NEXTTURN, Protocol.GAMEOVER,
+            Protocol.PLAYMOVE, Protocol.PASS, Protocol.INSERTEXPLODE, Protocol.ABORT,
+            Protocol.BROADCAST, Protocol.PRIVATE, Protocol.ERROR
+    };
+
+    private static final int HAS_ARGUMENTS = 0x80;
+
+    private static final Card[] CARDS = Card.values();
+
+    /** Text the server and clients send over and over, by index. New
+     * phrases go at the end. */
+    private static final String[] PHRASES = {
+            "Your hand: ",
+            "Last discard pile card : ",
+            "None yet.",
+            "Starting a ",
+            " seconds timer in which you can type <play nope>, or <pass> to let it through...",
+            " wanted to ",
+            "play ",
+            "Server executed the move.",
+            "Server did not execute the move.",
+            "It's your turn now!",
+            "It's now his/her turn.",
+            "It's still his/her turn.",
+            "It's still your turn",
+            "It is not your turn.",
+            "You make the first move!",
+            "makes the first move",
+            "A NOPE card was played! Counter: ",
+            "You (still) have ",
+            " round(s) to play",
+            "Game is starting now.",
+            "Wait until the NOPE window of the previous move is closed.",
+            "There is nothing you can pass on.",
+            "Welcome to the server. You have been put in a lobby.",
+    };
+
+    /** Card names and phrases by their first character, longest first */
+    private static final Abbreviation[][] BY_FIRST_CHAR = new Abbreviation[128][];
+
+    /** Text replaced by a two byte code */
+    private record Abbreviation(String text, byte kind, byte index) {
+    }
+
+    static {
+        List<List<Abbreviation>> byFirstChar = new ArrayList<>();
+        for (int c = 0; c < BY_FIRST_CHAR.length; c++) {
+            byFirstChar.add(new ArrayList<>());
+        }
+        for (Card card : CARDS) {
+            byFirstChar.get(card.name().charAt(0))
+                    .add(new Abbreviation(card.name(), CARD, (byte) card.ordinal()));
+        }
+        for (int index = 0; index < PHRASES.length; index++) {
+            byFirstChar.get(PHRASES[index].charAt(0))
+                    .add(new Abbreviation(PHRASES[index], PHRASE, (byte) index));
+        }
+        for (int c = 0; c < BY_FIRST_CHAR.length; c++) {
+            List<Abbreviation> candidates = byFirstChar.get(c);
+            if (!candidates.isEmpty()) {
+                candidates.sort(Comparator.comparingInt((Abbreviation a) -> a.text().length()).reversed());
+                BY_FIRST_CHAR[c] = candidates.toArray(new Abbreviation[0]);
+            }
+        }
+    }
+
+    private FrameCodec() {
+    }
+
+    /* ************************************
+                    ENCODING
+    ************************************ */
+
+    /**
+     * Encodes a line for a connection.
+     * @param line != null, without line separator
+     * @param binary whether the connection exchanges frames
+     * @return the bytes to send: a frame, or the line and a line separator.
+     * @throws IllegalArgumentException if the line does not fit in a frame.
+     */
+    public static byte[] encode(String line, boolean binary) {
+        return binary
+                ? encodeFrame(line)
+                : (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a line as a frame, length included.
+     * @param line != null, without line separator
+     * @throws IllegalArgumentException if the line does not fit in a frame.
+     */
+    public static byte[] encodeFrame(String line) {
+        int delimiter = line.indexOf(Protocol.DELIMITER);
+        int commandEnd = delimiter < 0 ? line.length() : delimiter;
+        int opcode = opcodeOf(line, commandEnd);
+        int payloadStart;
+        if (opcode == 0) {
+            payloadStart = 0;
+        } else if (delimiter < 0) {
+            payloadStart = line.length();
+        } else {
+            opcode |= HAS_ARGUMENTS;
+            payloadStart = delimiter + Protocol.DELIMITER.length();
+        }
+
+        // Every character takes at most 3 bytes, or 4 per surrogate pair
+        byte[] frame = new byte[HEADER_LENGTH + 1 + 3 * (line.length() - payloadStart)];
+        int length = HEADER_LENGTH;
+        frame[length++] = (byte) opcode;
+        int i = payloadStart;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            Abbreviation abbreviation = c < BY_FIRST_CHAR.length ? findAbbreviation(line, i) : null;
+            if (abbreviation != null) {
+                frame[length++] = abbreviation.kind();
+                frame[length++] = abbreviation.index();
+                i += abbreviation.text().length();
+            } else if (c <= LITERAL) {
+                frame[length++] = LITERAL;
+                frame[length++] = (byte) c;
+                i++;
+            } else if (c < 0x80) {
+                frame[length++] = (byte) c;
+                i++;
+            } else {
+                int codePoint = line.codePointAt(i);
+                byte[] bytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(bytes, 0, frame, length, bytes.length);
+                length += bytes.length;
+                i += Character.charCount(codePoint);
+            }
+        }
+
+        int bodyLength = length - HEADER_LENGTH;
+        if (bodyLength > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Line too long for a frame: " + bodyLength + " bytes");
+        }
+        frame[0] = (byte) (bodyLength >>> 8);
+        frame[1] = (byte) bodyLength;
+        return Arrays.copyOf(frame, length);
+    }
+
+    private static int opcodeOf(String line, int commandEnd) {
+        for (int opcode = 1; opcode < OPCODES.length; opcode++) {
+            String command = OPCODES[opcode];
+            if (command.length() == commandEnd && line.startsWith(command)) {
+                return opcode;
+            }
+        }
+        return 0;
+    }
+
+    private static Abbreviation findAbbreviation(String line, int index) {
+        Abbreviation[] candidates = BY_FIRST_CHAR[line.charAt(index)];
+        if (candidates != null) {
+            for (Abbreviation candidate : candidates) {
+                if (line.startsWith(candidate.text(), index)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /* ************************************
+                    DECODING
+    ************************************ */
+
+    /**
+     * Reads the length in front of a frame.
+     * @param header at least {@link #HEADER_LENGTH} bytes
+     * @return the number of bytes that follow the header.
+     */
+    public static int bodyLength(byte[] header, int offset) {
+        return ((header[offset] & 0xFF) << 8) | (header[offset + 1] & 0xFF);
+    }
+
+    /**
+     * Decodes the body of a frame, the part after its length.
+     * @param body bytes containing the body
+     * @param offset index of the opcode
+     * @param length length of the body
+     * @return the line the frame was made of.
+     * @throws IllegalArgumentException if the bytes are not a valid frame.
+     */
+    public static String decode(byte[] body, int offset, int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Empty frame");
+        }
+        int opcode = body[offset] & ~HAS_ARGUMENTS & 0xFF;
+        if (opcode >= OPCODES.length) {
+            throw new IllegalArgumentException("Unknown opcode " + opcode);
+        }
+        StringBuilder line = new StringBuilder(2 * length + 16);
+        if (opcode != 0) {
+            line.append(OPCODES[opcode]);
+            if ((body[offset] & HAS_ARGUMENTS) != 0) {
+                line.append(Protocol.DELIMITER);
+            }
+        }
+
+        int end = offset + length;
+        int runStart = offset + 1;
+        int i = runStart;
+        while (i < end) {
+            byte b = body[i];
+            if (b != CARD && b != PHRASE && b != LITERAL) {
+                i++;
+                continue;
+            }
+            appendUtf8(line, body, runStart, i);
+            if (i + 1 >= end) {
+                throw new IllegalArgumentException("Frame ends inside a code");
+            }
+            int index = body[i + 1] & 0xFF;
+            switch (b) {
+                case CARD -> {
+                    if (index >= CARDS.length) {
+                        throw new IllegalArgumentException("Unknown card " + index);
+                    }
+                    line.append(CARDS[index].name());
+                }
+                case PHRASE -> {
+                    if (index >= PHRASES.length) {
+                        throw new IllegalArgumentException("Unknown phrase " + index);
+                    }
+                    line.append(PHRASES[index]);
+                }
+                default -> line.append((char) index);
+            }
+            i += 2;
+            runStart = i;
+        }
+        appendUtf8(line, body, runStart, end);
+        return line.toString();
+    }
+
+    private static void appendUtf8(StringBuilder line, byte[] bytes, int start, int end) {
+        boolean isAscii = true;
+        for (int i = start; i < end && isAscii; i++) {
+            isAscii = bytes[i] >= 0;
+        }
+        if (isAscii) {
+            for (int i = start; i < end; i++) {
+                line.append((char) bytes[i]);
+            }
+        } else {
+            line.append(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package network.Protocol;
+
+/**
+ * One line of the {@link Protocol}, cut at every {@link Protocol#DELIMITER}.
+ * <p>
+ * The line is not copied: {@link #parse(String)} walks it once and only
+ * remembers where each argument starts and ends, such that one instance can be
+ * reused for every line of a connection. The command is looked up among the
+ * commands of the protocol, and arguments are only turned into strings when
+ * asked for with {@link #argument(int)}.
+ * <p>
+ * Index 0 is the command, such that the arguments are numbered as in the
+ * split line they replace.
+ */
+public class ProtocolLine {
+    /** Returned by {@link #command()} when the line does not start with a
+     * command of the protocol */
+    public static final String UNKNOWN_COMMAND = "";
+
+    /** Parts of a line that are remembered. Further delimiters are kept in
+     * the last part. */
+    public static final int MAX_PARTS = 16;
+
+    /** Every command of the protocol */
+    private static final String[] COMMANDS = {
+            Protocol.ANNOUNCE, Protocol.WELCOME, Protocol.REQUESTGAME, Protocol.START,
+            Protocol.DRAW, Protocol.SEETHEFUTURE, Protocol.NEXTTURN, Protocol.GAMEOVER,
+            Protocol.PLAYMOVE, Protocol.PASS, Protocol.INSERTEXPLODE, Protocol.ABORT,
+            Protocol.BROADCAST, Protocol.PRIVATE, Protocol.ERROR
+    };
+
+    /** Commands by the {@link #hash} of their name. No two commands share a slot. */
+    private static final String[] BY_HASH = new String[32];
+
+    static {
+        for (String command : COMMANDS) {
+            int slot = hash(command, 0, command.length());
+            if (BY_HASH[slot] != null) {
+                throw new IllegalStateException(command + " and " + BY_HASH[slot]
+                        + " have the same hash");
+            }
+            BY_HASH[slot] = command;
+        }
+    }
+
+    private String line = "";
+    private String command = UNKNOWN_COMMAND;
+    private int parts = 0;
+    private final int[] starts = new int[MAX_PARTS];
+    private final int[] ends = new int[MAX_PARTS];
+
+    /* ************************************
+                    PARSING
+    ************************************ */
+
+    /**
+     * Cuts a line into its parts, replacing the previous line.
+     * @param line != null, without line separator
+     * @ensures size() >= 1
+     */
+    public void parse(String line) {
+        this.line = line;
+        parts = 0;
+        int start = 0;
+        int end;
+        while (parts < MAX_PARTS - 1 && (end = line.indexOf(Protocol.DELIMITER, start)) >= 0) {
+            starts[parts] = start;
+            ends[parts] = end;
+            parts++;
+            start = end + Protocol.DELIMITER.length();
+        }
+        starts[parts] = start;
+        ends[parts] = line.length();
+        parts++;
+        command = this.lookupCommand(starts[0], ends[0]);
+    }
+
+    private String lookupCommand(int start, int end) {
+        if (end <= start) {
+            return UNKNOWN_COMMAND;
+        }
+        String candidate = BY_HASH[hash(line, start, end)];
+        if (candidate == null || candidate.length() != end - start
+                || !line.startsWith(candidate, start)) {
+            return UNKNOWN_COMMAND;
+        }
+        return candidate;
+    }
+
+    /**
+     * Perfect hash of the commands: the first and last letter and the
+     * length tell all of them apart.
+     * @requires end > start
+     */
+    private static int hash(CharSequence text, int start, int end) {
+        return (2 * text.charAt(start) + 10 * text.charAt(end - 1) + (end - start)) & 31;
+    }
+
+    /* ************************************
+                    GETTERS
+    ************************************ */
+
+    /**
+     * @return the {@link Protocol} constant the line starts with, such that
+     * it can be compared by identity, or {@link #UNKNOWN_COMMAND}.
+     */
+    public String command() {
+        return command;
+    }
+
+    /** @return the line, as it was parsed */
+    public String line() {
+        return line;
+    }
+
+    /** @return number of parts of the line, the command included */
+    public int size() {
+        return parts;
+    }
+
+    /** @return index in {@link #line()} of the first character of the part */
+    public int start(int index) {
+        this.checkIndex(index);
+        return starts[index];
+    }
+
+    /** @return index in {@link #line()} after the last character of the part */
+    public int end(int index) {
+        this.checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Copies one part of the line.
+     * @throws ArrayIndexOutOfBoundsException if the line has no such part.
+     */
+    public String argument(int index) {
+        return line.substring(this.start(index), this.end(index));
+    }
+
+    /**
+     * Copies the parts of the line from the given one on.
+     * @return the parts, possibly none.
+     */
+    public String[] arguments(int from) {
+        String[] result = new String[Math.max(0, parts - from)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.argument(from + i);
+        }
+        return result;
+    }
+
+    /**
+     * Compares one part of the line with a text, without copying it.
+     * @return false if the line has no such part.
+     */
+    public boolean argumentEquals(int index, String text) {
+        return index < parts && ends[index] - starts[index] == text.length()
+                && line.startsWith(text, starts[index]);
+    }
+
+    /**
+     * @return whether any part after the command equals the text.
+     */
+    public boolean hasArgument(String text) {
+        for (int i = 1; i < parts; i++) {
+            if (this.argumentEquals(i, text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= parts) {
+            throw new ArrayIndexOutOfBoundsException("Line has no part " + index + ": " + line);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
@@ -0,0 +1,116 @@
+package network.Protocol;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of the {@link Protocol} from a blocking stream, either as
+ * text lines or, once {@link #useFrames()} was called, as frames of the
+ * {@link FrameCodec}. The bytes are read directly, so nothing received after
+ * the switch gets decoded the wrong way.
+ */
+public class ProtocolReader {
+    /** Longest text line accepted */
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[256];
+    private volatile boolean isBinary = false;
+
+    /**
+     * @param in stream of the socket
+     */
+    public ProtocolReader(InputStream in) {
+        this.in = new BufferedInputStream(in);
+    }
+
+    /**
+     * Reads frames instead of text lines from now on.
+     */
+    public void useFrames() {
+        isBinary = true;
+    }
+
+    public boolean isBinary() {
+        return isBinary;
+    }
+
+    /**
+     * Blocks until a whole line (or frame) was received.
+     * @return the line, without line separator, or null if the stream ended.
+     * @throws IOException if the stream could not be read, or carries
+     * something else than lines of the protocol.
+     */
+    public String readLine() throws IOException {
+        return isBinary ? this.readFrame() : this.readTextLine();
+    }
+
+    private String readTextLine() throws IOException {
+        int length = 0;
+        int nextByte;
+        while ((nextByte = in.read()) != '\n') {
+            if (nextByte < 0) {
+                return length == 0 ? null : this.toLine(length);
+            }
+            if (length == MAX_LINE_LENGTH) {
+                throw new IOException("Line too long.");
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(2 * length, MAX_LINE_LENGTH));
+            }
+            buffer[length++] = (byte) nextByte;
+        }
+        if (length > 0 && buffer[length - 1] == '\r') {
+            length--;
+        }
+        return this.toLine(length);
+    }
+
+    private String toLine(int length) {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String readFrame() throws IOException {
+        if (!this.readFully(FrameCodec.HEADER_LENGTH, true)) {
+            return null;
+        }
+        int length = FrameCodec.bodyLength(buffer, 0);
+        if (length > buffer.length) {
+            buffer = new byte[length];
+        }
+        this.readFully(length, false);
+        try {
+            return FrameCodec.decode(buffer, 0, length);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Fills the start of the buffer.
+     * @return false if the stream ended before the first byte.
+     * @throws EOFException if the stream ended after it.
+     */
+    private boolean readFully(int length, boolean mayEnd) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = in.read(buffer, read, length - read);
+            if (count < 0) {
+                if (read == 0 && mayEnd) {
+                    return false;
+                }
+                throw new EOFException("Stream ended inside a frame.");
+            }
+            read += count;
+        }
+        return true;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+}
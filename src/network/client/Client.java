@@ -1,20 +1,20 @@
 package network.client;
 
+import network.Protocol.FrameCodec;
 import network.Protocol.Protocol;
+import network.Protocol.ProtocolLine;
+import network.Protocol.ProtocolReader;
 import network.exceptions.ExitProgram;
 import network.exceptions.InvalidClientMove;
 import network.exceptions.ServerUnavailableException;
 import network.model.ComputerPlayer;
+import network.util.TimerWheel;
 
 import java.io.*;
 import java.net.InetAddress;
 import java.net.ProtocolException;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.Arrays;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.regex.Pattern;
 
 public class Client implements Runnable {
     /** Socket of the client. It is used for the Server - Client connection */
@@ -27,10 +27,18 @@ public class Client implements Runnable {
     private int port;
 
     /** object through each client receives messages from Server. */
-    private BufferedReader in;
+    private ProtocolReader in;
 
     /** object through each client sends messages from Server. */
-    private BufferedWriter out;
+    private OutputStream out;
+
+    /** Whether this client asks for the binary frames of {@link FrameCodec},
+     * and whether the server agreed to them. */
+    private boolean wantsFrames = false;
+    private volatile boolean usesFrames = false;
+
+    /** Numbers of players this client accepts, e.g. "2,3", or empty for any */
+    private String numbersOfPlayers = "";
 
     /** Handles the communication between the Controller (this)
      * and the view (ClientTUI).
@@ -63,11 +71,26 @@ public class Client implements Runnable {
  * for messages from the server. */
     private final Object lock = new Object();
 
+    /** Last line received from the server. Reused for every line, since
+     * they are handled one at a time. */
+    private final ProtocolLine serverLine = new ProtocolLine();
+
+    /** Name of the player whose move may currently be NOPE'd. Null while
+     * the last NOPE on it may be NOPE'd. */
+    private String lastMoverName;
+
+    /** End of the server's message which opens a NOPE countdown */
+    private static final String NOPE_WINDOW_INFO = "or <pass> to let it through...";
+
+    /** Timer shared by every client of this process. Delays the moves of
+     * computer players. */
+    private static final TimerWheel TIMERS = new TimerWheel("Client timer");
+
     /** `Usage of how the Client should be started. That is, what form should
      * the arguments passed in the run configuration take.
      */
     private static final String USAGE
-            = "usage: <name> <address> <port> <true/false>";
+            = "usage: <name> <address> <port> <true/false> [binary] [<players, e.g. 2,3>]";
 
     /* ************************************
            FEATURES & GAMES SUPPORTED
@@ -98,10 +121,22 @@ public class Client implements Runnable {
     public Client(final String[] args) {
         clientTUI = new ClientTUI(this);
 
-        if (args.length != 4) {
+        if (args.length < 4 || args.length > 6) {
             System.out.println(USAGE);
             System.exit(0);
         }
+        // args[4] and args[5], if present, ask for binary frames and for
+        // the numbers of players
+        for (int index = 4; index < args.length; index++) {
+            if (args[index].equals("binary")) {
+                this.wantsFrames = true;
+            } else if (args[index].matches("[2-5](,[2-5])*")) {
+                this.numbersOfPlayers = args[index];
+            } else {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+        }
 
         addr = null;
         port = 0;
@@ -173,10 +208,8 @@ public class Client implements Runnable {
             clientTUI.printMessage("Attempting to connect to " + addr + ":"
                     + port + ".");
             sock = new Socket(addr, port);
-            in = new BufferedReader(new InputStreamReader(
-                    sock.getInputStream()));
-            out = new BufferedWriter(new OutputStreamWriter(
-                    sock.getOutputStream()));
+            in = new ProtocolReader(sock.getInputStream());
+            out = new BufferedOutputStream(sock.getOutputStream());
         } catch (IOException e) {
             clientTUI.printMessage("ERROR: could not create a socket on "
                     + addr + " and port " + port + ".");
@@ -197,8 +230,7 @@ public class Client implements Runnable {
         if (out != null) {
             try {
 //                System.out.println("OUTGOING: [" + msg + "]");
-                out.write(msg);
-                out.newLine();
+                out.write(FrameCodec.encode(msg, usesFrames));
                 out.flush();
             } catch (IOException e) {
                 clientTUI.printMessage(e.getMessage());
@@ -250,45 +282,53 @@ public class Client implements Runnable {
      * @throws IOException if an IO errors occur.
      */
     private void handleCommandFromServer(String msg) throws IOException {
-        String[] splittedMessage = this.getSpilt(msg);
-        String protocolCommand = this.getCommandFromSplittedMessage(splittedMessage);
+        serverLine.parse(msg);
+        String protocolCommand = serverLine.command();
         String message;
 
         switch (protocolCommand) {
             case Protocol.DRAW:
-                message = this.getStringFromSplittedMessage(splittedMessage);
+                message = this.getMessageFromLine(serverLine);
                 clientTUI.printMessageFromServer(message);
                 clientTUI.printMessage("Type >> ");
                 break;
             case Protocol.SEETHEFUTURE:
-                clientTUI.printMessageFromServer(splittedMessage[1]
-                        + " | " + splittedMessage[2]
-                        + " | " + splittedMessage[3]);
+                clientTUI.printMessageFromServer(serverLine.argument(1)
+                        + " | " + serverLine.argument(2)
+                        + " | " + serverLine.argument(3));
                 break;
             case Protocol.BROADCAST, Protocol.PRIVATE:
-                message = this.getStringFromSplittedMessage(splittedMessage);
+                message = this.getMessageFromLine(serverLine);
                 clientTUI.printMessageFromServer(message);
                 if (message.startsWith("Your hand: ")
                         || message.equals("It is not your turn.")
-                        || message.equals("How many players do you want the game to have? "
-                        + "Type \"private\" <from 2 to 5>")
-                        || message.endsWith("in which you can play NOPEs..."))
+                        || message.endsWith("in which you can play NOPEs...")
+                        || message.endsWith(NOPE_WINDOW_INFO))
                     clientTUI.printMessage("Type >> ");
 
                 if (this.isComputerPlayer) {
                     // Understand hand and transform to String[]
                     if (message.startsWith("Your hand:")) {
-                        decomposeComputerPlayerHand(Arrays.toString(Arrays.copyOfRange(splittedMessage,
-                                1, splittedMessage.length)));
+                        decomposeComputerPlayerHand(message);
                     }
                     if (message.contains("has played a FAVOR to you.")) {
                         getCardInFavorResponse();
                     }
 
+                    // A computer player never NOPEs, so it lets every move of the
+                    // others through right away instead of waiting for the countdown.
+                    if (message.contains(" wanted to ")) {
+                        lastMoverName = message.substring(0, message.indexOf(" wanted to "));
+                    } else if (message.startsWith("A NOPE card was played!")) {
+                        lastMoverName = null;
+                    } else if (message.endsWith(NOPE_WINDOW_INFO) && !name.equals(lastMoverName)) {
+                        this.doPass();
+                    }
+
                     // if yes, bot needs to take a turn. If not, not his turn.
-                    computerPlayer.setMyTurnOrNot(splittedMessage[1].contains("You make the first move!")
-                            || splittedMessage[1].contains("It's your turn now!")
-                            || splittedMessage[1].contains("It's still your turn"));
+                    computerPlayer.setMyTurnOrNot(message.contains("You make the first move!")
+                            || message.contains("It's your turn now!")
+                            || message.contains("It's still your turn"));
                     computerPlayer.setMustInsertBack(message.endsWith("to insert back the EXPLODE card"));
                     try {
                         insertExplodeComputerPlayer();
@@ -300,16 +340,12 @@ public class Client implements Runnable {
                     if (computerPlayer.isMyTurnOrNot()) {
                         {
 //                            System.out.println("It's my turn!");
-                            TimerTask timerTask = new TimerTask() {
-                                @Override
-                                public void run() {
-                                        getMoveFromComputerPlayer();
-                                    if (computerPlayer.isMustInsertBack()) {
-                                        getIndexFromComputerPlayer();
-                                    }
+                            TIMERS.schedule(() -> {
+                                getMoveFromComputerPlayer();
+                                if (computerPlayer.isMustInsertBack()) {
+                                    getIndexFromComputerPlayer();
                                 }
-                            };
-                            new Timer().schedule(timerTask, 1000);
+                            }, 1000);
                         }
                     }
                 }
@@ -321,58 +357,49 @@ public class Client implements Runnable {
         }
     }
 
-    public String getCommandFromSplittedMessage(String[] message) {
-        String result;
-        try {
-            result = message[0];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ArrayIndexOutOfBoundsException("Server did not provide a command");
-        }
-        return result;
-    }
-
-    public String getStringFromSplittedMessage(String[] message)
+    public String getMessageFromLine(ProtocolLine line)
             throws ArrayIndexOutOfBoundsException {
-        String result;
-        try {
-            result = message[1];
-        } catch (ArrayIndexOutOfBoundsException e) {
+        if (line.size() < 2) {
             throw new ArrayIndexOutOfBoundsException("Server did not provide a message");
         }
-        return result;
+        return line.argument(1);
     }
 
     public void handleHello()
             throws ServerUnavailableException, ProtocolException {
         String serverReply;
-        String[] spServerReply;
 
         // Client announces himself via ANNOUNCE
         this.sendMessage(Protocol.ANNOUNCE + Protocol.DELIMITER +
                 this.name + Protocol.DELIMITER + FEATURE_CHAT +
                 Protocol.DELIMITER + FEATURE_LOBBY + Protocol.DELIMITER +
-        FEATURE_COMBOS);
+        FEATURE_COMBOS + (wantsFrames ? Protocol.DELIMITER + FrameCodec.FEATURE : ""));
 
         // Server sends a reply, either WELCOME or an ERROR
         serverReply = this.readLineFromServer();
-        spServerReply = getSpilt(serverReply);
+        serverLine.parse(serverReply);
 
-        if (spServerReply[0].equals(Protocol.ERROR)) {
-            clientTUI.printMessageFromServer("Error. Invalid name or name already taken.");
+        if (serverLine.command().equals(Protocol.ERROR)) {
+            clientTUI.printMessageFromServer(serverLine.hasArgument(Protocol.LOBBY_FULL)
+                    ? "The server is full. Try again later."
+                    : "Error. Invalid name or name already taken.");
             this.shutdown();
-        } else if (spServerReply[0].equals(Protocol.WELCOME))
-            clientTUI.printMessageFromServer(spServerReply[1]);
+        } else if (serverLine.command().equals(Protocol.WELCOME)) {
+            clientTUI.printMessageFromServer(this.getMessageFromLine(serverLine));
+            // Everything after a WELCOME carrying the flag is framed
+            if (wantsFrames && serverLine.hasArgument(FrameCodec.FEATURE)) {
+                usesFrames = true;
+                in.useFrames();
+            }
+        }
 
         this.sendMessage(Protocol.REQUESTGAME + Protocol.DELIMITER +
-                NORMAL_GAME);
+                NORMAL_GAME + (numbersOfPlayers.isEmpty() ? "" :
+                Protocol.DELIMITER + numbersOfPlayers.replace(",", Protocol.DELIMITER)));
     }
 
     private void getIndexFromComputerPlayer() {
-        try {
-            this.doInsert(computerPlayer.getIndexToReinsertExplode());
-        } catch (ExitProgram | ServerUnavailableException | InvalidClientMove e) {
-            throw new RuntimeException(e);
-        }
+        this.doInsert(computerPlayer.getIndexToReinsertExplode());
     }
 
     public void insertExplodeComputerPlayer() throws ExitProgram, ServerUnavailableException, InvalidClientMove {
@@ -380,11 +407,7 @@ public class Client implements Runnable {
     }
 
     public void getMoveFromComputerPlayer() {
-        try {
-            this.doPlay(computerPlayer.doMove());
-        } catch (ExitProgram | ServerUnavailableException | InvalidClientMove e) {
-            throw new RuntimeException(e);
-        }
+        this.doPlay(computerPlayer.doMove());
     }
 
     public void decomposeComputerPlayerHand(String splittedMessage) {
@@ -434,18 +457,6 @@ public class Client implements Runnable {
         }
     }
 
-    /** Retrieves the given argument as a splitted, String[] object.
-     * The method is needed because the team's desired DELIMITER,
-     * {@link Protocol#DELIMITER}, is used internally by JVM for splitting
-     * the string. Thus, the Pattern class must be used.
-     * @param serverReply must be a string
-     * @requires serverReply != null
-     * @ensures Array of Strings.
-     */
-    public String[] getSpilt(final String serverReply) {
-        return serverReply.split(Pattern.quote(Protocol.DELIMITER));
-    }
-
     /** Called whenever the client closes the terminal from the red button,
      * in IntelliJ. There is initialised in the {@link #main(String[] args)}
      * a hooker which listens for that. Whenever the hooker is triggered, this
@@ -513,6 +524,19 @@ public class Client implements Runnable {
         }
     }
 
+    /** Tells the server that this client does not NOPE the move that is
+     * waiting to be executed. This method is called whenever the client
+     * types in "pass".
+     * @throws RuntimeException if the server is unreachable.
+     */
+    public void doPass() {
+        try {
+            this.sendMessage(Protocol.PASS);
+        } catch (ServerUnavailableException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /** Sends a message to server that is to be kept at Server level.
      * That is, it doesn't need to be redirected to everyone.
      * @requires message != null
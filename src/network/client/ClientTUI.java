@@ -73,6 +73,9 @@ public class ClientTUI {
             case "draw":
                 client.doDraw(); // split[1] = guestName
                 break;
+            case "pass":
+                client.doPass();
+                break;
             case "abort":
                 client.doAbort();
                 break;
@@ -0,0 +1,190 @@
+package network.client;
+
+import network.Protocol.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Connects many clients at once to a server, asks for rooms of two and
+ * measures how long the server takes to acknowledge the first move of each
+ * room. All the clients are driven by a single selector, such that the load
+ * generator itself needs no thread per connection.
+ * <p>
+ * Usage: {@code <address> <port> <connections>}
+ */
+public class LoadTest {
+    private static final String USAGE = "usage: <address> <port> <connections>";
+    private static final String FIRST_MOVE_INFO = "You make the first move!";
+    private static final String MOVE_ACKNOWLEDGED = " wanted to ";
+    private static final long SETTLE_TIME_MILLIS = 5000;
+
+    private final Selector selector;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(16 * 1024);
+    private final List<Long> moveLatenciesNanos = new ArrayList<>();
+    private int connectedClients = 0;
+    private int droppedClients = 0;
+
+    /** State of one simulated client */
+    private static class SimulatedClient {
+        private final String name;
+        private final StringBuilder line = new StringBuilder();
+        private long moveSentAt = 0;
+        private boolean isConnected = false;
+
+        private SimulatedClient(String name) {
+            this.name = name;
+        }
+    }
+
+    public LoadTest() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Builds a unique name made of letters only, as {@link Protocol} requires.
+     * @param index index of the client
+     * @return the name of the client
+     */
+    private static String nameOf(int index) {
+        StringBuilder name = new StringBuilder("load");
+        int rest = index;
+        do {
+            name.append((char) ('a' + rest % 26));
+            rest /= 26;
+        } while (rest > 0);
+        return name.toString();
+    }
+
+    /**
+     * Connects the clients, plays the first move of every room and prints
+     * the statistics.
+     */
+    public void run(InetSocketAddress address, int connections) throws IOException {
+        long startedAt = System.nanoTime();
+        // Connecting never blocks, such that the first moves keep being
+        // played while the server's accept backlog is full.
+        for (int index = 0; index < connections; index++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT,
+                    new SimulatedClient(nameOf(index)));
+            this.poll(0);
+        }
+        while (connectedClients < connections) {
+            this.poll(100);
+        }
+        long connectedAt = System.nanoTime();
+        long deadline = System.currentTimeMillis() + SETTLE_TIME_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            this.poll(100);
+        }
+
+        Collections.sort(moveLatenciesNanos);
+        System.out.println("Connections: " + connectedClients + " (dropped: " + droppedClients + ")");
+        System.out.println("Connect time: " + (connectedAt - startedAt) / 1_000_000 + " ms");
+        System.out.println("Moves acknowledged: " + moveLatenciesNanos.size());
+        if (!moveLatenciesNanos.isEmpty()) {
+            System.out.println("Move latency p50: " + percentile(50) + " ms, p99: "
+                    + percentile(99) + " ms, max: " + percentile(100) + " ms");
+        }
+    }
+
+    private double percentile(int percentile) {
+        int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * moveLatenciesNanos.size()) - 1);
+        return moveLatenciesNanos.get(index) / 1_000_000.0;
+    }
+
+    private void poll(long timeoutMillis) throws IOException {
+        if (timeoutMillis == 0) {
+            selector.selectNow();
+        } else {
+            selector.select(timeoutMillis);
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            try {
+                this.handleKey(key);
+            } catch (IOException e) {
+                if (!((SimulatedClient) key.attachment()).isConnected) {
+                    connectedClients++; // It will never connect, stop waiting for it
+                }
+                droppedClients++;
+                key.cancel();
+                key.channel().close();
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        SimulatedClient client = (SimulatedClient) key.attachment();
+        if (key.isConnectable()) {
+            channel.finishConnect();
+            client.isConnected = true;
+            connectedClients++;
+            key.interestOps(SelectionKey.OP_READ);
+            send(channel, Protocol.ANNOUNCE + Protocol.DELIMITER + client.name
+                    + Protocol.DELIMITER + "C" + Protocol.DELIMITER + "L");
+            send(channel, Protocol.REQUESTGAME + Protocol.DELIMITER + "N"
+                    + Protocol.DELIMITER + "2");
+            return;
+        }
+        readBuffer.clear();
+        if (channel.read(readBuffer) < 0) {
+            throw new IOException("Connection closed by the server");
+        }
+        readBuffer.flip();
+        CharBuffer characters = StandardCharsets.UTF_8.decode(readBuffer);
+        while (characters.hasRemaining()) {
+            char character = characters.get();
+            if (character == '\n') {
+                this.handleLine(channel, client, client.line.toString().trim());
+                client.line.setLength(0);
+            } else {
+                client.line.append(character);
+            }
+        }
+    }
+
+    private void handleLine(SocketChannel channel, SimulatedClient client, String line)
+            throws IOException {
+        if (line.endsWith(FIRST_MOVE_INFO)) {
+            client.moveSentAt = System.nanoTime();
+            send(channel, Protocol.PLAYMOVE + Protocol.DELIMITER + "DRAW");
+        } else if (client.moveSentAt != 0
+                && line.contains(client.name + MOVE_ACKNOWLEDGED)) {
+            moveLatenciesNanos.add(System.nanoTime() - client.moveSentAt);
+            client.moveSentAt = 0;
+        }
+    }
+
+    private static void send(SocketChannel channel, String line) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(line + "\n");
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        new LoadTest().run(new InetSocketAddress(args[0], Integer.parseInt(args[1])),
+                Integer.parseInt(args[2]));
+    }
+}
@@ -2,23 +2,28 @@ package network.controller;
 
 import network.model.*;
 import network.server.ClientHandler;
-import network.server.Server;
+import network.server.Room;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
-
-public class GameController {
+import java.util.SplittableRandom;
+
+/**
+ * Connects the {@link Game} of a room with its clients: the commands of the
+ * clients go to the game, and the events of the game go to the clients as
+ * messages. The game itself knows nothing about the network.
+ * <p>
+ * The controller is only called from the mailbox of its room, see
+ * {@link Room#post(Runnable)}, and has no thread of its own.
+ */
+public class GameController implements GameListener {
     private static Scanner userInput = new Scanner(System.in);
     private Game game;
     private ArrayList<Player> players;
-    private Player currentPlayer;
-    /** Used for communicating to Server -> ClientHandler -> Client */
-    private Server server;
-    private final Object gameLock = new Object();
+    /** Used for communicating to Room -> ClientHandler -> Client */
+    private Room room;
 
-    private String move = "";
-    private int currentPlayerIndex;
     private boolean awaitingFavorResponse = false;
 
     private static final String FIRST_MOVE_INFO =
@@ -28,53 +33,86 @@ public class GameController {
                   CONSTRUCTOR
     ************************************ */
 
-    public GameController(List<ClientHandler> clients, Server server) {
+    public GameController(List<ClientHandler> clients, Room room) {
 
         players = new ArrayList<>();
-        for (int index = 0; index < clients.size(); index++) {
-            players.add(new HumanPlayer(clients.get(index).getName()));
+        ArrayList<GameListener> listeners = new ArrayList<>();
+        listeners.add(this);
+        for (ClientHandler client : clients) {
+            if (client.getBot() != null) {
+                // The bot plays with the very hand of its player, and
+                // follows the game through its tracker
+                ComputerPlayer bot = new ComputerPlayer(client.getName(), client.getSeat());
+                client.getBot().setPlayer(bot);
+                players.add(bot);
+                listeners.add(bot.getTracker());
+            } else {
+                players.add(new HumanPlayer(client.getName(), client.getSeat()));
+            }
         }
 
-        this.server = server;
-        game = new Game(players, this);
+        this.room = room;
+        GameListener listener = (listeners.size() > 1)
+                ? GameListener.all(listeners.toArray(GameListener[]::new)) : this;
+        game = new Game(players, listener, new SplittableRandom(room.getSeed()));
         game.init();
+        for (Player player : players) {
+            if (player instanceof ComputerPlayer bot) {
+                bot.getTracker().start(game);
+            }
+        }
+    }
+
+    public Game getGame() {
+        return game;
     }
 
     /* ************************************
                     GENERAL
     ************************************ */
 
+    /**
+     * Tells the players who moves first and shows them their hands. The
+     * game then advances with every move, see {@link #endMove()}.
+     */
     public void startGame() {
-        this.printHasFirstMove(game.getCurrentPlayerTurnIndex());
-        game.getCurrentPlayer().setTurnsToPlay(1);
-        this.promptDiscardPile("None yet.");
-        this.printHandAllPlayers();
-
-        while (!game.hasWinner()) {
-            currentPlayer = game.getCurrentPlayer();
-            currentPlayerIndex = game.getPlayers().indexOf(currentPlayer);
-
-            synchronized (gameLock) {
-                try {
-                    gameLock.wait();
-                    this.showDiscardPile();
-                    if (!game.getCurrentPlayer().hasTurnsToPlay()) {
-                        game.incrementPlayerTurnIndex();
-                        this.informCurrentTurn(game.getCurrentPlayerTurnIndex());
-                        server.doChatBroadcast("It's now his/her turn.",
-                        game.getCurrentPlayerTurnIndex());
-                    } else {
-                        server.doChatBroadcast("It's still his/her turn.",
-                                game.getCurrentPlayerTurnIndex());
-                        this.sendPrivateMsg("It's still your turn",
-                                game.getCurrentPlayerTurnIndex());
-                    }
-                    this.printHandAllPlayers();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    System.out.println("Game loop interrupted.");
-                }
+        room.beginBatch();
+        try {
+            this.printHasFirstMove(game.getCurrentPlayerSeat());
+            this.promptDiscardPile("None yet.");
+            this.printHandAllPlayers();
+        } finally {
+            room.endBatch();
+        }
+    }
+
+    /**
+     * Ends the move that was just applied: the turn goes on or passes to the
+     * next player, and everybody sees the discard pile and their hand.
+     * Called on the mailbox of the room once per move, thus never by two
+     * threads at once.
+     */
+    public void endMove() {
+        if (game.hasWinner() || room.isClosed()) {
+            return;
+        }
+        room.beginBatch();
+        try {
+            this.showDiscardPile();
+            if (game.endMove()) {
+                this.informCurrentTurn(game.getCurrentPlayerSeat());
+                room.doChatBroadcast("It's now his/her turn.",
+                game.getCurrentPlayerSeat());
+            } else {
+                room.doChatBroadcast("It's still his/her turn.",
+                        game.getCurrentPlayerSeat());
+                this.sendPrivateMsg("It's still your turn",
+                        game.getCurrentPlayerSeat());
+                room.promptTurn(game.getCurrentPlayerSeat());
             }
+            this.printHandAllPlayers();
+        } finally {
+            room.endBatch();
         }
     }
 
@@ -91,115 +129,217 @@ public class GameController {
 
     /** Receives cards OR cards with target players
      *
-     * @param cmd
+     * @param move
+     */
+    /**
+     * Checks a move with the game before it is played. If it breaks the
+     * rules, the player is told why.
+     * @return whether the game would apply the move
      */
-    public void doPlayMove(String[] cmd, int clientIndex) {
-        game.processPlay(cmd);
+    public boolean isPlayAllowed(Move move, int seat) {
+        return game.isPlayAllowed(seat, move);
     }
 
-    public synchronized void doInsertExplode(int cardIndex, int playerIndex) {
-        System.out.println("HERE ");
-        game.doInsertExplode(cardIndex, playerIndex);
+    public void doPlayMove(Move move, int seat) {
+        game.execute(new GameCommand.Play(seat, move));
     }
 
-    public void resumeGame() {
-        synchronized (gameLock) {
-            gameLock.notifyAll();
-        }
+    public void doInsertExplode(int cardIndex, int seat) {
+        game.execute(new GameCommand.InsertExplode(seat, cardIndex));
     }
 
-    public void askIndexOfReinsertingExplode() {
-        int lastDeckCardIndex = game.getDeckObject().getDeckArray().size() - 1;
-        server.doPrivate("You drew an EXPLODE, but you had a DEFUSE." +
-                        " Specify an reinserting index between 0 and " +
-                        lastDeckCardIndex + ". Type <insert> <INDEX>.",
-                game.getCurrentPlayerTurnIndex());
+    public boolean isClientsTurn(int seatWhoPlayedMove) {
+        return game.isClientsTurn(seatWhoPlayedMove);
     }
 
-    public boolean isClientsTurn(int playerIndexWhoPlayedMove) {
-        return game.isClientsTurn(playerIndexWhoPlayedMove);
+    /**
+     * Discards the cards of the current player's move, which was NOPE'd.
+     */
+    public void removeCardFromPlayerHand(Move move) {
+        game.execute(new GameCommand.Cancel(game.getCurrentPlayerSeat(), move));
     }
 
-    public void promptLastThreeCardsFromDeck(
-            Card lastCard,
-            Card secondToLastCard,
-            Card thirdToLastCard
-    ) {
-        server.revealTopThreeCardsToPlayer(
-                lastCard.name(),
-                secondToLastCard.name(),
-                thirdToLastCard.name(),
-                game.getCurrentPlayerTurnIndex()
-        );
+    public boolean hasCard(Card card, int seat) {
+        Player player = game.getPlayerAtSeat(seat);
+        return player != null && player.getHand().has(card);
     }
 
-    public void removeCardFromPlayerHand(String[] clientMsgSplitted) {
-        game.removeCardFromPlayerHand(clientMsgSplitted);
+    public boolean discardCard(Card card, int seat) {
+        return game.discardFromHand(card, seat);
     }
 
     /********** ***************  FROM TUI *************** **/
 
     public void promptDiscardPile(String lastDiscardPileCard) {
-        server.doBroadcast("Last discard pile card : " + lastDiscardPileCard);
+        room.doBroadcast("Last discard pile card : " + lastDiscardPileCard);
     }
 
-    public void informCurrentTurn(int currentPlayerIndex) {
-        server.doPrivate("It's your turn now!", currentPlayerIndex);
+    public void informCurrentTurn(int currentPlayerSeat) {
+        room.doPrivate("It's your turn now!", currentPlayerSeat);
+        room.promptTurn(currentPlayerSeat);
     }
 
     public void doBroadcast(String msg) {
-        server.doBroadcast(msg);
+        room.doBroadcast(msg);
     }
 
     public void printHandAllPlayers() {
         game.getPlayers().forEach(player -> this.promptPlayerHand(
                 player.getName(),
                 player.getHand(),
-                game.getPlayers().indexOf(player)));
+                player.getSeat()));
     }
 
     public void promptPlayerHand(String playerName,
-                                 ArrayList<Card> playerHand,
-                                 int currentPlayerIndex) {
-        server.doPrivate("Your hand: " + playerHand, currentPlayerIndex);
+                                 Hand playerHand,
+                                 int seat) {
+        room.doPrivate("Your hand: " + playerHand, seat);
+    }
+
+    public void printHasFirstMove(int seatPlayerFirstMove) {
+        room.doChatBroadcast(
+                "makes the first move", seatPlayerFirstMove);
+        room.doPrivate(FIRST_MOVE_INFO, seatPlayerFirstMove);
+        room.promptTurn(seatPlayerFirstMove);
+    }
+
+    /**
+     * Sends a private message to a player.
+     * @param seat seat of the player, see {@link Player#getSeat()}
+     */
+    public void sendPrivateMsg(String msg, int seat) {
+        room.doPrivate(msg, seat);
     }
 
-    public void printHasFirstMove(int indexPlayerFirstMove) {
-        server.doChatBroadcast(
-                "makes the first move", indexPlayerFirstMove);
-        server.doPrivate(FIRST_MOVE_INFO, indexPlayerFirstMove);
+    public void doFavorResponse(Move move, int targetSeat) {
+        Card receivedCard = move.card(0);
+        if (receivedCard == null) {
+            throw new IllegalArgumentException("Favor response is not a card: " + move);
+        }
+        game.execute(new GameCommand.GiveFavor(targetSeat, receivedCard));
     }
 
-    public void sendPrivateMsg(String msg, int currentPlayerIndex) {
-        server.doPrivate(msg, currentPlayerIndex);
+    public void removePlayerFromGame(int seat) {
+        if (game.getPlayerAtSeat(seat) != null) {
+            game.execute(new GameCommand.Leave(seat));
+        }
     }
 
-    public void announceKick(int currentPlayerIndex) {
-        server.doKick("You drew an EXPLODE, but you didn't have" +
-                "a DEFUSE. You are out.", currentPlayerIndex);
+    public void checkGameHasWinner() {
+        game.checkHasWinner();
     }
 
-    public void doFavorResponse(String card, int targetPlayerIndex) {
-        game.doFavorResponse(card, targetPlayerIndex);
+    /**
+     * Ends the game of this controller's room, without affecting
+     * the other rooms of the server.
+     */
+    public void endGame() {
+        room.close();
     }
 
     /* ************************************
                 OVERRIDE METHODS
     ************************************ */
 
-    public void requestCardFromPlayer(
-            int targetPlayerIndex,
-            String requestingPlayerName) {
-        server.askPlayerForCard(targetPlayerIndex,
-                requestingPlayerName);
+    @Override
+    public void onRejected(Player player, String reason) {
+        this.sendPrivateMsg(reason, player.getSeat());
     }
 
-    public void removePlayerFromGame(int clientHandlerIndex) {
-        game.removePlayerFromGame(clientHandlerIndex);
+    @Override
+    public void onCardStolen(Player thief, Player victim, Card card) {
+        this.sendPrivateMsg("You got a " + card + ".", thief.getSeat());
+        this.sendPrivateMsg("Your 2 identical cards have been" +
+                " put in the discard pile.", thief.getSeat());
+        this.sendPrivateMsg(thief.getName() + " got from you a " +
+                card.name() + ".", victim.getSeat());
     }
 
-    public void checkGameHasWinner() {
-        game.checkHasWinner();
+    @Override
+    public void onCardDemanded(Player thief, Player victim, Card card, boolean isGiven) {
+        if (isGiven) {
+            this.sendPrivateMsg("You got " + victim.getName()
+                    + "'s " + card.name() + ".", thief.getSeat());
+            this.sendPrivateMsg(thief.getName() +
+                    " played a 3 OF A KIND on your " + card.name(), victim.getSeat());
+        } else {
+            this.sendPrivateMsg(victim.getName() +
+                    " did not have the desired card", thief.getSeat());
+            this.sendPrivateMsg("Your cards are put " +
+                    "in the discard pile.", thief.getSeat());
+        }
+    }
+
+    @Override
+    public void onAttack(Player attacker, Player next, boolean hasPassedTurns) {
+        if (!hasPassedTurns) {
+            this.sendPrivateMsg("Next player has to play 2 consecutive rounds",
+                    attacker.getSeat());
+        } else {
+            this.sendPrivateMsg("You passed the turns to the next player.",
+                    attacker.getSeat());
+        }
+        this.sendPrivateMsg("Previous player played an ATTACK card, and " +
+                "now you have to play 3 rounds.", next.getSeat());
+    }
+
+    @Override
+    public void onFavorAsked(Player asker, Player target) {
+        room.askPlayerForCard(target.getSeat(), asker.getName());
+    }
+
+    @Override
+    public void onDeckShuffled(Player player) {
+        this.doBroadcast("The deck has been shuffled.");
+    }
+
+    @Override
+    public void onFutureSeen(Player player, Card top, Card second, Card third) {
+        room.revealTopThreeCardsToPlayer(
+                nameOf(top),
+                nameOf(second),
+                nameOf(third),
+                player.getSeat()
+        );
+    }
+
+    private static String nameOf(Card card) {
+        return (card != null) ? card.name() : "None";
+    }
+
+    @Override
+    public void onExplodeDefused(Player player, int lastIndex) {
+        room.doPrivate("You drew an EXPLODE, but you had a DEFUSE." +
+                        " Specify an reinserting index between 0 and " +
+                        lastIndex + ". Type <insert> <INDEX>.",
+                player.getSeat());
+        room.promptInsertExplode(player.getSeat());
+    }
+
+    @Override
+    public void onExplodeInserted(Player player, int index) {
+        this.sendPrivateMsg("EXPLODE inserted successfully at " + index,
+                player.getSeat());
+    }
+
+    @Override
+    public void onExploded(Player player) {
+        room.doKick("You drew an EXPLODE, but you didn't have" +
+                "a DEFUSE. You are out.", player.getSeat());
+        this.doBroadcast(player.getName() + " drew an EXPLODE, " +
+                "but did not have a DEFUSE. He/She is out.");
+    }
+
+    @Override
+    public void onTurnsLeft(Player player, int turns) {
+        this.sendPrivateMsg("You (still) have " + turns +
+                " round(s) to play", player.getSeat());
+    }
+
+    @Override
+    public void onWinner(Player winner) {
+        this.doBroadcast("YOU WON! CONGRATULATIONS!");
+        this.endGame();
     }
 
 }
@@ -0,0 +1,13 @@
+package network.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a client does not read its messages fast enough, such that
+ * more of them are waiting to be sent than the server allows.
+ */
+public class SlowConsumerException extends IOException {
+    public SlowConsumerException(String msg) {
+        super(msg);
+    }
+}
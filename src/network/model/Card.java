@@ -14,4 +14,66 @@ public enum Card {
     POTATO,
     BEARD,
     RAINBOW;
+
+    /** Cards by their ordinal. Unlike {@link #values()}, not copied on every use. */
+    private static final Card[] BY_ORDINAL = values();
+
+    /** Cards by the {@link #hash} of their name. No two names share a slot,
+     * such that a lookup checks at most one candidate. */
+    private static final Card[] BY_NAME_HASH = new Card[32];
+
+    static {
+        for (Card card : values()) {
+            int slot = hash(card.name(), 0, card.name().length());
+            if (BY_NAME_HASH[slot] != null) {
+                throw new IllegalStateException(card + " and " + BY_NAME_HASH[slot]
+                        + " have the same name hash");
+            }
+            BY_NAME_HASH[slot] = card;
+        }
+    }
+
+    /**
+     * @requires 0 <= ordinal && ordinal < values().length
+     * @return the card whose {@link #ordinal()} is the given one.
+     */
+    public static Card byOrdinal(int ordinal) {
+        return BY_ORDINAL[ordinal];
+    }
+
+    /**
+     * Finds the card named by a part of a text, ignoring case. Unlike
+     * {@link #valueOf(String)}, nothing is allocated and an unknown name
+     * is not an error.
+     * @param text != null
+     * @param start index of the first character of the name
+     * @param end index after the last character of the name
+     * @return the card, or null if the text does not name one.
+     */
+    public static Card lookup(CharSequence text, int start, int end) {
+        if (end <= start) {
+            return null;
+        }
+        Card card = BY_NAME_HASH[hash(text, start, end)];
+        if (card == null || card.name().length() != end - start) {
+            return null;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != card.name().charAt(i)) {
+                return null;
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Perfect hash of the card names: the first and last letter and the
+     * length tell all of them apart.
+     * @requires end > start
+     */
+    private static int hash(CharSequence text, int start, int end) {
+        return (2 * Character.toUpperCase(text.charAt(start))
+                + 8 * Character.toUpperCase(text.charAt(end - 1))
+                + (end - start)) & 31;
+    }
 }
@@ -0,0 +1,314 @@
+package network.model;
+
+/**
+ * What one player can tell of the cards it does not hold, kept up to date
+ * from the events of its game: how many cards and EXPLODEs the deck holds,
+ * which cards on top of the deck it saw, which cards it knows to be in the
+ * hand of an opponent, and how many cards of each type it has not seen yet.
+ * <p>
+ * Only what the player is told counts, e.g. the card another player draws
+ * is not, though the event carries it. Every event costs a handful of
+ * integer updates, at most a few per card type, and nothing is counted again
+ * from the game, thus a tracker per bot is cheap however many bots play.
+ * <p>
+ * The tracker has to be among the listeners of the game, see
+ * {@link GameListener#all(GameListener...)}, and to be started once the
+ * game dealt its cards.
+ */
+public class CardTracker implements GameListener {
+    private static final int CARDS = Card.values().length;
+
+    /** How deep the player may know the deck, i.e. the cards a SEETHEFUTURE shows */
+    private static final int KNOWN_DEPTH = 3;
+
+    private final Player viewer;
+
+    /** Cards of each type, by ordinal, whose place the player does not know:
+     * in the deck, in the hand of an opponent, or lost with a player who is
+     * out. EXPLODEs are counted apart, see deckExplodes. */
+    private final int[] unseen = new int[CARDS];
+
+    /** Cards known to be in the hand of an opponent, at seat * CARDS + ordinal */
+    private int[] known = new int[0];
+
+    /** Cards the player knows on top of the deck, by depth; null if unknown */
+    private final Card[] top = new Card[KNOWN_DEPTH];
+    private int knownTopCards;
+    private int knownTopExplodes;
+
+    private int deckSize;
+    private int deckExplodes;
+
+    /** Seat of the player who defused an EXPLODE and did not insert it back, or -1 */
+    private int defusedSeat = -1;
+    private boolean isStarted = false;
+
+    /**
+     * @param viewer the player whose view is tracked
+     * @requires viewer != null
+     */
+    public CardTracker(Player viewer) {
+        this.viewer = viewer;
+    }
+
+    /**
+     * Starts tracking from the cards dealt, which are known to all: every
+     * card is unseen but the hand of the player, and the deck holds one
+     * EXPLODE fewer than there are players.
+     * @requires game.init() was called, and no move was played yet
+     */
+    public void start(Game game) {
+        int seats = 0;
+        for (Player player : game.getPlayers()) {
+            seats = Math.max(seats, player.getSeat() + 1);
+        }
+        known = new int[seats * CARDS];
+        for (Card card : Card.values()) {
+            unseen[card.ordinal()] = Deck.totalOf(card) - viewer.getHand().count(card);
+        }
+        unseen[Card.DEFUSE.ordinal()] = game.getDefusesDealt() - viewer.getHand().count(Card.DEFUSE);
+        unseen[Card.EXPLODE.ordinal()] = 0;
+        this.forgetTop();
+        deckSize = game.getDeckObject().size();
+        deckExplodes = game.getPlayers().size() - 1;
+        defusedSeat = -1;
+        isStarted = true;
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    /* ************************************
+                    BELIEFS
+    ************************************ */
+
+    /**
+     * @return the chance that the next card drawn is an EXPLODE: 1 or 0 if
+     * the player knows the top card, else the share of EXPLODEs among the
+     * cards of the deck it does not know
+     */
+    public double explodeChance() {
+        if (top[0] != null) {
+            return (top[0] == Card.EXPLODE) ? 1 : 0;
+        }
+        int unknownCards = deckSize - knownTopCards;
+        return (unknownCards > 0) ? (double) (deckExplodes - knownTopExplodes) / unknownCards : 0;
+    }
+
+    /** @return whether the player knows the card on top of the deck */
+    public boolean isTopKnown() {
+        return top[0] != null;
+    }
+
+    /**
+     * @return the cards the player knows on top of the deck, by depth, 0
+     * being the top, and null where unknown, e.g. to deal the rest of the
+     * deck as in {@link Game#determinize(int, Card[], GameListener, java.util.random.RandomGenerator)}
+     */
+    public Card[] getTop() {
+        return top.clone();
+    }
+
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    public int getDeckExplodes() {
+        return deckExplodes;
+    }
+
+    /** @return how many cards of a type the player has not seen, see {@link #unseen} */
+    public int getUnseen(Card card) {
+        return unseen[card.ordinal()];
+    }
+
+    /** @return how many cards of a type the player knows the opponent on the seat holds */
+    public int getKnown(int seat, Card card) {
+        return known[seat * CARDS + card.ordinal()];
+    }
+
+    /* ************************************
+                    EVENTS
+    ************************************ */
+
+    @Override
+    public void onCardDrawn(Player player, Card card) {
+        deckSize--;
+        Card seen = this.popTop();
+        if (player == viewer) {
+            unseen[card.ordinal()]--;
+        } else if (seen != null) {
+            // The player saw the card go from the deck to that hand
+            unseen[seen.ordinal()]--;
+            known[player.getSeat() * CARDS + seen.ordinal()]++;
+        }
+    }
+
+    @Override
+    public void onCardDiscarded(Player player, Card card) {
+        if (player != viewer) {
+            this.takeFrom(player, card);
+        }
+    }
+
+    @Override
+    public void onCardStolen(Player thief, Player victim, Card card) {
+        this.onCardTaken(thief, victim, card);
+    }
+
+    @Override
+    public void onCardDemanded(Player thief, Player victim, Card card, boolean isGiven) {
+        if (!isGiven) {
+            return;
+        }
+        if (thief == viewer || victim == viewer) {
+            this.onCardTaken(thief, victim, card);
+        } else {
+            // The card named is told to all, unlike a stolen one
+            this.takeFrom(victim, card);
+            known[thief.getSeat() * CARDS + card.ordinal()]++;
+        }
+    }
+
+    @Override
+    public void onFavorGiven(Player asker, Player target, Card card) {
+        this.onCardTaken(asker, target, card);
+    }
+
+    @Override
+    public void onDeckShuffled(Player player) {
+        this.forgetTop();
+    }
+
+    @Override
+    public void onFutureSeen(Player player, Card first, Card second, Card third) {
+        if (player != viewer) {
+            return;
+        }
+        this.forgetTop();
+        this.setTop(0, first);
+        this.setTop(1, second);
+        this.setTop(2, third);
+    }
+
+    @Override
+    public void onExplodeDefused(Player player, int lastIndex) {
+        // The EXPLODE on top leaves the deck until it is inserted back
+        deckSize--;
+        deckExplodes--;
+        this.popTop();
+        defusedSeat = player.getSeat();
+    }
+
+    @Override
+    public void onExplodeInserted(Player player, int index) {
+        deckSize++;
+        deckExplodes++;
+        defusedSeat = -1;
+        if (player != viewer) {
+            // Only the player who inserted it knows where
+            this.forgetTop();
+            return;
+        }
+        int depth = deckSize - 1 - index;
+        if (depth >= KNOWN_DEPTH) {
+            return;
+        }
+        // The cards known below the EXPLODE go one deeper
+        this.setTop(KNOWN_DEPTH - 1, null);
+        for (int below = KNOWN_DEPTH - 1; below > depth; below--) {
+            top[below] = top[below - 1];
+        }
+        top[depth] = null;
+        this.setTop(depth, Card.EXPLODE);
+    }
+
+    @Override
+    public void onExploded(Player player) {
+        // The EXPLODE drawn goes out with the player, and the deck is shuffled
+        deckSize--;
+        deckExplodes--;
+        this.forgetTop();
+        this.forget(player);
+    }
+
+    @Override
+    public void onPlayerLeft(Player player) {
+        if (defusedSeat == player.getSeat()) {
+            // The EXPLODE to insert back goes out with the player
+            defusedSeat = -1;
+        } else {
+            deckSize--;
+            deckExplodes--;
+        }
+        this.forgetTop();
+        this.forget(player);
+    }
+
+    /* ************************************
+                    HELPERS
+    ************************************ */
+
+    /** A card went from the hand of the victim to the one of the thief,
+     * seen by those two only */
+    private void onCardTaken(Player thief, Player victim, Card card) {
+        if (thief == viewer) {
+            this.takeFrom(victim, card);
+        } else if (victim == viewer) {
+            known[thief.getSeat() * CARDS + card.ordinal()]++;
+        } else {
+            // Any card known in the hand of the victim may be the one taken
+            this.forget(victim);
+        }
+    }
+
+    /** The card left the hand of an opponent, as one known there if any */
+    private void takeFrom(Player player, Card card) {
+        int slot = player.getSeat() * CARDS + card.ordinal();
+        if (known[slot] > 0) {
+            known[slot]--;
+        } else if (unseen[card.ordinal()] > 0) {
+            unseen[card.ordinal()]--;
+        }
+    }
+
+    /** Counts the cards known in the hand of an opponent as unseen again */
+    private void forget(Player player) {
+        int first = player.getSeat() * CARDS;
+        for (int ordinal = 0; ordinal < CARDS; ordinal++) {
+            unseen[ordinal] += known[first + ordinal];
+            known[first + ordinal] = 0;
+        }
+    }
+
+    /** @return the card that was known on top, or null, with the others one higher */
+    private Card popTop() {
+        Card card = top[0];
+        this.setTop(0, null);
+        for (int depth = 1; depth < KNOWN_DEPTH; depth++) {
+            top[depth - 1] = top[depth];
+        }
+        top[KNOWN_DEPTH - 1] = null;
+        return card;
+    }
+
+    /** Sets a known card on top, keeping the counts of known cards */
+    private void setTop(int depth, Card card) {
+        if (top[depth] != null) {
+            knownTopCards--;
+            knownTopExplodes -= (top[depth] == Card.EXPLODE) ? 1 : 0;
+        }
+        top[depth] = card;
+        if (card != null) {
+            knownTopCards++;
+            knownTopExplodes += (card == Card.EXPLODE) ? 1 : 0;
+        }
+    }
+
+    private void forgetTop() {
+        for (int depth = 0; depth < KNOWN_DEPTH; depth++) {
+            this.setTop(depth, null);
+        }
+    }
+}
@@ -1,20 +1,44 @@
 package network.model;
 
-import network.client.Client;
-import network.exceptions.ExitProgram;
-import network.exceptions.InvalidClientMove;
-import network.exceptions.ServerUnavailableException;
-
 public class ComputerPlayer extends Player {
-    private Client client;
+    /** Cards which the bot plays on its own, in this order of preference */
+    private static final Card[] PLAYABLE_CARDS = {Card.SHUFFLE, Card.SKIP, Card.ATTACK, Card.FUTURE};
+
+    /** Cards which spare the bot a draw it fears, in this order of preference */
+    private static final Card[] ESCAPE_CARDS = {Card.ATTACK, Card.SKIP, Card.SHUFFLE};
+
+    /** Chance of drawing an EXPLODE from which on the bot plays an
+     * ESCAPE_CARD. Lower, the bot spends them on draws it likely survives. */
+    private static final double ESCAPE_RISK = 0.9;
+
+    /** What the bot knows of the cards it does not hold. Only started for
+     * a bot seated in a game, see {@link #getTracker()}. */
+    private final CardTracker tracker = new CardTracker(this);
+
     private boolean isMyTurnOrNot;
     private boolean mustInsertBack;
-    private String[] cardsInHand = null;
 
     public ComputerPlayer(String[] args) {
         super(args[0]);
     }
 
+    /**
+     * Creates a bot seated in a game, which reads its hand straight from
+     * the game instead of from the messages of a server.
+     */
+    public ComputerPlayer(String name, int seat) {
+        super(name, seat);
+    }
+
+    /**
+     * @return the tracker of the bot, which has to be among the listeners
+     * of its game and be started once the cards are dealt; until then, the
+     * bot plays its cards in a fixed order
+     */
+    public CardTracker getTracker() {
+        return tracker;
+    }
+
     public boolean isMyTurnOrNot() {
         return isMyTurnOrNot;
     }
@@ -31,31 +55,97 @@ public class ComputerPlayer extends Player {
         this.mustInsertBack = mustInsertBack;
     }
 
-    public String doMove() throws ExitProgram, ServerUnavailableException, InvalidClientMove {
-        for (String card : cardsInHand) {
-            if (card.equals(Card.SHUFFLE.name())
-            || card.equals(Card.SKIP.name())
-            || card.equals(Card.ATTACK.name())
-            || card.equals(Card.FUTURE.name()))
-                return "play " + card;
+    /**
+     * Chooses the card to play from the hand of the bot.
+     * @return the card to play, or null to draw
+     */
+    public Card chooseCard() {
+        if (tracker.isStarted()) {
+            return this.chooseCardByRisk();
+        }
+        for (Card card : PLAYABLE_CARDS) {
+            if (handOfCards.has(card))
+                return card;
         }
-        return "draw";
+        return null;
     }
 
-    public String getIndexToReinsertExplode() throws ExitProgram, ServerUnavailableException, InvalidClientMove {
-        return "0";
+    /**
+     * Draws unless the next card may be an EXPLODE, as the tracker tells:
+     * then looks at the top of the deck first if it can, and plays a card
+     * which spares the draw only once an EXPLODE is all but sure.
+     */
+    private Card chooseCardByRisk() {
+        double risk = tracker.explodeChance();
+        if (risk == 0) {
+            return null;
+        }
+        if (risk < 1 && handOfCards.has(Card.FUTURE)) {
+            return Card.FUTURE;
+        }
+        if (risk >= ESCAPE_RISK) {
+            for (Card card : ESCAPE_CARDS) {
+                if (handOfCards.has(card))
+                    return card;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the chosen move straight into a move, without any text to parse.
+     * @param move != null, replaced by the move of the bot
+     */
+    public void chooseMove(Move move) {
+        Card card = this.chooseCard();
+        if (card != null) {
+            move.setPlay(card);
+        } else {
+            move.setDraw();
+        }
+    }
+
+    /** @return the card given away to a FAVOR, or null if the hand is empty */
+    public Card chooseFavorCard() {
+        return handOfCards.isEmpty() ? null : handOfCards.get(0);
+    }
+
+    /** @return the index at which a defused EXPLODE goes back in the deck */
+    public int chooseExplodeIndex() {
+        return 0;
+    }
+
+    /** @return the move of the bot, as typed by a player */
+    public String doMove() {
+        Card card = this.chooseCard();
+        return (card != null) ? "play " + card.name() : "draw";
+    }
+
+    public String getIndexToReinsertExplode() {
+        return String.valueOf(this.chooseExplodeIndex());
     }
 
     // Return the first card from bot's hand
     public String getCardInFavorResponse() {
-        return "play " + cardsInHand[1];
+        Card card = this.chooseFavorCard();
+        return (card != null) ? "play " + card.name() : "play";
     }
 
+    /**
+     * Replaces the hand of the bot by the one a server sent.
+     * @param splittedMessage e.g. {@code Your hand: [DEFUSE, NOPE, NOPE]}
+     */
     public void decomposeHand(String splittedMessage) {
         String malformedMsg = splittedMessage
                 .replace("Your hand: [", "")
                 .replace("]", "");
-        cardsInHand = malformedMsg.split(", ");
+        handOfCards.clear();
+        for (String card : malformedMsg.split(", ")) {
+            Card parsed = Card.lookup(card, 0, card.length());
+            if (parsed != null) {
+                handOfCards.add(parsed);
+            }
+        }
     }
 
 }
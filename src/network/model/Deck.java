@@ -1,20 +1,68 @@
 package network.model;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
-public class Deck {
+/**
+ * Draw pile of a game. The cards are kept as their {@link Card#ordinal()} in
+ * a byte array, whose last used slot is the top of the pile. Drawing and
+ * looking at the top cards are O(1), and a copy of the deck (e.g. for a
+ * simulation) is a single array copy.
+ */
+public class Deck implements Cloneable {
     private static final int CARD_INSTANCES_FOUR = 4;
     private static final int CARD_INSTANCES_FIVE = 5;
     private static final int CARD_INSTANCES_SIX = 6;
-    // Set to ArrayList because there is no intention of switching it to another implementation later on.
-    private ArrayList<Card> deck = new ArrayList<>();
+    /** Number of cards of a full deck, which is also the most a deck can hold */
+    public static final int MAX_NUMBER_OF_CARDS = 56;
+
+    /** Cards from the bottom (index 0) to the top (index size - 1) */
+    private byte[] deck = new byte[MAX_NUMBER_OF_CARDS];
+    private int size = 0;
 
     /* ************************************
               GETTERS & SETTERS
     ************************************ */
 
-     public ArrayList<Card> getDeckArray() {
-        return deck;
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of cards of a type in a full deck, as dealt by
+     * {@link #generateDeck(RandomGenerator)}.
+     */
+    public static int totalOf(Card card) {
+        return switch (card) {
+            case FUTURE, NOPE -> CARD_INSTANCES_FIVE;
+            case DEFUSE -> CARD_INSTANCES_SIX;
+            default -> CARD_INSTANCES_FOUR;
+        };
+    }
+
+    /** @return the number of cards of a type in the deck. */
+    public int count(Card card) {
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            if (deck[index] == card.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @requires 0 <= index && index < size()
+     * @return the card at a position, counted from the bottom.
+     */
+    public Card get(int index) {
+        checkIndex(index, size);
+        return Card.byOrdinal(deck[index]);
     }
 
     /* ************************************
@@ -22,7 +70,14 @@ public class Deck {
     ************************************ */
 
     public Deck() {
-        this.deck = generateDeck();
+        this(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param random generator by which the new deck is shuffled
+     */
+    public Deck(RandomGenerator random) {
+        this.generateDeck(random);
     }
 
     /* ************************************
@@ -35,59 +90,173 @@ public class Deck {
      *  - <4 CARDS> of EXPLODE, ATTACK, SKIP, FAVOR, SHUFFLE, TACOCAT, CATTERMELLON, POTATO, BEARD, RAINBOW
      *  - <5 CARDS> of FUTURE (See the future), NOPE
      *  - <6 CARDS> of DEFUSE
-     * @return ArrayList<Card> this.deck
+     * @param random generator by which the deck is shuffled
      * @ensures A deck which consists of 56 cards.
      */
-    public ArrayList<Card> generateDeck() {
+    public void generateDeck(RandomGenerator random) {
+        size = 0;
         // Generate the cards that have 4 instances in the deck. There are 10 such types of cards.
         for (int cardInstance = 0; cardInstance < CARD_INSTANCES_FOUR; cardInstance++) { // 4 instances of each card.
-            deck.add(Card.EXPLODE);
-            deck.add(Card.ATTACK);
-            deck.add(Card.SKIP);
-            deck.add(Card.FAVOR);
-            deck.add(Card.SHUFFLE);
-            deck.add(Card.TACOCAT);
-            deck.add(Card.CATTERMELLON);
-            deck.add(Card.POTATO);
-            deck.add(Card.BEARD);
-            deck.add(Card.RAINBOW);
+            this.add(Card.EXPLODE);
+            this.add(Card.ATTACK);
+            this.add(Card.SKIP);
+            this.add(Card.FAVOR);
+            this.add(Card.SHUFFLE);
+            this.add(Card.TACOCAT);
+            this.add(Card.CATTERMELLON);
+            this.add(Card.POTATO);
+            this.add(Card.BEARD);
+            this.add(Card.RAINBOW);
         }
 
         // Generate the cards that have 5 instances in the deck. There are 2 such types of cards.
         for (int cardInstance = 0; cardInstance < CARD_INSTANCES_FIVE; cardInstance++) {
-            deck.add(Card.FUTURE);
-            deck.add(Card.NOPE);
+            this.add(Card.FUTURE);
+            this.add(Card.NOPE);
         }
 
         // Generate the cards that have 6 instances in the deck. There are 1 such types of card.
         for (int cardInstance = 0; cardInstance < CARD_INSTANCES_SIX; cardInstance++) {
-            deck.add(Card.DEFUSE);
+            this.add(Card.DEFUSE);
         }
-        Collections.shuffle(deck);
-        return deck;
+        this.shuffle(random);
     }
 
+    /** @return the card on top, without drawing it. */
     public Card getLastCard() {
-        return deck.get(deck.size() - 1);
+        return this.peek(0);
     }
 
+    /** Draws the card on top. */
     public Card getLastCardAndRemove() {
-        Card lastCardFromDeck = deck.get(deck.size() - 1);
-        deck.remove(deck.size() - 1);
+        Card lastCardFromDeck = this.peek(0);
+        size--;
         return lastCardFromDeck;
     }
 
+    /**
+     * Looks at a card below the top, e.g. for a SEETHEFUTURE.
+     * @requires 0 <= depth && depth < size()
+     * @param depth 0 for the card on top, 1 for the one below it, ...
+     */
+    public Card peek(int depth) {
+        checkIndex(depth, size);
+        return Card.byOrdinal(deck[size - 1 - depth]);
+    }
+
+    /**
+     * Puts a card on top.
+     * @requires card != null && size() < MAX_NUMBER_OF_CARDS
+     */
+    public void add(Card card) {
+        this.insert(size, card);
+    }
+
+    /**
+     * Puts a card at a position, counted from the bottom, such that 0 puts it
+     * at the bottom and size() on top. Only the cards above it move up.
+     * @requires card != null && 0 <= index && index <= size()
+     */
+    public void insert(int index, Card card) {
+        checkIndex(index, size + 1);
+        if (size == deck.length) {
+            deck = Arrays.copyOf(deck, 2 * deck.length);
+        }
+        System.arraycopy(deck, index, deck, index + 1, size - index);
+        deck[index] = (byte) card.ordinal();
+        size++;
+    }
+
+    /**
+     * Takes the card nearest to the top of a type out of the deck.
+     * @return false if the deck holds no card of that type.
+     */
+    public boolean remove(Card card) {
+        for (int index = size - 1; index >= 0; index--) {
+            if (deck[index] == card.ordinal()) {
+                System.arraycopy(deck, index + 1, deck, index, size - index - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes every card of a type out of the deck, keeping the order of the others.
+     * @return the number of cards taken out.
+     */
+    public int removeAll(Card card) {
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+            if (deck[index] != card.ordinal()) {
+                deck[kept++] = deck[index];
+            }
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Takes every card out of the deck.
+     * @ensures isEmpty()
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Shuffles the deck with a random generator of the current thread. */
+    public void shuffle() {
+        this.shuffle(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Shuffles the deck in place (Fisher-Yates), such that a seeded
+     * generator always gives the same order.
+     * @requires random != null
+     */
+    public void shuffle(RandomGenerator random) {
+        for (int index = size - 1; index > 0; index--) {
+            int other = random.nextInt(index + 1);
+            byte card = deck[index];
+            deck[index] = deck[other];
+            deck[other] = card;
+        }
+    }
+
+    /**
+     * @return a deck with the same cards in the same order, which changes
+     * independently of this one.
+     */
+    @Override
+    public Deck clone() {
+        try {
+            Deck copy = (Deck) super.clone();
+            copy.deck = deck.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for deck of " + length);
+        }
+    }
+
     @Override
     public String toString() {
-        String result = "";
-        for (int i = 0; i < deck.size(); i++) {
-            result += deck.get(i) + "\n";
+        StringBuilder result = new StringBuilder(size * 8);
+        for (int i = 0; i < size; i++) {
+            result.append(this.get(i)).append('\n');
         }
-        return result;
+        return result.toString();
     }
 
     public static void main(String[] args) {
         Deck deck = new Deck();
-        System.out.println(deck.getDeckArray().size());
+        System.out.println(deck.size());
     }
 }
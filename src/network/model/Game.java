@@ -1,20 +1,34 @@
 package network.model;
 
-import network.controller.GameController;
-
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class Game {
     private Deck deck;
     private ArrayList<Player> players = new ArrayList<>();
+    /** Players by their seat, such that a player is found in O(1) however
+     * many players left before. Players who left stay on their seat. */
+    private final Player[] playersBySeat;
     private ArrayList<Card> discardPile;
     private int currentPlayerIndex;
     private Player currentPlayer;
-    private GameController controller;
+    /** Receives every event of this game, e.g. to tell the players */
+    private final GameListener listener;
+    /** Source of every draw of luck of this game: the deck, the first player
+     * and the cards taken at random. Seeded, the same moves give the same game. */
+    private final RandomGenerator random;
 
     @SuppressWarnings("FieldCanBeLocal")
     private boolean winner = false;
 
+    /** Whether the current player defused an EXPLODE and did not insert it
+     * back yet. Until then, it cannot play. */
+    private boolean isExplodeToInsert = false;
+
+    /** The player asked for a FAVOR by the current player, who did not give
+     * a card yet, or null. Only that player may answer, see doFavorResponse. */
+    private Player favorTarget = null;
+
     private final int INITIAL_NUMBER_OF_PLAYERS;
     private int currentNumberOfPlayers;
 
@@ -29,6 +43,17 @@ public class Game {
         return currentPlayerIndex;
     }
 
+    public int getCurrentPlayerSeat() {
+        return currentPlayer.getSeat();
+    }
+
+    /**
+     * @return the player on the seat, or null if nobody sits there.
+     */
+    public Player getPlayerAtSeat(int seat) {
+        return (seat >= 0 && seat < playersBySeat.length) ? playersBySeat[seat] : null;
+    }
+
     public ArrayList<Player> getPlayers() {
         return players;
     }
@@ -45,6 +70,18 @@ public class Game {
         return this.winner;
     }
 
+    /** @return whether the current player has to insert an EXPLODE back
+     * before anything else */
+    public boolean isExplodeToInsert() {
+        return isExplodeToInsert;
+    }
+
+    /** @return the number of DEFUSEs in the game, i.e. one per player and
+     * the ones dealCardsToPlayers() puts in the deck */
+    public int getDefusesDealt() {
+        return INITIAL_NUMBER_OF_PLAYERS + (INITIAL_NUMBER_OF_PLAYERS != 5 ? 2 : 1);
+    }
+
     /* ************************************
                 CONSTRUCTORS
     ************************************ */
@@ -53,21 +90,206 @@ public class Game {
      * @param players ArrayList of players of the game
      * @requires players != null;
      */
-    public Game(final ArrayList<Player> players, final GameController controller) {
+    public Game(final ArrayList<Player> players, final GameListener listener) {
+        this(players, listener, new SplittableRandom());
+    }
+
+    /**
+     * @param players ArrayList of players of the game
+     * @param random source of every draw of luck of the game, e.g. a
+     * {@link SplittableRandom} with a known seed
+     * @requires players != null && random != null
+     */
+    public Game(final ArrayList<Player> players, final GameListener listener,
+                final RandomGenerator random) {
+        this.random = random;
         players.forEach(player -> this.players.add(player));
         INITIAL_NUMBER_OF_PLAYERS = this.players.size();
         currentNumberOfPlayers = this.players.size();
-        currentPlayerIndex = (int) (Math.random() * INITIAL_NUMBER_OF_PLAYERS);
+        int seats = 0;
+        for (Player player : this.players) {
+            seats = Math.max(seats, player.getSeat() + 1);
+        }
+        playersBySeat = new Player[seats];
+        for (Player player : this.players) {
+            if (player.getSeat() >= 0) {
+                playersBySeat[player.getSeat()] = player;
+            }
+        }
+        currentPlayerIndex = random.nextInt(INITIAL_NUMBER_OF_PLAYERS);
         currentPlayer = players.get(currentPlayerIndex);
-        deck = new Deck();
+        deck = new Deck(random);
         discardPile = new ArrayList<>();
-        this.controller = controller;
+        this.listener = (listener != null) ? listener : GameListener.NONE;
+    }
+
+    /**
+     * Copies a game as one of its players sees it, see
+     * {@link #determinize(int, Card[], GameListener, RandomGenerator)}.
+     */
+    private Game(Game source, Player viewer, Card[] knownTop, GameListener listener, RandomGenerator random) {
+        this.random = random;
+        this.listener = (listener != null) ? listener : GameListener.NONE;
+        INITIAL_NUMBER_OF_PLAYERS = source.INITIAL_NUMBER_OF_PLAYERS;
+        currentNumberOfPlayers = source.currentNumberOfPlayers;
+        currentPlayerIndex = source.currentPlayerIndex;
+        winner = source.winner;
+        isExplodeToInsert = source.isExplodeToInsert;
+        discardPile = new ArrayList<>(source.discardPile);
+        playersBySeat = new Player[source.playersBySeat.length];
+        for (Player player : source.players) {
+            Player copy = new Player(player.getName(), player.getSeat());
+            copy.setTurnsToPlay(player.getTurnsToPlay());
+            copy.setHasInsertedExplode(player.isHasInsertedExplode());
+            players.add(copy);
+            playersBySeat[copy.getSeat()] = copy;
+        }
+        currentPlayer = players.get(currentPlayerIndex);
+        if (source.favorTarget != null) {
+            favorTarget = playersBySeat[source.favorTarget.getSeat()];
+        }
+        this.dealUnseenCards(source, viewer, knownTop);
     }
 
     /* ************************************
                     METHODS
     ************************************ */
 
+    /**
+     * Copies this game as the player on a seat sees it, e.g. to search its
+     * best move. The player knows its own hand, the discard pile, the number
+     * of cards in every hand and in the deck, and the number of EXPLODEs left;
+     * every other card is dealt again at random from the cards it has not
+     * seen, i.e. the totals of {@link Deck#generateDeck} less the ones it
+     * knows of. Where the EXPLODEs lie in the deck is guessed as well.
+     * <p>
+     * Nothing the copy does changes this game.
+     * @param listener receives the events of the copy, null for none
+     * @param random deals the copy, then decides every draw of luck in it
+     * @requires getPlayerAtSeat(seat) is still in the game
+     */
+    public Game determinize(int seat, GameListener listener, RandomGenerator random) {
+        return this.determinize(seat, new Card[0], listener, random);
+    }
+
+    /**
+     * Copies this game as the player on a seat sees it, see
+     * {@link #determinize(int, GameListener, RandomGenerator)}, keeping the
+     * cards the player knows on top of the deck where they are, e.g. the ones
+     * it saw with a SEETHEFUTURE, see {@link CardTracker#getTop()}. Only the
+     * cards it does not know are dealt again.
+     * @param knownTop the card known at each depth of the deck, 0 being the
+     * top, or null where unknown; ignored if the deck cannot hold them
+     */
+    public Game determinize(int seat, Card[] knownTop, GameListener listener, RandomGenerator random) {
+        return new Game(this, this.getPlayerAtSeat(seat), knownTop, listener, random);
+    }
+
+    /**
+     * Deals the cards of the source game which the viewer cannot see: the
+     * hands of the others and the deck, both keeping their size, and the
+     * known cards on top of the deck staying there.
+     * <p>
+     * The cards dealt come from the totals less what the viewer saw. Should
+     * those counts fall short of the cards of the game, e.g. because a hand
+     * was changed by hand, the cards of the game make up for it, such that
+     * a copy can always be dealt.
+     */
+    private void dealUnseenCards(Game source, Player viewer, Card[] knownTop) {
+        int types = Card.values().length;
+        int explodes = source.deck.count(Card.EXPLODE);
+        int deckSize = source.deck.size();
+
+        // The cards known on top, if the deck can hold them
+        int[] known = new int[types];
+        int knownCards = 0;
+        boolean isTopInDeck = true;
+        for (int depth = 0; depth < knownTop.length; depth++) {
+            if (knownTop[depth] != null) {
+                known[knownTop[depth].ordinal()]++;
+                knownCards++;
+                isTopInDeck &= depth < deckSize;
+            }
+        }
+        if (!isTopInDeck || known[Card.EXPLODE.ordinal()] > explodes) {
+            knownTop = new Card[0];
+            Arrays.fill(known, 0);
+            knownCards = 0;
+        }
+
+        // What the game holds out of the sight of the viewer
+        int[] hidden = new int[types];
+        for (int index = 0; index < deckSize; index++) {
+            hidden[source.deck.get(index).ordinal()]++;
+        }
+        for (Player player : source.players) {
+            if (player != viewer) {
+                for (Card card : Card.values()) {
+                    hidden[card.ordinal()] += player.getHand().count(card);
+                }
+            }
+        }
+
+        int[] unseen = new int[types];
+        for (Card card : Card.values()) {
+            unseen[card.ordinal()] = Deck.totalOf(card) - viewer.getHand().count(card);
+        }
+        unseen[Card.DEFUSE.ordinal()] = this.getDefusesDealt() - viewer.getHand().count(Card.DEFUSE);
+        for (Card card : discardPile) {
+            unseen[card.ordinal()]--;
+        }
+        // Every EXPLODE left is in the deck, and their number is known
+        unseen[Card.EXPLODE.ordinal()] = 0;
+        hidden[Card.EXPLODE.ordinal()] = 0;
+
+        Deck pool = source.deck.clone();
+        pool.clear();
+        for (Card card : Card.values()) {
+            int ordinal = card.ordinal();
+            int count = Math.max(unseen[ordinal], hidden[ordinal]) - known[ordinal];
+            for (; count > 0; count--) {
+                pool.add(card);
+            }
+        }
+        // The hands of the players who are out are lost, thus the pool
+        // may hold more cards than are dealt, but never fewer
+        pool.shuffle(random);
+        for (int index = 0; index < players.size(); index++) {
+            Player original = source.players.get(index);
+            Hand hand = players.get(index).getHand();
+            if (original == viewer) {
+                for (Card card : Card.values()) {
+                    for (int count = 0; count < viewer.getHand().count(card); count++) {
+                        hand.add(card);
+                    }
+                }
+            } else {
+                for (int count = 0; count < original.getHand().size(); count++) {
+                    hand.add(pool.getLastCardAndRemove());
+                }
+            }
+        }
+
+        // The unknown cards of the deck are shuffled, then the known ones
+        // go back in, from the deepest up
+        deck = pool.clone();
+        deck.clear();
+        int unknownExplodes = explodes - known[Card.EXPLODE.ordinal()];
+        int unknownCards = deckSize - knownCards - unknownExplodes;
+        for (int count = 0; count < unknownCards; count++) {
+            deck.add(pool.getLastCardAndRemove());
+        }
+        for (int count = 0; count < unknownExplodes; count++) {
+            deck.add(Card.EXPLODE);
+        }
+        deck.shuffle(random);
+        for (int depth = knownTop.length - 1; depth >= 0; depth--) {
+            if (knownTop[depth] != null) {
+                deck.insert(deckSize - 1 - depth, knownTop[depth]);
+            }
+        }
+    }
+
     /**
      * Sets up the method exactly as the rules indicate.
      * First method combines STEP 1 & 2 from the rules, removing
@@ -83,11 +305,13 @@ public class Game {
      * @ensures Player's hands (player.getHand()) have 8 cards
      * (7 random + 1 DEFUSE)
      * @ensures Deck has EXPLODING cards = (numberOfPlayers - 1)
+     * @ensures the first player has a turn to play
      */
     public void init() {
         this.removeExplodeAndDefuseCards();
         this.dealCardsToPlayers();
         this.insertExplodeCards();
+        currentPlayer.setTurnsToPlay(1);
     }
 
     /**
@@ -97,8 +321,8 @@ public class Game {
      * @ensures Deck has no more Explode / Defuse cards.
      */
     public void removeExplodeAndDefuseCards() {
-        deck.getDeckArray().removeIf(card ->
-                (card == Card.EXPLODE || card == Card.DEFUSE));
+        deck.removeAll(Card.EXPLODE);
+        deck.removeAll(Card.DEFUSE);
     }
 
     /**
@@ -113,12 +337,12 @@ public class Game {
         //noinspection DuplicatedCode - Because duplicated code is in local
         players.forEach(player -> player.getHand().add(Card.DEFUSE));
 
-        this.deck.getDeckArray().add(Card.DEFUSE);
+        this.deck.add(Card.DEFUSE);
         if (INITIAL_NUMBER_OF_PLAYERS != 5) {
-            this.deck.getDeckArray().add(Card.DEFUSE);
+            this.deck.add(Card.DEFUSE);
         }
 
-        Collections.shuffle(deck.getDeckArray());
+        deck.shuffle(random);
 
         for (int cardIndex = 0; cardIndex < Player.MAX_NUMBER_OF_CARDS_IN_HAND_WITHOUT_DEFUSE; cardIndex++) {
             players.forEach(player -> player.getHand().add(deck.getLastCardAndRemove()));
@@ -133,16 +357,81 @@ public class Game {
      */
     public void insertExplodeCards() {
         for (int cardIndex = 0; cardIndex < INITIAL_NUMBER_OF_PLAYERS - 1; cardIndex++) {
-            deck.getDeckArray().add(Card.EXPLODE);
+            deck.add(Card.EXPLODE);
         }
-        Collections.shuffle(deck.getDeckArray());
-//        deck.getDeckArray().add(Card.EXPLODE);
+        deck.shuffle(random);
+//        deck.add(Card.EXPLODE);
     }
 
     /* ************************************
               COMMAND PROCESSING
     ************************************ */
 
+    /**
+     * Applies a command of a player, without any server or client: what
+     * happens is told to the {@link GameListener} only. Only the current
+     * player may {@link GameCommand.Play} or {@link GameCommand.Cancel}, and
+     * only the player it asked for a FAVOR may {@link GameCommand.GiveFavor};
+     * any other command is rejected.
+     * @param command != null
+     */
+    public void execute(GameCommand command) {
+        Player player = this.getPlayerAtSeat(command.seat());
+        if (player == null) {
+            throw new IllegalArgumentException("Nobody sits on seat " + command.seat());
+        }
+        if (command instanceof GameCommand.Play play) {
+            if (this.isPlayAllowed(play.seat(), play.move())) {
+                this.applyPlay(play.move());
+            }
+        } else if (command instanceof GameCommand.Cancel cancel) {
+            if (player != currentPlayer) {
+                listener.onRejected(player, "It is not your turn.");
+                return;
+            }
+            favorTarget = null;
+            this.removeCardFromPlayerHand(cancel.move());
+        } else if (command instanceof GameCommand.GiveFavor favor) {
+            this.doFavorResponse(favor.card(), favor.seat());
+        } else if (command instanceof GameCommand.InsertExplode insert) {
+            this.doInsertExplode(insert.index(), insert.seat());
+        } else if (command instanceof GameCommand.Leave) {
+            this.removePlayerFromGame(player);
+        }
+    }
+
+    /**
+     * Checks a play of the player on a seat against the rules, without
+     * applying it, e.g. before the others get the chance to NOPE it. If the
+     * play is not allowed, the listener is told why, as by execute().
+     * @return whether executing the play would apply it
+     * @requires getPlayerAtSeat(seat) != null && move != null
+     */
+    public boolean isPlayAllowed(int seat, Move move) {
+        Player player = this.getPlayerAtSeat(seat);
+        if (player != currentPlayer) {
+            listener.onRejected(player, "It is not your turn.");
+            return false;
+        } else if (isExplodeToInsert) {
+            listener.onRejected(player, "Insert the EXPLODE back first. Type <insert> <INDEX>.");
+            return false;
+        }
+        return this.isPlayValid(move);
+    }
+
+    /**
+     * Ends the move of the current player. If it has no turns left, the
+     * turn of the next player starts.
+     * @return true if the turn went to the next player.
+     */
+    public boolean endMove() {
+        if (currentNumberOfPlayers == 0 || currentPlayer.hasTurnsToPlay()) {
+            return false;
+        }
+        this.incrementPlayerTurnIndex();
+        return true;
+    }
+
     /**
      * Main method of the logic of the game, where each move that is received
      * from a client is gathered here. There are several checks implied, each
@@ -151,55 +440,64 @@ public class Game {
      * (no longer than 5 args, 2 of a kind with different cards in composition
      * and so on).
      *
-     * @param cmd != null
+     * @param move != null
      */
-    public void processPlay(String[] cmd) {
-        Card firstCard;
-        String[] splittedCmdInter = cmd[0].split("\\s+");
-        String[] splittedCmd = this.getPlayersMoveSplitted(cmd);
-
-        if (splittedCmdInter[0].equalsIgnoreCase("DRAW")) {
-            processDraw();
-        } else if (splittedCmd[0].equals(Card.DEFUSE.name())
-                || splittedCmd[0].equals(Card.EXPLODE.name())
-                || splittedCmd[0].equals(Card.NOPE.name())) {
-            controller.sendPrivateMsg("You cannot play a DEFUSE or EXPLODE." +
-                    " Right now, not even NOPE.", currentPlayerIndex);
+    public void processPlay(Move move) {
+        if (this.isPlayValid(move)) {
+            this.applyPlay(move);
         }
+    }
 
-        // Three of a Kind
-        else if (splittedCmd.length == 5) {
-            if (checkThreeOfAKind(splittedCmd)) {
-                this.processThreeOfAKind(splittedCmd);
-            }
+    /**
+     * Checks a move of the current player against the rules. Changes
+     * nothing but telling the listener why a move is rejected.
+     */
+    private boolean isPlayValid(Move move) {
+        if (move.isDraw()) {
+            return true;
         }
-
-        //Three of a Kind but no desired card specified
-        else if (splittedCmd.length == 4) {
-            controller.sendPrivateMsg("Did you want perhaps to play three of a kind?" +
-                    "If so, format is <CARD> <CARD> <CARD> <TARGET PLAYER'S NAME>" +
-                    " <DESIRED CARD>", currentPlayerIndex);
+        Card firstCard = move.card(0);
+        if (firstCard == Card.DEFUSE
+                || firstCard == Card.EXPLODE
+                || firstCard == Card.NOPE) {
+            listener.onRejected(currentPlayer, "You cannot play a DEFUSE or EXPLODE." +
+                    " Right now, not even NOPE.");
+            return false;
         }
-
-        // Two of a Kind
-        else if (splittedCmd.length == 3) {
-            if (checkTwoOfAKind(splittedCmd)) {
-                this.processTwoOfAKind(splittedCmd);
+        return switch (move.size()) {
+            // Three of a Kind
+            case 5 -> this.checkThreeOfAKind(move);
+            //Three of a Kind but no desired card specified
+            case 4 -> {
+                listener.onRejected(currentPlayer, "Did you want perhaps to play three of a kind?" +
+                        "If so, format is <CARD> <CARD> <CARD> <TARGET PLAYER'S NAME>" +
+                        " <DESIRED CARD>");
+                yield false;
             }
-        }
+            // Two of a Kind
+            case 3 -> this.checkTwoOfAKind(move);
+            // ATTACK / FAVOR / SEE THE FUTURE / SKIP / SHUFFLE
+            default -> this.isRegularMoveValid(move);
+        };
+    }
 
-        // ATTACK / FAVOR / SEE THE FUTURE / SKIP / SHUFFLE
-        else if (splittedCmd.length == 1 || splittedCmd.length == 2) {
-            if (this.isRegularMoveValid(splittedCmd)) {
-                firstCard = Card.valueOf(splittedCmd[0].toUpperCase());
-                switch (firstCard) {
+    /** Plays a move which isPlayValid() accepted */
+    private void applyPlay(Move move) {
+        if (move.isDraw()) {
+            processDraw();
+            return;
+        }
+        switch (move.size()) {
+            case 5 -> this.processThreeOfAKind(move);
+            case 3 -> this.processTwoOfAKind(move);
+            default -> {
+                switch (move.card(0)) {
                     case ATTACK -> processAttackCard();
-                    case FAVOR -> processFavorCard(splittedCmd[1]); // target player's name
-                    case NOPE -> processNopeCard();
+                    case FAVOR -> processFavorCard(getPlayerFromMove(move, 1)); // target player
                     case SHUFFLE -> processShuffleCard();
                     case SKIP -> processSkipCard();
                     case FUTURE -> processFutureCard();
-                    case TACOCAT, CATTERMELLON, POTATO, BEARD, RAINBOW -> processTwoOfAKind(splittedCmd);
+                    default -> throw new IllegalStateException("Not a valid play: " + move);
                 }
             }
         }
@@ -208,108 +506,92 @@ public class Game {
     // Receives just cards, not the command
     // Receives "favor alex", not "PLAYMOVE favor alex"
 //    no NOPE case
-    private boolean isRegularMoveValid(String[] cmd) {
-        if (cmd.length == 0) {
-            controller.sendPrivateMsg("No cards provided",
-                    currentPlayerIndex);
+    private boolean isRegularMoveValid(Move move) {
+        if (move.size() == 0) {
+            listener.onRejected(currentPlayer, "No cards provided");
             return false;
         }
 
-        if (cmd.length > 5) {
-            controller.sendPrivateMsg("No move has that "
-                    + "many arguments", currentPlayerIndex);
+        if (move.size() > 5) {
+            listener.onRejected(currentPlayer, "No move has that "
+                    + "many arguments");
             return false;
         }
 
-        if (cmd.length == 2 && cmd[0].equals(cmd[1])) {
-            controller.sendPrivateMsg("2 of a Kind format: "
-                    + "<CARD> <CARD> <TARGET PLAYER'S NAME>", currentPlayerIndex);
+        if (move.size() == 2 && move.wordsEqual(0, 1)) {
+            listener.onRejected(currentPlayer, "2 of a Kind format: "
+                    + "<CARD> <CARD> <TARGET PLAYER'S NAME>");
+            return false;
         }
 
-        Card firstCard;
-        String[] cmds = Arrays.copyOf(cmd, cmd.length);
-        try {
-            firstCard = Card.valueOf(cmd[0].toUpperCase());
-        } catch (IllegalArgumentException e) {
-            controller.sendPrivateMsg("First provided card is not"
-                    + " actually a card.", currentPlayerIndex);
+        Card firstCard = move.card(0);
+        if (firstCard == null) {
+            listener.onRejected(currentPlayer, "First provided card is not"
+                    + " actually a card.");
             return false;
         }
         return switch (firstCard) {
-            case FAVOR -> isFavorMoveValid(cmd);
-            case ATTACK, SHUFFLE, SKIP, FUTURE -> isGenericMoveValid(cmds, firstCard);
-            default -> true;
+            case FAVOR -> isFavorMoveValid(move);
+            case ATTACK, SHUFFLE, SKIP, FUTURE -> isGenericMoveValid(move, firstCard);
+            default -> {
+                // A single cat card does nothing, see isPlayValid() for the other cards
+                listener.onRejected(currentPlayer, "2 of a Kind format: "
+                        + "<CARD> <CARD> <TARGET PLAYER'S NAME>");
+                yield false;
+            }
         };
     }
 
     // EXPECTED CORRECT FORMAT:
     // <ATTACK / SHUFFLE / SKIP / FUTURE>
-    private boolean isGenericMoveValid(String[] cmd, final Card expectedCard) {
-        if (cmd.length != 1) {
-            controller.sendPrivateMsg("Format: play " +
-                    expectedCard.name(), currentPlayerIndex);
+    private boolean isGenericMoveValid(Move move, final Card expectedCard) {
+        if (move.size() != 1) {
+            listener.onRejected(currentPlayer, "Format: play " +
+                    expectedCard.name());
             return false;
         }
-        return true;
+        return doesPlayerHaveCardInHand(expectedCard);
     }
 
     // EXPECTED CORRECT FORMAT:
     // <"FAVOR"> <TARGET PLAYER'S NAME>
-    private boolean isFavorMoveValid(String[] cmd) {
-        if (cmd.length != 2) {
-            controller.sendPrivateMsg("Format: "
-                    + "play <FAVOR> <Target Player's Name>", currentPlayerIndex);
+    private boolean isFavorMoveValid(Move move) {
+        if (move.size() != 2) {
+            listener.onRejected(currentPlayer, "Format: "
+                    + "play <FAVOR> <Target Player's Name>");
             return false;
         } else if (!doesPlayerHaveCardInHand(Card.FAVOR)) {
             return false;
-        } else return isTargetPlayerValid(getPlayerFromString(cmd[1]));
+        } else return isTargetPlayerValid(getPlayerFromMove(move, 1));
     }
 
     // EXPECTED CORRECT FORMAT:
     // <CARD> <CARD> <CARD> <TARGET PLAYER'S NAME> <DESIRED CARD>
-    private boolean checkThreeOfAKind(String[] cmd) {
-        if (!(cmd[0].equalsIgnoreCase(cmd[1])
-                && cmd[1].equalsIgnoreCase(cmd[2]))) {
+    private boolean checkThreeOfAKind(Move move) {
+        if (!(move.wordsEqual(0, 1) && move.wordsEqual(1, 2))) {
+            listener.onRejected(currentPlayer, "3 of a Kind format: <CARD> <CARD> <CARD>"
+                    + " <TARGET PLAYER'S NAME> <DESIRED CARD>");
             return false;
         } else {
-            if (cmd.length == 5) {
+            if (move.size() == 5) {
 
                 // Check if all 3 cards + desired card are actually cards
-                for (int cardIndex = 0; cardIndex < 3; cardIndex++) {
-                    try {
-                        Card.valueOf(cmd[cardIndex].toUpperCase());
-                        Card.valueOf(cmd[4]);
-                    } catch (IllegalArgumentException e) {
-                        controller.sendPrivateMsg("Provided cards" +
-                                " are not actually cards", currentPlayerIndex);
-                        return false;
-                    }
-                }
-
-                // Count number to check if player has 3 cards of same type
-                int counter = 0;
-                for (Card cardInHand : currentPlayer.handOfCards) {
-                    if (cardInHand.name().equalsIgnoreCase(cmd[0]))
-                        counter++;
+                if (move.card(0) == null || move.card(4) == null) {
+                    listener.onRejected(currentPlayer, "Provided cards" +
+                            " are not actually cards");
+                    return false;
                 }
 
                 // Check if, indeed, player has all 3 cards in hand
-                if (counter == 3) {
-
-                    // Check if all cards are same.
-                    if (cmd[0].equalsIgnoreCase(cmd[1])
-                            && cmd[1].equalsIgnoreCase(cmd[2])) {
-
-                        // Check if target player is valid (return true if yes)
-                        return isTargetPlayerValid(getPlayerFromString(cmd[3]));
-                    } else {
-                        controller.sendPrivateMsg("Not identical "
-                                        + "cards or invalid player",
-                                currentPlayerIndex);
-                    }
+                // It's possible that player has 4 identical cards,
+                //  but decides he wants to play only 3.
+                if (this.countInHand(move.card(0)) >= 3) {
+
+                    // Check if target player is valid (return true if yes)
+                    return isTargetPlayerValid(getPlayerFromMove(move, 3));
                 } else {
-                    controller.sendPrivateMsg("You don't have all 3 " +
-                            "cards in your hand", currentPlayerIndex);
+                    listener.onRejected(currentPlayer, "You don't have all 3 " +
+                            "cards in your hand");
                 }
             }
         }
@@ -319,41 +601,39 @@ public class Game {
 
     // EXPECTED CORRECT FORMAT:
     // <CARD> <CARD> <TARGET PLAYER'S NAME>
-    private boolean checkTwoOfAKind(String[] cmd) {
+    private boolean checkTwoOfAKind(Move move) {
         // Check if the 2 cards are same.
-        if (!cmd[0].equalsIgnoreCase(cmd[1])) {
+        if (!move.wordsEqual(0, 1)) {
+            listener.onRejected(currentPlayer, "2 of a Kind format: "
+                    + "<CARD> <CARD> <TARGET PLAYER'S NAME>");
             return false;
         } else {
-            if (cmd.length == 3) {
+            if (move.size() == 3) {
 
                 // Check if the 2 cards are actually cards
-                for (int cardIndex = 0; cardIndex < 2; cardIndex++) {
-                    try {
-                        Card.valueOf(cmd[cardIndex].toUpperCase());
-                    } catch (IllegalArgumentException e) {
-                        controller.sendPrivateMsg("Provided cards " +
-                                "are not actually cards", currentPlayerIndex);
-                        return false;
-                    }
-                }
-
-                // Count number to check if player has 2 cards of same type
-                int counter = 0;
-                for (Card cardInHand : currentPlayer.handOfCards) {
-                    if (cardInHand.name().equalsIgnoreCase(cmd[0]))
-                        counter++;
+                if (move.card(0) == null) {
+                    listener.onRejected(currentPlayer, "Provided cards " +
+                            "are not actually cards");
+                    return false;
                 }
 
-                // Check if, indeed, player has all 3 cards in hand
-                // It's possible that player has 3 identical cards,
+                // Check if, indeed, player has both cards in hand
+                // It's possible that player has 3 or 4 identical cards,
                 //  but decides he wants to play only 2.
-                if (counter == 2 || counter == 3) {
+                if (this.countInHand(move.card(0)) >= 2) {
 
-                    // Check if target player is valid (return true if yes)
-                    return isTargetPlayerValid(getPlayerFromString(cmd[2]));
+                    // Check if target player is valid, and has a card to steal
+                    Player target = getPlayerFromMove(move, 2);
+                    if (!isTargetPlayerValid(target)) {
+                        return false;
+                    } else if (target.getHand().isEmpty()) {
+                        listener.onRejected(currentPlayer, target.getName() + " has no card to steal.");
+                        return false;
+                    }
+                    return true;
                 } else {
-                    controller.sendPrivateMsg("You don't have the 2 " +
-                            "cards in your hand", currentPlayerIndex);
+                    listener.onRejected(currentPlayer, "You don't have the 2 " +
+                            "cards in your hand");
                 }
             }
         }
@@ -361,39 +641,36 @@ public class Game {
         return false;
     }
 
-    private void processThreeOfAKind(String[] cmd) {
-        Player targetPlayer = this.getPlayerFromString(cmd[3]);
+    private int countInHand(Card card) {
+        return currentPlayer.handOfCards.count(card);
+    }
 
-        if (targetPlayer.handOfCards.contains(Card.valueOf(cmd[4]))) {
-            currentPlayer.handOfCards.add(Card.valueOf(cmd[4]));
-            targetPlayer.handOfCards.remove(Card.valueOf(cmd[4]));
+    private void processThreeOfAKind(Move move) {
+        Player targetPlayer = this.getPlayerFromMove(move, 3);
+        Card desiredCard = move.card(4);
 
-            controller.sendPrivateMsg("You got " + targetPlayer.getName()
-                    + "'s " + cmd[4].toUpperCase() + ".", currentPlayerIndex);
-            controller.sendPrivateMsg(currentPlayer.getName() +
-                            " played a 3 OF A KIND on your " + cmd[4].toUpperCase(),
-                    players.indexOf(targetPlayer));
+        if (targetPlayer.handOfCards.has(desiredCard)) {
+            currentPlayer.handOfCards.add(desiredCard);
+            targetPlayer.handOfCards.remove(desiredCard);
 
+            listener.onCardDemanded(currentPlayer, targetPlayer, desiredCard, true);
         } else {
-            controller.sendPrivateMsg(targetPlayer.getName() +
-                    " did not have the desired card", currentPlayerIndex);
-            controller.sendPrivateMsg("Your cards are put " +
-                    "in the discard pile.", currentPlayerIndex);
+            listener.onCardDemanded(currentPlayer, targetPlayer, desiredCard, false);
         }
-        removeFromHandAndAddToDiscardPile(Card.valueOf(cmd[0]));
-        removeFromHandAndAddToDiscardPile(Card.valueOf(cmd[0]));
-        removeFromHandAndAddToDiscardPile(Card.valueOf(cmd[0]));
+        removeFromHandAndAddToDiscardPile(move.card(0));
+        removeFromHandAndAddToDiscardPile(move.card(0));
+        removeFromHandAndAddToDiscardPile(move.card(0));
     }
 
-    private void processTwoOfAKind(String[] cmd) {
-        if (cmd.length != 3) {
-            controller.sendPrivateMsg("2 of a Kind format: "
-                    + "<CARD> <CARD> <TARGET PLAYER'S NAME>", currentPlayerIndex);
+    private void processTwoOfAKind(Move move) {
+        if (move.size() != 3) {
+            listener.onRejected(currentPlayer, "2 of a Kind format: "
+                    + "<CARD> <CARD> <TARGET PLAYER'S NAME>");
         } else {
-            Player targetPlayer = this.getPlayerFromString(cmd[2]);
+            Player targetPlayer = this.getPlayerFromMove(move, 2);
             Card randomlyChosenCard = targetPlayer
                     .handOfCards
-                    .get(new Random()
+                    .get(random
                             .nextInt(targetPlayer
                                     .handOfCards
                                     .size()));
@@ -403,22 +680,17 @@ public class Game {
                     .handOfCards
                     .add(randomlyChosenCard);
 
-            removeFromHandAndAddToDiscardPile(Card.valueOf(cmd[0]));
-            removeFromHandAndAddToDiscardPile(Card.valueOf(cmd[0]));
+            removeFromHandAndAddToDiscardPile(move.card(0));
+            removeFromHandAndAddToDiscardPile(move.card(0));
 
-            controller.sendPrivateMsg("You got a " + randomlyChosenCard + ".",
-                    currentPlayerIndex);
-            controller.sendPrivateMsg("Your 2 identical cards have been" +
-                    " put in the discard pile.", currentPlayerIndex);
-            controller.sendPrivateMsg(currentPlayer.getName() + " got from you a " +
-                    randomlyChosenCard.name() + ".", players.indexOf(targetPlayer));
+            listener.onCardStolen(currentPlayer, targetPlayer, randomlyChosenCard);
         }
     }
 
     private boolean doesPlayerHaveCardInHand(Card card) {
-        if (!currentPlayer.handOfCards.contains(card)) {
-            controller.sendPrivateMsg("You don't have " +
-                    card.name() + " card in your hand.", currentPlayerIndex);
+        if (!currentPlayer.handOfCards.has(card)) {
+            listener.onRejected(currentPlayer, "You don't have " +
+                    card.name() + " card in your hand.");
             return false;
         }
         return true;
@@ -431,33 +703,22 @@ public class Game {
         //      the turnsToPlay increments by 1 already.
         currentPlayer.setTurnsToPlay(-1);
 
-        if (!currentPlayer.hasTurnsToPlay()) {
-            controller.sendPrivateMsg("Next player has to play 2 consecutive rounds",
-                    currentPlayerIndex);
+        boolean hasPassedTurns = currentPlayer.hasTurnsToPlay();
+        if (!hasPassedTurns) {
             players.get(nextPlayerIndex).setTurnsToPlay(+1);
         } else {
             players.get(nextPlayerIndex)
                     .setTurnsToPlay(+currentPlayer.getTurnsToPlay());
             currentPlayer.setTurnsToPlay(-currentPlayer.getTurnsToPlay());
-            controller.sendPrivateMsg("You passed the turns to the next player.",
-                    currentPlayerIndex);
         }
-        controller.sendPrivateMsg("Previous player played an ATTACK card, and " +
-                "now you have to play 3 rounds.", nextPlayerIndex);
+        listener.onAttack(currentPlayer, players.get(nextPlayerIndex), hasPassedTurns);
 
         this.removeFromHandAndAddToDiscardPile(Card.ATTACK);
     }
 
-    public void processFavorCard(String targetPlayerName) {
-        Player targetPlayer = players.stream()
-                .filter(player -> player.getName().equalsIgnoreCase(targetPlayerName))
-                .findFirst()
-                .orElse(null); // Must. This is how Streams work in JAVA. It is actually checked from source method
-
-        controller.requestCardFromPlayer(
-                players.indexOf(targetPlayer),
-                currentPlayer.getName()
-        );
+    public void processFavorCard(Player targetPlayer) {
+        favorTarget = targetPlayer;
+        listener.onFavorAsked(currentPlayer, targetPlayer);
     }
 
     public void processNopeCard() {
@@ -465,8 +726,8 @@ public class Game {
     }
 
     public void processShuffleCard() {
-        controller.doBroadcast("The deck has been shuffled.");
-        Collections.shuffle(this.deck.getDeckArray());
+        listener.onDeckShuffled(currentPlayer);
+        this.deck.shuffle(random);
         this.removeFromHandAndAddToDiscardPile(Card.SHUFFLE);
     }
 
@@ -481,51 +742,58 @@ public class Game {
         if (currentPlayer.hasTurnsToPlay()) {
             currentPlayer.setTurnsToPlay(-1);
         }
-        currentPlayer.getHand().remove(Card.SKIP);
-        discardPile.add(Card.SKIP);
+        this.removeFromHandAndAddToDiscardPile(Card.SKIP);
     }
 
     public void processFutureCard() {
-        currentPlayer.getHand().remove(Card.FUTURE);
-        discardPile.add(Card.FUTURE);
+        this.removeFromHandAndAddToDiscardPile(Card.FUTURE);
 
-        controller.promptLastThreeCardsFromDeck(
-                deck.getDeckArray().get(deck.getDeckArray().size() - 1),
-                deck.getDeckArray().get(deck.getDeckArray().size() - 2),
-                deck.getDeckArray().get(deck.getDeckArray().size() - 3)
+        // Near the end of the game, the deck may hold fewer than three cards
+        listener.onFutureSeen(currentPlayer,
+                deck.size() > 0 ? deck.peek(0) : null,
+                deck.size() > 1 ? deck.peek(1) : null,
+                deck.size() > 2 ? deck.peek(2) : null
         );
     }
 
     private void processDraw() {
-        boolean currentPlayerHasDefuse = currentPlayer.getHand().contains(Card.DEFUSE);
+        boolean currentPlayerHasDefuse = currentPlayer.getHand().has(Card.DEFUSE);
 
         if (deck.getLastCard() == Card.EXPLODE && currentPlayerHasDefuse) {
-            controller.askIndexOfReinsertingExplode();
-            deck.getDeckArray().remove(Card.EXPLODE);
+            listener.onExplodeDefused(currentPlayer, deck.size() - 1);
+            isExplodeToInsert = true;
+            deck.getLastCardAndRemove(); // The EXPLODE on top, until it is inserted back
             this.removeFromHandAndAddToDiscardPile(Card.DEFUSE);
         } else if (deck.getLastCard() == Card.EXPLODE && !currentPlayerHasDefuse) {
-            controller.announceKick(currentPlayerIndex);
-            controller.doBroadcast(currentPlayer.getName() + " drew an EXPLODE, " +
-                    "but did not have a DEFUSE. He/She is out.");
+            listener.onExploded(currentPlayer);
             this.removePlayerFromGame(currentPlayerIndex);
             checkHasWinner();
         } else if (deck.getLastCard() != Card.EXPLODE) {
-            currentPlayer.getHand().add(deck.getLastCardAndRemove());
+            Card card = deck.getLastCardAndRemove();
+            currentPlayer.getHand().add(card);
+            listener.onCardDrawn(currentPlayer, card);
             currentPlayer.setTurnsToPlay(-1);
         }
         if (currentPlayer.hasTurnsToPlay()) {
-            controller.sendPrivateMsg("You (still) have " +
-                    currentPlayer.getTurnsToPlay() +
-                    " round(s) to play", currentPlayerIndex);
+            listener.onTurnsLeft(currentPlayer, currentPlayer.getTurnsToPlay());
         }
     }
 
     /* ********* CARD PROCESSING ********* */
 
-    public void doInsertExplode(int cardIndex, int playerIndex) {
-        this.deck.getDeckArray().add(cardIndex, Card.EXPLODE);
-        controller.sendPrivateMsg("EXPLODE inserted successfully at " + cardIndex,
-                playerIndex);
+    public void doInsertExplode(int cardIndex, int seat) {
+        Player player = this.getPlayerAtSeat(seat);
+        if (!isExplodeToInsert || player != currentPlayer) {
+            listener.onRejected(player, "You have no EXPLODE to insert.");
+            return;
+        }
+        if (cardIndex < 0 || cardIndex > deck.size()) {
+            listener.onRejected(player, "Specify an index between 0 and " + deck.size() + ".");
+            return;
+        }
+        isExplodeToInsert = false;
+        this.deck.insert(cardIndex, Card.EXPLODE);
+        listener.onExplodeInserted(this.getPlayerAtSeat(seat), cardIndex);
 
         if (currentPlayer.hasTurnsToPlay()) {
             currentPlayer.setTurnsToPlay(-1);
@@ -537,63 +805,109 @@ public class Game {
         currentPlayerIndex = (currentPlayerIndex + 1) % currentNumberOfPlayers;
         currentPlayer = players.get(currentPlayerIndex);
         currentPlayer.setTurnsToPlay(+1);
+        favorTarget = null;
     }
 
     public void checkHasWinner() {
         if (currentNumberOfPlayers == 1) {
 //            incrementPlayerTurnIndex();
-            controller.doBroadcast("YOU WON! CONGRATULATIONS!");
-            System.exit(0);
+            winner = true;
+            listener.onWinner(currentPlayer);
+        }
+    }
+
+    /**
+     * Removes the player on a seat, e.g. because its client left.
+     * Does nothing if that player is already out.
+     */
+    public void removePlayerFromGame(Player player) {
+        int playerIndex = players.indexOf(player);
+        if (playerIndex >= 0) {
+            this.removePlayerFromGame(playerIndex);
+            listener.onPlayerLeft(player);
         }
     }
 
-    public void removePlayerFromGame(int playerIndexToRemove) {
-        players.remove(playerIndexToRemove);
+    private void removePlayerFromGame(int playerIndexToRemove) {
+        // A player who leaves before inserting its EXPLODE back takes it along
+        boolean isExplodeOut = isExplodeToInsert && players.get(playerIndexToRemove) == currentPlayer;
+        if (isExplodeOut) {
+            isExplodeToInsert = false;
+        }
+        Player removed = players.remove(playerIndexToRemove);
         currentNumberOfPlayers--;
+        if (removed == favorTarget || removed == currentPlayer) {
+            favorTarget = null;
+        }
 
-        if (currentPlayerIndex >= playerIndexToRemove) {
+        if (currentNumberOfPlayers > 0 && currentPlayerIndex >= playerIndexToRemove) {
             currentPlayerIndex--;
             if (currentPlayerIndex < 0) {
                 currentPlayerIndex = currentNumberOfPlayers - 1;
             }
             currentPlayer = players.get(currentPlayerIndex);
         }
-        Collections.shuffle(this.deck.getDeckArray());
-        this.deck.getDeckArray().remove(Card.EXPLODE);
+        this.deck.shuffle(random);
+        if (!isExplodeOut) {
+            this.deck.remove(Card.EXPLODE);
+        }
     }
 
     public void removeFromHandAndAddToDiscardPile(Card card) {
         currentPlayer.getHand().remove(card);
         discardPile.add(card);
+        listener.onCardDiscarded(currentPlayer, card);
     }
 
-    public void doFavorResponse(String card, int targetPlayerIndex) {
-        String[] splittedCmdInter = card.split("\\s+"); // On SPACE
-        String[] splittedCmd = Arrays.copyOfRange(splittedCmdInter, 1,
-                splittedCmdInter.length);
-        splittedCmd = Arrays.stream(splittedCmd).map(String::toUpperCase)
-                .toArray(String[]::new);
-        Card receivedCard = Card.valueOf(splittedCmd[0]);
+    /**
+     * Moves a card from the hand of any player, not only the current one,
+     * to the discard pile. Used for the NOPEs played out of turn.
+     * @return false if the player does not have the card.
+     */
+    public boolean discardFromHand(Card card, int seat) {
+        Player player = this.getPlayerAtSeat(seat);
+        if (player == null || !player.getHand().remove(card)) {
+            return false;
+        }
+        discardPile.add(card);
+        listener.onCardDiscarded(player, card);
+        return true;
+    }
+
+    /**
+     * Moves the card the target of a FAVOR gives from its hand to the one of
+     * the current player, who discards its FAVOR. If nobody asked the player
+     * on the seat for a FAVOR, or it does not hold the card, the listener is
+     * told why and nothing changes.
+     * @return whether the card was given
+     */
+    public boolean doFavorResponse(Card receivedCard, int targetSeat) {
+        Player target = this.getPlayerAtSeat(targetSeat);
+        if (target == null || target != favorTarget) {
+            listener.onRejected(target, "Nobody asked you a FAVOR.");
+            return false;
+        } else if (!target.getHand().remove(receivedCard)) {
+            listener.onRejected(target, "You don't have " + receivedCard + " in your hand.");
+            return false;
+        }
+        favorTarget = null;
         currentPlayer.getHand().add(receivedCard);
-        players.get(targetPlayerIndex)
-                .getHand()
-                .remove(receivedCard);
+        listener.onFavorGiven(currentPlayer, target, receivedCard);
         this.removeFromHandAndAddToDiscardPile(Card.FAVOR);
+        return true;
     }
 
-    public boolean isClientsTurn(int playerIndexWhoPlayedMove) {
-        return (playerIndexWhoPlayedMove == currentPlayerIndex);
+    public boolean isClientsTurn(int seatWhoPlayedMove) {
+        return (seatWhoPlayedMove == currentPlayer.getSeat());
     }
 
     public boolean isTargetPlayerValid(Player targetPlayer) {
         if (targetPlayer == null) {
-            controller.sendPrivateMsg("There is no such player."
-                    , currentPlayerIndex);
+            listener.onRejected(currentPlayer, "There is no such player.");
             return false;
         } else if (currentPlayer.getName().
                 equalsIgnoreCase(targetPlayer.getName())) {
-            controller.sendPrivateMsg("You cannot play it to yourself."
-                    , currentPlayerIndex);
+            listener.onRejected(currentPlayer, "You cannot play it to yourself.");
             return false;
         }
         return true;
@@ -606,37 +920,48 @@ public class Game {
                 .orElse(null)); // Must. This is how Streams work in JAVA. It is actually checked from source method
     }
 
-    public void removeCardFromPlayerHand(String[] clientMsgSplitted) {
-        Card firstCard;
-        String[] splittedCmd = this.getPlayersMoveSplitted(clientMsgSplitted);
+    /**
+     * Finds the player named by a word of a move, ignoring case.
+     * @return the player, or null if nobody has that name.
+     */
+    private Player getPlayerFromMove(Move move, int wordIndex) {
+        for (Player player : players) {
+            if (move.wordEquals(wordIndex, player.getName())) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    public void removeCardFromPlayerHand(Move move) {
+        Card firstCard = move.card(0);
 
-        if (splittedCmd[0].equals(Card.DEFUSE.name())
-                || splittedCmd[0].equals(Card.EXPLODE.name())
-                || splittedCmd[0].equals(Card.NOPE.name())) {
-            controller.sendPrivateMsg("You cannot play a DEFUSE or EXPLODE." +
-                    " Right now, not even NOPE.", currentPlayerIndex);
+        if (firstCard == Card.DEFUSE
+                || firstCard == Card.EXPLODE
+                || firstCard == Card.NOPE) {
+            listener.onRejected(currentPlayer, "You cannot play a DEFUSE or EXPLODE." +
+                    " Right now, not even NOPE.");
         }
 
         // Three of a Kind
-        if (splittedCmd.length == 5) {
-            if (checkThreeOfAKind(splittedCmd)) {
-                this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
-                this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
-                this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
+        if (move.size() == 5) {
+            if (checkThreeOfAKind(move)) {
+                this.removeFromHandAndAddToDiscardPile(firstCard);
+                this.removeFromHandAndAddToDiscardPile(firstCard);
+                this.removeFromHandAndAddToDiscardPile(firstCard);
             }
         }
 
         // Two of a Kind
-        if (splittedCmd.length == 3) {
-            if (checkTwoOfAKind(splittedCmd)) {
-                this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
-                this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
+        if (move.size() == 3) {
+            if (checkTwoOfAKind(move)) {
+                this.removeFromHandAndAddToDiscardPile(firstCard);
+                this.removeFromHandAndAddToDiscardPile(firstCard);
             }
         }
 
         // ATTACK / FAVOR / SEE THE FUTURE / SKIP / SHUFFLE
-        if (splittedCmd.length == 1 || splittedCmd.length == 2) {
-            firstCard = Card.valueOf(splittedCmd[0].toUpperCase());
+        if ((move.size() == 1 || move.size() == 2) && firstCard != null) {
             switch (firstCard) {
                 case ATTACK -> this.removeFromHandAndAddToDiscardPile(Card.ATTACK);
                 case FAVOR -> this.removeFromHandAndAddToDiscardPile(Card.FAVOR); // target player's name
@@ -645,20 +970,10 @@ public class Game {
                 case SKIP -> this.removeFromHandAndAddToDiscardPile(Card.SKIP);
                 case FUTURE -> this.removeFromHandAndAddToDiscardPile(Card.FUTURE);
                 case TACOCAT, CATTERMELLON, POTATO, BEARD, RAINBOW -> {
-                    this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
-                    this.removeFromHandAndAddToDiscardPile(Card.valueOf(splittedCmd[0]));
+                    this.removeFromHandAndAddToDiscardPile(firstCard);
+                    this.removeFromHandAndAddToDiscardPile(firstCard);
                 }
             }
         }
     }
-
-    public String[] getPlayersMoveSplitted(String[] cmd) {
-        String fullCmd = cmd[0];
-        String[] splittedCmdInter = fullCmd.split("\\s+"); // On SPACE
-        String[] splittedCmd = Arrays.copyOfRange(splittedCmdInter, 1,
-                splittedCmdInter.length);
-        splittedCmd = Arrays.stream(splittedCmd).map(String::toUpperCase)
-                .toArray(String[]::new);
-        return splittedCmd;
-    }
 }
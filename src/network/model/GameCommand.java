@@ -0,0 +1,30 @@
+package network.model;
+
+/**
+ * What a player can ask a {@link Game} to do, see {@link Game#execute(GameCommand)}.
+ * A player is given by its seat, see {@link Player#getSeat()}.
+ */
+public sealed interface GameCommand {
+
+    int seat();
+
+    /** Plays cards, or draws, on the turn of the player. */
+    record Play(int seat, Move move) implements GameCommand {
+    }
+
+    /** Discards the cards of a move which was NOPE'd, without any effect. */
+    record Cancel(int seat, Move move) implements GameCommand {
+    }
+
+    /** Gives a card to the player who asked for a FAVOR. */
+    record GiveFavor(int seat, Card card) implements GameCommand {
+    }
+
+    /** Puts a defused EXPLODE back in the deck, at an index counted from the bottom. */
+    record InsertExplode(int seat, int index) implements GameCommand {
+    }
+
+    /** Leaves the game, with the cards in hand. */
+    record Leave(int seat) implements GameCommand {
+    }
+}
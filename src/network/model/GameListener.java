@@ -0,0 +1,109 @@
+package network.model;
+
+/**
+ * Receives what happens in a {@link Game}. The game only applies the rules;
+ * telling the players is up to the listener. The
+ * {@link network.controller.GameController} of a room sends the events to
+ * the clients, while a simulation can ignore most of them.
+ * <p>
+ * Every event does nothing by default, such that a listener only
+ * overrides the events it needs.
+ */
+public interface GameListener {
+    /** Listener which ignores every event */
+    GameListener NONE = new GameListener() { };
+
+    /**
+     * @return a listener which hands every event to each of the listeners,
+     * in this order
+     */
+    static GameListener all(GameListener... listeners) {
+        return new ListenerGroup(listeners);
+    }
+
+    /**
+     * A command of a player was not applied, since it breaks the rules or is malformed.
+     * @param reason why, to be shown to the player
+     */
+    default void onRejected(Player player, String reason) {
+    }
+
+    /**
+     * The player drew a card other than an EXPLODE. Only the player may be
+     * told which card.
+     */
+    default void onCardDrawn(Player player, Card card) {
+    }
+
+    /** The card went from the hand of the player to the discard pile. */
+    default void onCardDiscarded(Player player, Card card) {
+    }
+
+    /** With two of a kind, the thief took a random card of the victim. */
+    default void onCardStolen(Player thief, Player victim, Card card) {
+    }
+
+    /**
+     * With three of a kind, the thief named the card it wants from the victim.
+     * @param isGiven false if the victim did not have that card
+     */
+    default void onCardDemanded(Player thief, Player victim, Card card, boolean isGiven) {
+    }
+
+    /**
+     * An ATTACK ended the turn of the attacker, and the next player has to
+     * play the turns.
+     * @param hasPassedTurns true if the attacker was attacked itself and
+     * passed its turns left on
+     */
+    default void onAttack(Player attacker, Player next, boolean hasPassedTurns) {
+    }
+
+    /** A FAVOR was played; the target has to give a card of its choice. */
+    default void onFavorAsked(Player asker, Player target) {
+    }
+
+    /** The target of a FAVOR gave the card to the asker. */
+    default void onFavorGiven(Player asker, Player target, Card card) {
+    }
+
+    default void onDeckShuffled(Player player) {
+    }
+
+    /**
+     * A SEETHEFUTURE showed the three cards on top of the deck to the player.
+     * A card is null if the deck holds fewer cards.
+     */
+    default void onFutureSeen(Player player, Card top, Card second, Card third) {
+    }
+
+    /**
+     * The player drew an EXPLODE and used a DEFUSE, and has to insert the
+     * EXPLODE back, at an index from 0 to lastIndex.
+     */
+    default void onExplodeDefused(Player player, int lastIndex) {
+    }
+
+    default void onExplodeInserted(Player player, int index) {
+    }
+
+    /** The player drew an EXPLODE without a DEFUSE, and is out. */
+    default void onExploded(Player player) {
+    }
+
+    /**
+     * The player left the game, e.g. since its client disconnected. The deck
+     * was shuffled and lost an EXPLODE, unless the player still had to
+     * insert its defused EXPLODE back.
+     */
+    default void onPlayerLeft(Player player) {
+    }
+
+    /** The player has turns left to play after its move. */
+    default void onTurnsLeft(Player player, int turns) {
+    }
+
+    /** Only one player is left, which won the game. */
+    default void onWinner(Player winner) {
+    }
+}
@@ -0,0 +1,147 @@
+package network.model;
+
+import java.util.Arrays;
+
+/**
+ * Cards held by a player, kept as a count per type of card besides a list.
+ * Checking and counting a card are O(1), adding one is amortized O(1), and
+ * the types a player holds are also kept as a mask, with bit
+ * {@link Card#ordinal()} set for every type of which the player holds at
+ * least one card.
+ * <p>
+ * The cards are also kept in the order in which they were received, as
+ * ordinals in a small array, such that the hand reads as it always did,
+ * e.g. in the {@code Your hand: [...]} line the clients are sent. Removing
+ * a card is thus O(n) in the size of the hand: it finds the card and shifts
+ * the few cards after it, like a list would. A hand holds a handful of
+ * cards, which is cheaper to shift than any structure removing in O(1)
+ * while keeping that order.
+ */
+public class Hand {
+    /** Number of cards of each type, by {@link Card#ordinal()} */
+    private final int[] counts = new int[Card.values().length];
+
+    /** Mask of the types held, with bit {@link Card#ordinal()} set if the
+     * count of that type is not 0 */
+    private int types = 0;
+
+    /** Ordinals of the cards held, in the order they were received; the
+     * first size of them are used */
+    private byte[] order = new byte[16];
+
+    private int size = 0;
+
+    /* ************************************
+              GETTERS & SETTERS
+    ************************************ */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a mask with bit {@link Card#ordinal()} set for every type of
+     * card held. Iterating over its bits visits each type held once, without
+     * allocating.
+     */
+    public int types() {
+        return types;
+    }
+
+    /* ************************************
+                    METHODS
+    ************************************ */
+
+    /**
+     * @requires card != null
+     * @return true if at least one card of that type is held.
+     */
+    public boolean has(Card card) {
+        return (types & (1 << card.ordinal())) != 0;
+    }
+
+    /**
+     * @requires card != null
+     * @return the number of cards of that type held.
+     */
+    public int count(Card card) {
+        return counts[card.ordinal()];
+    }
+
+    /**
+     * @requires card != null
+     * @ensures count(card) is one more than before
+     */
+    public void add(Card card) {
+        counts[card.ordinal()]++;
+        types |= 1 << card.ordinal();
+        if (size == order.length) {
+            order = Arrays.copyOf(order, 2 * size);
+        }
+        order[size++] = (byte) card.ordinal();
+    }
+
+    /**
+     * Removes one card of a type, if one is held: the one received first.
+     * O(n) in the size of the hand, see the class doc.
+     * @return false if no card of that type is held.
+     */
+    public boolean remove(Card card) {
+        if (card == null || counts[card.ordinal()] == 0) {
+            return false;
+        }
+        if (--counts[card.ordinal()] == 0) {
+            types &= ~(1 << card.ordinal());
+        }
+        int index = 0;
+        while (order[index] != card.ordinal()) {
+            index++;
+        }
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every card.
+     * @ensures isEmpty()
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        types = 0;
+        size = 0;
+    }
+
+    /**
+     * Provides the card at a position of this hand, in the order the cards
+     * were received.
+     * @requires 0 <= index && index < size()
+     */
+    public Card get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for hand of " + size);
+        }
+        return Card.byOrdinal(order[index]);
+    }
+
+    /**
+     * Renders the hand the way a list of cards is rendered, in the order the
+     * cards were received, e.g. {@code [NOPE, DEFUSE, NOPE]}, which is what
+     * the clients parse.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(size * 8 + 2).append('[');
+        for (int index = 0; index < size; index++) {
+            if (index > 0) {
+                result.append(", ");
+            }
+            result.append(Card.byOrdinal(order[index]).name());
+        }
+        return result.append(']').toString();
+    }
+}
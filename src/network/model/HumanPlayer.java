@@ -4,6 +4,9 @@ public class HumanPlayer extends Player {
     public HumanPlayer(String name) {
         super(name);
     }
+    public HumanPlayer(String name, int seat) {
+        super(name, seat);
+    }
     public HumanPlayer() {
         super();
     }
@@ -0,0 +1,125 @@
+package network.model;
+
+/**
+ * Listener which hands every event to several listeners, see
+ * {@link GameListener#all(GameListener...)}.
+ */
+class ListenerGroup implements GameListener {
+    private final GameListener[] listeners;
+
+    ListenerGroup(GameListener[] listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    @Override
+    public void onRejected(Player player, String reason) {
+        for (GameListener listener : listeners) {
+            listener.onRejected(player, reason);
+        }
+    }
+
+    @Override
+    public void onCardDrawn(Player player, Card card) {
+        for (GameListener listener : listeners) {
+            listener.onCardDrawn(player, card);
+        }
+    }
+
+    @Override
+    public void onCardDiscarded(Player player, Card card) {
+        for (GameListener listener : listeners) {
+            listener.onCardDiscarded(player, card);
+        }
+    }
+
+    @Override
+    public void onCardStolen(Player thief, Player victim, Card card) {
+        for (GameListener listener : listeners) {
+            listener.onCardStolen(thief, victim, card);
+        }
+    }
+
+    @Override
+    public void onCardDemanded(Player thief, Player victim, Card card, boolean isGiven) {
+        for (GameListener listener : listeners) {
+            listener.onCardDemanded(thief, victim, card, isGiven);
+        }
+    }
+
+    @Override
+    public void onAttack(Player attacker, Player next, boolean hasPassedTurns) {
+        for (GameListener listener : listeners) {
+            listener.onAttack(attacker, next, hasPassedTurns);
+        }
+    }
+
+    @Override
+    public void onFavorAsked(Player asker, Player target) {
+        for (GameListener listener : listeners) {
+            listener.onFavorAsked(asker, target);
+        }
+    }
+
+    @Override
+    public void onFavorGiven(Player asker, Player target, Card card) {
+        for (GameListener listener : listeners) {
+            listener.onFavorGiven(asker, target, card);
+        }
+    }
+
+    @Override
+    public void onDeckShuffled(Player player) {
+        for (GameListener listener : listeners) {
+            listener.onDeckShuffled(player);
+        }
+    }
+
+    @Override
+    public void onFutureSeen(Player player, Card top, Card second, Card third) {
+        for (GameListener listener : listeners) {
+            listener.onFutureSeen(player, top, second, third);
+        }
+    }
+
+    @Override
+    public void onExplodeDefused(Player player, int lastIndex) {
+        for (GameListener listener : listeners) {
+            listener.onExplodeDefused(player, lastIndex);
+        }
+    }
+
+    @Override
+    public void onExplodeInserted(Player player, int index) {
+        for (GameListener listener : listeners) {
+            listener.onExplodeInserted(player, index);
+        }
+    }
+
+    @Override
+    public void onExploded(Player player) {
+        for (GameListener listener : listeners) {
+            listener.onExploded(player);
+        }
+    }
+
+    @Override
+    public void onPlayerLeft(Player player) {
+        for (GameListener listener : listeners) {
+            listener.onPlayerLeft(player);
+        }
+    }
+
+    @Override
+    public void onTurnsLeft(Player player, int turns) {
+        for (GameListener listener : listeners) {
+            listener.onTurnsLeft(player, turns);
+        }
+    }
+
+    @Override
+    public void onWinner(Player winner) {
+        for (GameListener listener : listeners) {
+            listener.onWinner(winner);
+        }
+    }
+}
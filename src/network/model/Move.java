@@ -0,0 +1,205 @@
+package network.model;
+
+/**
+ * A move as typed by a player, e.g. "play tacocat tacocat bob" or "draw".
+ * <p>
+ * The move is read in place: {@link #parse(String, int, int)} only remembers
+ * where each word starts and ends and which card it names, such that one
+ * instance can be reused for every move of a player. The first word is the
+ * verb ("play", "draw"); the words after it are numbered from 0, such that
+ * "play favor bob" has the card FAVOR at 0 and the name bob at 1.
+ */
+public class Move {
+    /** Words after the verb that are remembered. Longer moves still report
+     * their {@link #size()}, which no move accepts. */
+    public static final int MAX_WORDS = 6;
+
+    private static final String DRAW_TEXT = "draw";
+    private static final String PLAY_VERB = "play ";
+    /** Text of the move playing one card, by the ordinal of the card */
+    private static final String[] PLAY_TEXTS = new String[Card.values().length];
+
+    static {
+        for (Card card : Card.values()) {
+            PLAY_TEXTS[card.ordinal()] = PLAY_VERB + card.name();
+        }
+    }
+
+    private String text = "";
+    private int textStart = 0;
+    private int textEnd = 0;
+    private boolean hasVerb = false;
+    private boolean isDraw = false;
+    private int size = 0;
+    private final int[] starts = new int[MAX_WORDS];
+    private final int[] ends = new int[MAX_WORDS];
+    private final Card[] cards = new Card[MAX_WORDS];
+
+    /* ************************************
+                    PARSING
+    ************************************ */
+
+    /**
+     * Reads the move found between the given indexes of a text, replacing
+     * the previous move. Words are separated by whitespace.
+     * @param text != null
+     * @param start index of the first character of the move
+     * @param end index after the last character of the move
+     */
+    public void parse(String text, int start, int end) {
+        this.text = text;
+        this.textStart = start;
+        this.textEnd = end;
+        hasVerb = false;
+        isDraw = false;
+        size = 0;
+
+        int cursor = start;
+        while (true) {
+            while (cursor < end && Character.isWhitespace(text.charAt(cursor))) {
+                cursor++;
+            }
+            if (cursor == end) {
+                break;
+            }
+            int wordStart = cursor;
+            while (cursor < end && !Character.isWhitespace(text.charAt(cursor))) {
+                cursor++;
+            }
+            if (!hasVerb) {
+                hasVerb = true;
+                isDraw = cursor - wordStart == 4 && text.regionMatches(true, wordStart, "DRAW", 0, 4);
+            } else {
+                if (size < MAX_WORDS) {
+                    starts[size] = wordStart;
+                    ends[size] = cursor;
+                    cards[size] = Card.lookup(text, wordStart, cursor);
+                }
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Reads a whole text as a move.
+     * @param text != null
+     */
+    public void parse(String text) {
+        this.parse(text, 0, text.length());
+    }
+
+    /**
+     * Makes this move a draw, without reading any text.
+     */
+    public void setDraw() {
+        text = DRAW_TEXT;
+        textStart = 0;
+        textEnd = DRAW_TEXT.length();
+        hasVerb = true;
+        isDraw = true;
+        size = 0;
+    }
+
+    /**
+     * Makes this move the play of a single card, without reading any text,
+     * e.g. for a player that chose the card itself.
+     * @param card != null
+     */
+    public void setPlay(Card card) {
+        text = PLAY_TEXTS[card.ordinal()];
+        textStart = 0;
+        textEnd = text.length();
+        hasVerb = true;
+        isDraw = false;
+        size = 1;
+        starts[0] = PLAY_VERB.length();
+        ends[0] = textEnd;
+        cards[0] = card;
+    }
+
+    /**
+     * Makes this move a copy of another one. The text is shared, not copied.
+     * @param other != null
+     */
+    public void copyFrom(Move other) {
+        text = other.text;
+        textStart = other.textStart;
+        textEnd = other.textEnd;
+        hasVerb = other.hasVerb;
+        isDraw = other.isDraw;
+        size = other.size;
+        System.arraycopy(other.starts, 0, starts, 0, MAX_WORDS);
+        System.arraycopy(other.ends, 0, ends, 0, MAX_WORDS);
+        System.arraycopy(other.cards, 0, cards, 0, MAX_WORDS);
+    }
+
+    /* ************************************
+                    GETTERS
+    ************************************ */
+
+    /** @return whether the move has at least a verb */
+    public boolean isEmpty() {
+        return !hasVerb;
+    }
+
+    /** @return whether the verb is DRAW, ignoring case */
+    public boolean isDraw() {
+        return isDraw;
+    }
+
+    /** @return number of words after the verb */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the card named by the word, or null if the word is not a card
+     * or the move has no such word.
+     */
+    public Card card(int index) {
+        return index < Math.min(size, MAX_WORDS) ? cards[index] : null;
+    }
+
+    /**
+     * Compares a word with a text, ignoring case, without copying it.
+     * @return false if the move has no such word.
+     */
+    public boolean wordEquals(int index, String other) {
+        if (index >= Math.min(size, MAX_WORDS)) {
+            return false;
+        }
+        int length = ends[index] - starts[index];
+        return length == other.length()
+                && text.regionMatches(true, starts[index], other, 0, length);
+    }
+
+    /**
+     * Compares two words of the move, ignoring case.
+     * @return false if the move lacks one of them.
+     */
+    public boolean wordsEqual(int index, int otherIndex) {
+        if (index >= Math.min(size, MAX_WORDS) || otherIndex >= Math.min(size, MAX_WORDS)) {
+            return false;
+        }
+        int length = ends[index] - starts[index];
+        return length == ends[otherIndex] - starts[otherIndex]
+                && text.regionMatches(true, starts[index], text, starts[otherIndex], length);
+    }
+
+    /**
+     * Copies one word of the move.
+     * @throws ArrayIndexOutOfBoundsException if the move has no such word.
+     */
+    public String word(int index) {
+        if (index >= Math.min(size, MAX_WORDS)) {
+            throw new ArrayIndexOutOfBoundsException("Move has no word " + index);
+        }
+        return text.substring(starts[index], ends[index]);
+    }
+
+    /** @return the move as it was typed */
+    @Override
+    public String toString() {
+        return text.substring(textStart, textEnd);
+    }
+}
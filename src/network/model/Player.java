@@ -1,12 +1,14 @@
 package network.model;
 
-import java.util.ArrayList;
-
 public class Player {
     protected static int MAX_NUMBER_OF_CARDS_IN_HAND = 8;
     protected static int MAX_NUMBER_OF_CARDS_IN_HAND_WITHOUT_DEFUSE = 7;
-    protected ArrayList<Card> handOfCards;
+    protected final Hand handOfCards = new Hand();
     private String name;
+    /** Seat of this player in its room, which identifies it for the whole game.
+     * Unlike its index in {@link Game#getPlayers()}, it does not change when
+     * other players leave. -1 if the player is not seated. */
+    private final int seat;
     private int turnsToPlay = 0;
     private boolean hasInsertedExplode = false;
 
@@ -15,7 +17,7 @@ public class Player {
               GETTERS & SETTERS
     ************************************ */
 
-    public ArrayList<Card> getHand() {
+    public Hand getHand() {
         return this.handOfCards;
     }
 
@@ -23,6 +25,10 @@ public class Player {
         return name;
     }
 
+    public int getSeat() {
+        return seat;
+    }
+
     public int getTurnsToPlay() {return turnsToPlay;}
 
     public boolean hasTurnsToPlay()  {return (turnsToPlay != 0);}
@@ -43,12 +49,16 @@ public class Player {
     ************************************ */
 
     public Player() {
-        this.handOfCards = new ArrayList<>();
+        this.seat = -1;
     }
 
     public Player(String name) {
-        this();
+        this(name, -1);
+    }
+
+    public Player(String name, int seat) {
         this.name = name;
+        this.seat = seat;
     }
 
     /* ************************************
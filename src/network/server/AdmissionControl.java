@@ -0,0 +1,173 @@
+package network.server;
+
+import network.Protocol.Protocol;
+import network.util.TimerWheel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a {@link Server} takes on more clients. Hard limits bound
+ * the open connections, the handshakes in progress and the rooms. On top of
+ * that, clients are refused while the machine is busy or the connected
+ * clients wait for their output, such that a saturated server turns new
+ * clients away with {@link Protocol#LOBBY_FULL} instead of slowing down every
+ * room it already hosts.
+ * <p>
+ * The CPU and the output queues are sampled on the server timer, such that
+ * admitting a client only reads a few counters.
+ */
+public class AdmissionControl {
+    /** Options of the command line setting the limits */
+    public static final String MAX_CONNECTIONS_OPTION = "--max-connections=";
+    public static final String MAX_HANDSHAKES_OPTION = "--max-handshakes=";
+    public static final String MAX_ROOMS_OPTION = "--max-rooms=";
+    public static final String MAX_LOAD_OPTION = "--max-load=";
+
+    /** Time between two samples of the load */
+    private static final long SAMPLE_MILLIS = 1000;
+
+    private final Server server;
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+    private int maxConnections = 10_000;
+    private int maxHandshakes = 1_000;
+    private int maxRooms = 2_500;
+
+    /** Load, in percent, from which clients are refused */
+    private int maxLoad = 90;
+
+    /** Clients connected, whether or not they finished their handshake */
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /** Clients which did not request a game yet */
+    private final AtomicInteger handshakes = new AtomicInteger();
+
+    /** Last samples, in percent */
+    private volatile int cpuLoad = 0;
+    private volatile int queueLoad = 0;
+
+    /**
+     * @param server the server whose clients are counted
+     */
+    public AdmissionControl(Server server) {
+        this.server = server;
+    }
+
+    /* ************************************
+                  CONFIGURATION
+    ************************************ */
+
+    /**
+     * Applies one option of the command line, if it sets a limit.
+     * @param option != null
+     * @return false if the option is not about admission.
+     * @throws NumberFormatException if the value is not a number.
+     */
+    public boolean applyOption(String option) {
+        if (option.startsWith(MAX_CONNECTIONS_OPTION)) {
+            maxConnections = Integer.parseInt(option.substring(MAX_CONNECTIONS_OPTION.length()));
+        } else if (option.startsWith(MAX_HANDSHAKES_OPTION)) {
+            maxHandshakes = Integer.parseInt(option.substring(MAX_HANDSHAKES_OPTION.length()));
+        } else if (option.startsWith(MAX_ROOMS_OPTION)) {
+            maxRooms = Integer.parseInt(option.substring(MAX_ROOMS_OPTION.length()));
+        } else if (option.startsWith(MAX_LOAD_OPTION)) {
+            maxLoad = Integer.parseInt(option.substring(MAX_LOAD_OPTION.length()));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    public int getMaxRooms() {
+        return maxRooms;
+    }
+
+    /* ************************************
+                    ADMISSION
+    ************************************ */
+
+    /**
+     * Counts a freshly accepted connection, unless the server is at one of its
+     * limits or too loaded.
+     * @return null if the client is admitted, otherwise why it is not.
+     */
+    public String admitConnection() {
+        int load = Math.max(cpuLoad, queueLoad);
+        if (load >= maxLoad) {
+            return "load at " + load + "%";
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return maxConnections + " connections open";
+        }
+        if (handshakes.incrementAndGet() > maxHandshakes) {
+            handshakes.decrementAndGet();
+            connections.decrementAndGet();
+            return maxHandshakes + " handshakes pending";
+        }
+        return null;
+    }
+
+    /**
+     * Called once an admitted client requested a game.
+     */
+    public void onHandshakeDone() {
+        handshakes.decrementAndGet();
+    }
+
+    /**
+     * Called once the connection of an admitted client is closed.
+     * @param duringHandshake whether the client had not requested a game yet
+     */
+    public void onConnectionClosed(boolean duringHandshake) {
+        if (duringHandshake) {
+            handshakes.decrementAndGet();
+        }
+        connections.decrementAndGet();
+    }
+
+    /**
+     * @return the load of the server in percent: the highest of the CPU, the
+     * output queues and the share of the connections and rooms in use.
+     */
+    public int getLoad() {
+        int load = Math.max(cpuLoad, queueLoad);
+        load = Math.max(load, (int) (100L * connections.get() / Math.max(1, maxConnections)));
+        load = Math.max(load, (int) (100L * server.getRooms().size() / Math.max(1, maxRooms)));
+        return Math.min(load, 100);
+    }
+
+    /* ************************************
+                    SAMPLING
+    ************************************ */
+
+    /**
+     * Samples the load now and then on the given timer, for as long as the
+     * server runs.
+     * @param timers != null
+     */
+    public void start(TimerWheel timers) {
+        this.sample();
+        timers.schedule(() -> this.start(timers), SAMPLE_MILLIS);
+    }
+
+    private void sample() {
+        double cpu = os instanceof com.sun.management.OperatingSystemMXBean sunOs
+                ? sunOs.getCpuLoad()
+                : os.getSystemLoadAverage() / os.getAvailableProcessors();
+        cpuLoad = cpu < 0 ? 0 : (int) Math.min(100, 100 * cpu);
+
+        // A whole turn is about ten lines per client; clients holding a tenth
+        // of what gets them dropped, on average, are no longer kept up with.
+        long queued = 0;
+        int clients = 0;
+        for (ClientHandler client : server.getClients()) {
+            queued += client.getQueuedLines();
+            clients++;
+        }
+        long busy = Math.max(1, server.getMaxQueuedLines() / 10) * (long) Math.max(1, clients);
+        queueLoad = (int) Math.min(100, 100 * queued / busy);
+    }
+}
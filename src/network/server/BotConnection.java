@@ -0,0 +1,285 @@
+package network.server;
+
+import network.model.Card;
+import network.model.ComputerPlayer;
+import network.model.Game;
+import network.model.Move;
+import network.simulator.IsmctsSearch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Connection of a bot which the server seats itself, e.g. to top up a room
+ * whose players waited too long. There is no socket and nothing to parse:
+ * the bot is the {@link ComputerPlayer} of its seat in the game, thus reads
+ * its hand straight from the game, and its room prompts it whenever it has
+ * to act, see {@link #onTurn()}. The lines written to the bot are dropped.
+ * <p>
+ * The answer of the bot is posted to the mailbox of its room after
+ * {@link Server#getBotThinkMillis()}, or at once if that is 0, and is then
+ * handled like the command of any other client.
+ * <p>
+ * If its room has a {@link Room#getBotSearch()}, the bot searches its moves
+ * and where to put back a defused EXPLODE instead, on a copy of the game as
+ * the bot sees it; the search runs on the search threads of the server, off
+ * the thread of the room, and takes the place of the think delay.
+ */
+public class BotConnection implements Connection {
+    private final Server server;
+    private ClientHandler handler;
+
+    /** Player of the bot in the game of its room. Null until the game started. */
+    private ComputerPlayer player;
+
+    /** Move of the bot, reused for every move since a room handles one
+     * task at a time */
+    private final Move move = new Move();
+
+    /** Decides the deals and random games of the searches of the bot, seeded
+     * from the seed of its room and its seat, such that a run played again
+     * with the same seed searches from the same generators */
+    private SplittableRandom random;
+
+    /** Whether a move of the bot was chosen and waits to be handled, such
+     * that a turn announced twice is played once */
+    private boolean isMovePending = false;
+    private volatile boolean isClosed = false;
+
+    /**
+     * @param server the server which seats the bot
+     */
+    public BotConnection(Server server) {
+        this.server = server;
+    }
+
+    public void setHandler(ClientHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Gives the bot its player, once the game of its room dealt the cards.
+     * @param player != null, the player on the seat of the bot
+     */
+    public void setPlayer(ComputerPlayer player) {
+        this.player = player;
+        this.random = new SplittableRandom(handler.getRoom().getSeed() + player.getSeat()).split();
+    }
+
+    /* ************************************
+                   CONNECTION
+    ************************************ */
+
+    @Override
+    public void writeLine(String text) {
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+    }
+
+    @Override
+    public void beginBatch() {
+    }
+
+    @Override
+    public void endBatch() {
+    }
+
+    @Override
+    public void abort(String lastLine) {
+        isClosed = true;
+        handler.onConnectionLost();
+    }
+
+    @Override
+    public void useFrames() {
+    }
+
+    @Override
+    public int queuedLines() {
+        return 0;
+    }
+
+    /* ************************************
+                     BOT
+    ************************************ */
+
+    /**
+     * Called by the room when the turn of the bot starts or goes on. The
+     * move is chosen once the think delay is over, from the hand it then
+     * holds, or searched if the room has a search.
+     * @requires called on the mailbox of the room
+     */
+    public void onTurn() {
+        if (isMovePending) {
+            return;
+        }
+        isMovePending = true;
+        Room seatedRoom = handler.getRoom();
+        IsmctsSearch search = seatedRoom.getBotSearch();
+        if (search != null) {
+            this.searchLater(seatedRoom, search, this::mayMove,
+                    (game, knownTop, random) -> search.chooseMove(game, player.getSeat(),
+                            knownTop, random),
+                    (room, text) -> {
+                        move.parse(text);
+                        // The target of the move may have left during the search
+                        if (move.size() > 1 && room.getGame().getPlayerFromString(
+                                move.word(move.size() - 1)) == null) {
+                            player.chooseMove(move);
+                        }
+                        handler.playMove(move);
+                    });
+            return;
+        }
+        this.answerLater(room -> {
+            isMovePending = false;
+            if (this.mayMove(room)) {
+                player.chooseMove(move);
+                handler.playMove(move);
+            }
+        });
+    }
+
+    /**
+     * A move of the others may still wait for NOPEs, and a defused EXPLODE
+     * goes back first; both end by announcing the turn again.
+     */
+    private boolean mayMove(Room room) {
+        return !room.getNopeWindow().isOpen() && room.isClientsTurn(handler)
+                && !room.getGame().isExplodeToInsert();
+    }
+
+    private boolean mayInsertExplode(Room room) {
+        return room.getGame().isExplodeToInsert() && room.isClientsTurn(handler);
+    }
+
+    /**
+     * Called by the room when another player asks the bot a FAVOR. The bot
+     * gives its card without any delay: the game goes on meanwhile, and a
+     * card given after the next move would go to the wrong player.
+     * @requires called on the mailbox of the room
+     */
+    public void onFavorAsked() {
+        Room seatedRoom = handler.getRoom();
+        seatedRoom.post(() -> {
+            if (isClosed || seatedRoom.isClosed()) {
+                return;
+            }
+            Card card = player.chooseFavorCard();
+            if (card != null) {
+                move.setPlay(card);
+                handler.giveFavor(move);
+            } else {
+                // Nothing to give, the FAVOR is spent for nothing
+                handler.setAwaitFavorResponse(false);
+            }
+        });
+    }
+
+    /**
+     * Called by the room when the bot defused an EXPLODE, which it has to
+     * put back in the deck.
+     * @requires called on the mailbox of the room
+     */
+    public void onExplodeDefused() {
+        Room seatedRoom = handler.getRoom();
+        IsmctsSearch search = seatedRoom.getBotSearch();
+        if (search != null) {
+            this.searchLater(seatedRoom, search, this::mayInsertExplode,
+                    (game, knownTop, random) -> search.chooseExplodeIndex(game, player.getSeat(),
+                            knownTop, random),
+                    (room, index) -> handler.insertExplode(index));
+            return;
+        }
+        this.answerLater(room -> handler.insertExplode(player.chooseExplodeIndex()));
+    }
+
+    /** Finds an answer of the bot on a copy of the game, given the cards
+     * the bot knows on top of its deck and a generator of its own */
+    private interface Search<T> {
+        T apply(Game copy, Card[] knownTop, SplittableRandom random);
+    }
+
+    /**
+     * Searches an answer on the executor of the search of the room, off the
+     * thread of the room, and hands it to the room once found. The game is
+     * copied on the mailbox of the room, after the task which prompted the
+     * bot, such that the search sees the game as it is between two commands,
+     * with the cards the bot knows on top of the deck kept there. If the
+     * search fails, the plain move of the bot is played instead.
+     * @param botSearch the search of the room, whose executor runs the search
+     * @param isWanted whether the bot still has to answer, checked before
+     * and after the search
+     * @param search finds the answer on a copy of the game
+     * @param answer acts for the bot, given its room and the answer found
+     */
+    private <T> void searchLater(Room room, IsmctsSearch botSearch, Predicate<Room> isWanted,
+                                 Search<T> search, BiConsumer<Room, T> answer) {
+        room.post(() -> {
+            if (isClosed || room.isClosed() || !isWanted.test(room)) {
+                isMovePending = false;
+                return;
+            }
+            Card[] knownTop = player.getTracker().getTop();
+            SplittableRandom searchRandom = random.split();
+            Game copy;
+            try {
+                copy = room.getGame().determinize(player.getSeat(), knownTop, null, searchRandom.split());
+            } catch (RuntimeException e) {
+                System.out.println("> [" + handler.getName() + "] search failed: " + e);
+                isMovePending = false;
+                this.fallBack(room);
+                return;
+            }
+            CompletableFuture.supplyAsync(() -> search.apply(copy, knownTop, searchRandom),
+                            botSearch.getExecutor())
+                    .whenComplete((found, failure) -> room.post(() -> {
+                        isMovePending = false;
+                        if (isClosed || room.isClosed() || !isWanted.test(room)) {
+                            return;
+                        }
+                        if (failure != null) {
+                            System.out.println("> [" + handler.getName() + "] search failed: " + failure);
+                            this.fallBack(room);
+                        } else {
+                            answer.accept(room, found);
+                        }
+                    }));
+        });
+    }
+
+    /** Answers with the plain moves, whatever the bot had to answer */
+    private void fallBack(Room room) {
+        if (this.mayInsertExplode(room)) {
+            handler.insertExplode(player.chooseExplodeIndex());
+        } else {
+            player.chooseMove(move);
+            handler.playMove(move);
+        }
+    }
+
+    /**
+     * Hands the answer to the room of the bot after the think delay.
+     * @param answer acts for the bot, given the room it is seated in
+     */
+    private void answerLater(Consumer<Room> answer) {
+        Room room = handler.getRoom();
+        Runnable task = () -> {
+            if (!isClosed && !room.isClosed()) {
+                answer.accept(room);
+            }
+        };
+        long thinkMillis = server.getBotThinkMillis();
+        if (thinkMillis == 0) {
+            room.post(task);
+        } else {
+            server.getTimers().schedule(() -> room.post(task), thinkMillis);
+        }
+    }
+}
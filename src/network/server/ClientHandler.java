@@ -1,28 +1,41 @@
 package network.server;
 
+import network.Protocol.FrameCodec;
 import network.Protocol.Protocol;
+import network.Protocol.ProtocolLine;
 import network.exceptions.ClientUnavailableException;
-import network.exceptions.ServerUnavailableException;
+import network.exceptions.SlowConsumerException;
+import network.model.Card;
+import network.model.Move;
+import network.util.TimerWheel;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.ProtocolException;
 import java.net.Socket;
-import java.util.Arrays;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ClientHandler implements Runnable {
 
-    /** Socket's Input and Output streams */
-    private BufferedReader in;
-    private BufferedWriter out;
-    private Socket sock;
+    /** Steps a client goes through, from connecting to playing. */
+    private enum State { ANNOUNCE, REQUESTGAME, IN_GAME }
+
+    /** Transport through which this handler talks with its client */
+    private Connection connection;
+
+    /** Step of the handshake this client is at */
+    private volatile State state = State.ANNOUNCE;
 
     /** Connected Server */
     private Server server;
 
+    /** Room in which this client is seated. Null until the handshake is done.
+     * Set by the matchmaker, read by the thread reading the client. */
+    private volatile Room room;
+
+    /** Seat of this client in its room, which identifies its player for the
+     * whole game, see {@link network.model.Player#getSeat()}. -1 until seated. */
+    private int seat = -1;
+
     /** Name of this ClientHandler (name of the connected Client) */
     private String name;
 
@@ -31,22 +44,37 @@ public class ClientHandler implements Runnable {
     private boolean supportsChat = false;
     private boolean supportsLobby = false;
     private boolean supportsCombos = false;
+    private boolean supportsFrames = false;
     private boolean awaitFavorResponse = false;
 
-    private Object insertExplodeLock = new Object();
-    private static Timer nopeTimer;
-    private static int nopeCardsCounter;
-    private static boolean timerActivated = false;
-    private static int resumeGameHasBeenCalled = 0;
-    private static String[] initialSequence;
+    /** Last line received from the client, and the move it carried. Reused
+     * for every line, since a client's lines are handled one at a time. */
+    private final ProtocolLine line = new ProtocolLine();
+    private final Move move = new Move();
 
-    private static int dummyCounter = 0;
     /** A welcoming message that is sent upon connecting to the server. */
     private final static String WELCOME_MESSAGE =
             "Welcome to the server. You have been put in a lobby.";
 
+    /** Numbers of players the client accepts, as a mask with bit k set for
+     * k players, see {@link Matchmaker#enqueue(ClientHandler, int)} */
+    private int numbersOfPlayers = Matchmaker.ANY_NUMBER_OF_PLAYERS;
+
     /** Boolean needed such that the run() method does not throw an error */
-    private Boolean isShuttingDown = false;
+    private volatile boolean isShuttingDown = false;
+
+    /** Whether this client still counts as a pending handshake for the
+     * {@link AdmissionControl}. Cleared exactly once. */
+    private final AtomicBoolean isInHandshake = new AtomicBoolean(true);
+
+    /** Bot which the server seated on behalf of this handler, which was not
+     * admitted as a connection. Null for a client. */
+    private final BotConnection bot;
+
+    /** Drops the client if it does not get through its handshake in time.
+     * Cancelled once the client is in game. */
+    private TimerWheel.Timeout handshakeDeadline;
+
     /* ************************************
                   CONSTRUCTOR
     ************************************ */
@@ -56,18 +84,41 @@ public class ClientHandler implements Runnable {
      *
      * @param sock The client socket
      * @param server  The connected server
+     * @throws IOException if the streams of the socket could not be opened.
      */
     public ClientHandler(Socket sock, Server server) throws IOException{
-        try {
-            in = new BufferedReader(
-                    new InputStreamReader(sock.getInputStream()));
-            out = new BufferedWriter(
-                    new OutputStreamWriter(sock.getOutputStream()));
-            this.sock = sock;
-            this.server = server;
-        } catch (IOException e) {
-            this.shutdown();
-        }
+        this(new SocketConnection(sock, server), server);
+    }
+
+    /**
+     * Constructs a new ClientHandler on top of an already opened connection.
+     *
+     * @param connection The connection to the client
+     * @param server  The connected server
+     */
+    public ClientHandler(Connection connection, Server server) {
+        this.connection = connection;
+        this.server = server;
+        this.bot = null;
+        this.armHandshakeDeadline();
+    }
+
+    /**
+     * Constructs the handler of a bot which the server seats itself. The bot
+     * has no handshake and is in game right away.
+     *
+     * @param bot The bot, which is also the connection of the handler
+     * @param server  The connected server
+     * @param botName The name of the bot, obeying {@link Protocol} rules
+     */
+    public ClientHandler(BotConnection bot, Server server, String botName) {
+        this.connection = bot;
+        this.server = server;
+        this.bot = bot;
+        this.name = botName;
+        this.supportsChat = true;
+        this.isInHandshake.set(false);
+        this.state = State.IN_GAME;
     }
 
     /* ************************************
@@ -91,17 +142,41 @@ public class ClientHandler implements Runnable {
         return supportsChat;
     }
 
-    /**
-     * Splits the argument according to {@link Protocol#DELIMITER}
-     * @requires msg.contains({@link Protocol#DELIMITER})
-     * @ensures Array of split strings
-     */
-    public String[] getArgSplit(String msg) {
-        return msg.split(Pattern.quote(Protocol.DELIMITER));
+    /** @return the bot playing for this handler, or null for a client */
+    public BotConnection getBot() {
+        return bot;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public boolean isShuttingDown() {
+        return isShuttingDown;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public void setSeat(int seat) {
+        this.seat = seat;
     }
 
-    public Object getInsertExplodeLock() {
-        return insertExplodeLock;
+    /**
+     * Moves the connection of this client to the worker of its room, such
+     * that its lines are read on the thread that plays its game. Only a
+     * non-blocking connection can move; the others keep their own thread.
+     * @param worker != null
+     */
+    public void moveTo(EventLoop worker) {
+        if (connection instanceof NioConnection nioConnection) {
+            nioConnection.moveTo(worker);
+        }
     }
 
     public boolean isAwaitFavorResponse() {
@@ -117,99 +192,92 @@ public class ClientHandler implements Runnable {
     ************************************ */
 
     /**
-     * Handles the Hello handshake. First, the Client sends an {@link Protocol#ANNOUNCE}
-     * message and the client's name is set. Server replies with a {@link Protocol#WELCOME}
-     * if the name obeys the rules set in the protocol. Client replies with a
-     * {@link Protocol#REQUESTGAME}, and the server asks the client how many players the game
-     * should have. The number will define how long the ServerSocket will
-     * accept connections.
+     * Handles the {@link Protocol#ANNOUNCE} of the client: sets the client's name and
+     * supported features, and replies with a {@link Protocol#WELCOME}.
+     * @param clientAns the ANNOUNCE line, as received from the client.
+     * @throws ProtocolException if the name does not obey the protocol's rules.
      */
-    public synchronized void handleHello()
-            throws RuntimeException, ClientUnavailableException, IOException{
-        String clientAns;
-        String[] splittedClientAns;
-        String command;
+    private void processAnnounce(String clientAns)
+            throws ClientUnavailableException, ProtocolException {
         String clientName;
 
-        // -------- ANNOUNCE --------
-        clientAns = this.readMessage();
-        splittedClientAns = this.getArgSplit(clientAns);
-
-        // splittedClientAns[0] = "ANNOUNCE"; Taken for granted.
-        try {
-            command = splittedClientAns[0];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ArrayIndexOutOfBoundsException("Client did not provide a command");
-        }
+        line.parse(clientAns);
 
-        // splittedClientAns[1] is player's name.
-        try {
-            clientName = splittedClientAns[1];
-        } catch (ArrayIndexOutOfBoundsException e) {
+        // line.command() = "ANNOUNCE"; Taken for granted.
+        // line.argument(1) is player's name.
+        if (line.size() < 2) {
             this.shutdown();
             throw new ArrayIndexOutOfBoundsException("Client did not provide a name");
         }
+        clientName = line.argument(1);
 
         // Checks for Chat and Lobby because my server can handle only that.
-        for (String string : splittedClientAns) {
-            if (string.equals("C"))
-                supportsChat = true;
-            if (string.equals("L"))
-                supportsLobby = true;
-            if (string.equals("S"))
-                supportsCombos = true;
-        }
+        supportsChat = line.hasArgument("C");
+        supportsLobby = line.hasArgument("L");
+        supportsCombos = line.hasArgument("S");
+        supportsFrames = line.hasArgument(FrameCodec.FEATURE);
 
         // Name checking.
-        if (server.isNameValid(clientName)) {
+        if (!server.isNameValid(clientName)) {
+            this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
+                    Protocol.INVALID_NAME);
+            throw new ProtocolException("Client's name is not valid");
+        } else if (!server.reserveName(clientName)) {
+            this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
+                    Protocol.DUPLICATE_NAME);
+            throw new ProtocolException("Client's name is already taken");
+        } else {
             this.name = clientName;
+            int waitingCount = server.getMatchmaker().getWaitingCount();
+            // The load helps picking a server; the B flag confirms that
+            // everything after the WELCOME is framed
+            String flags = Protocol.DELIMITER + Protocol.LOAD + server.getAdmission().getLoad()
+                    + (supportsFrames ? Protocol.DELIMITER + FrameCodec.FEATURE : "");
             try {
-                if (server.getClients().isEmpty()) {
+                if (waitingCount == 0) {
                     this.sendMessage(Protocol.WELCOME + Protocol.DELIMITER +
-                            WELCOME_MESSAGE + " You are the first one.");
+                            WELCOME_MESSAGE + " You are the first one." + flags);
                 } else {
-                    // Get names of already-existing players, separated by a comma
-                    String existingClients = server.getClients().stream()
-                            .map(ClientHandler::getName)
-                            .collect(Collectors.joining(", "));
                     this.sendMessage(Protocol.WELCOME + Protocol.DELIMITER +
-                            WELCOME_MESSAGE + " The game has been joined by " +
-                            existingClients + ".");
+                            WELCOME_MESSAGE + " " + waitingCount +
+                            " player(s) already wait for a game." + flags);
                 }
             } catch (ClientUnavailableException e) {
                 throw new ClientUnavailableException
                         ("\"Could not send WELCOME command to client\"");
             }
-        } else if (!server.isNameValid(clientName)) {
-            this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
-                    Protocol.INVALID_NAME);
-        } else if (!server.isNameTaken(clientName)) {
-            this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
-                    Protocol.DUPLICATE_NAME);
+            if (supportsFrames) {
+                connection.useFrames();
+            }
         }
+    }
 
-        // Client gets the WELCOME command and sends back REQUESTGAME
-        // -------- REQUEST GAME --------
-
-        clientAns = readMessage();
-        splittedClientAns = this.getArgSplit(clientAns);
-
-        // splittedClientAns[0] = "REQUESTGAME"; Taken for granted.
-        try {
-            command = splittedClientAns[0];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            this.shutdown();
-            throw new ArrayIndexOutOfBoundsException("Client did not provide a command");
-        }
+    /**
+     * Handles the {@link Protocol#REQUESTGAME} of the client, e.g.
+     * {@code REQUESTGAME|N|3|4}. The numbers after the type of game are the
+     * numbers of players the client accepts; none means any.
+     * @param clientAns the REQUESTGAME line, as received from the client.
+     * @return mask of the accepted numbers of players, with bit k set for k
+     * players.
+     * @throws ProtocolException if the client does not request a normal game.
+     */
+    private int processRequestGame(String clientAns) throws ProtocolException {
+        line.parse(clientAns);
 
+        // line.command() = "REQUESTGAME"; Taken for granted.
         // My server only supports the normal game.
-        boolean doesRequestContainNormalGame =
-                Arrays.stream(splittedClientAns)
-                        .anyMatch("N"::equals);
-
-        if (!doesRequestContainNormalGame) {
+        if (!line.hasArgument("N")) {
             throw new ProtocolException("Request command does not contain a normal game");
         }
+        int accepted = 0;
+        for (int index = 1; index < line.size(); index++) {
+            char digit = line.line().charAt(line.start(index));
+            if (line.end(index) - line.start(index) == 1
+                    && digit >= '0' + Matchmaker.MIN_PLAYERS && digit <= '0' + Matchmaker.MAX_PLAYERS) {
+                accepted |= 1 << (digit - '0');
+            }
+        }
+        return accepted == 0 ? Matchmaker.ANY_NUMBER_OF_PLAYERS : accepted;
     }
 
     /**
@@ -217,17 +285,19 @@ public class ClientHandler implements Runnable {
      * @param msg != null
      * @throws ClientUnavailableException if Client is unreachable.
      */
-    public synchronized void sendMessage(String msg)
+    public void sendMessage(String msg)
             throws ClientUnavailableException {
-        if (out != null) {
+        if (bot != null) {
+            return; // A bot reads the game itself
+        }
+        if (connection != null) {
             try {
-                // Print the current stack trace for debugging
-
                 System.out.println("> [" + name + "] Outgoing: " + msg);
-//                System.out.println("Msg is in clienthandler: [" + msg + "]");
-                out.write(msg);
-                out.newLine();
-                out.flush();
+                connection.writeLine(msg);
+            } catch (SlowConsumerException e) {
+                System.out.println("> [" + name + "] is too slow and gets dropped: "
+                        + e.getMessage());
+                connection.abort(Protocol.ERROR + Protocol.DELIMITER + Protocol.SLOW_CONSUMER);
             } catch (IOException e) {
                 throw new ClientUnavailableException("Could not write "
                         + "to client.");
@@ -239,93 +309,63 @@ public class ClientHandler implements Runnable {
     }
 
     /**
-     * Reads strings of the stream of the socket connection. The method is
-     * used before the run() method is started. The method is used
-     * to retrieve the Client's message from the socket connection in
-     * cases in which the Server must expect a certain command. For example,
-     * in {@link ClientHandler#handleHello()}, this method is used because,
-     * at certain points, the {@link ClientHandler} expects either
-     * {@link Protocol#ANNOUNCE} or {@link Protocol#REQUESTGAME}.
-     *
-     * @requires in != null
-     * @return Client's message from the socket connection.
-     * @ensures result != null
-     * @throws ClientUnavailableException if answer is null
-     * @throws ClientUnavailableException if the method could not read
-     * from server.
-     * @throws ClientUnavailableException if input socket is null
+     * Gives the client {@link Server#getHandshakeTimeoutMillis()} to
+     * announce itself and request a game.
      */
-    public String readMessage() throws ClientUnavailableException {
-        if (in != null) {
-            try {
-                String answer = in.readLine();
-                if (answer == null) {
-                    throw new ClientUnavailableException("Could not read "
-                            + "from server.");
-                }
-                return answer;
-            } catch (IOException e) {
-                throw new ClientUnavailableException("Could not read "
-                        + "from server.");
-            }
-        } else {
-            throw new ClientUnavailableException("Nothing to read "
-                    + "from server.");
-        }
+    private void armHandshakeDeadline() {
+        handshakeDeadline = server.getTimers().schedule(
+                this::onHandshakeDeadline, server.getHandshakeTimeoutMillis());
     }
 
-    public synchronized void handleLobbySize() throws ClientUnavailableException{
-        String clientAns;
-        String[] splittedClientAns;
-        int numberOfPlayers = 0;
-
+    private void onHandshakeDeadline() {
+        if (state == State.IN_GAME || isShuttingDown) {
+            return;
+        }
+        System.out.println("> [" + name + "] did not finish its handshake in time.");
         try {
             this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
-                    "How many players do you want the game to have? Type \"private\" <from 2 to 5>");
+                    "You took too long to answer. The connection is closed.");
         } catch (ClientUnavailableException e) {
-            throw new RuntimeException(e);
+            System.out.println(e.getMessage());
         }
+        this.shutdown();
+    }
 
-        clientAns = readMessage();
-        splittedClientAns = this.getArgSplit(clientAns);
-
-        System.out.println("> [" + name + "] Incoming: " + clientAns);
-
-        // splittedClientAns[0] = "PRIVATE"; Taken for granted.
-        try {
-            String command = splittedClientAns[0];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            this.shutdown();
-            System.out.println("> Client did not provide a command.");
-            System.exit(0);
+    /**
+     * Marks the end of the handshake: the client is seated, or waits for
+     * other players, and no longer has a deadline.
+     */
+    private void enterGame() {
+        state = State.IN_GAME;
+        if (handshakeDeadline != null) {
+            handshakeDeadline.cancel();
         }
+    }
 
+    /**
+     * Tells the client that the server has no room for it, and disconnects it.
+     */
+    public void refuse() {
+        System.out.println("> [" + name + "] refused: no room may be opened.");
         try {
-            numberOfPlayers = Integer.parseInt(splittedClientAns[1]);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            this.shutdown();
-            System.out.println("> Client did not provide a number.");
-            System.exit(0);
-        } catch (NumberFormatException e) {
-            this.shutdown();
-            throw new NumberFormatException("\n> Client's message is not a number.");
+            this.sendMessage(Protocol.ERROR + Protocol.DELIMITER + Protocol.LOBBY_FULL);
+        } catch (ClientUnavailableException e) {
+            System.out.println(e.getMessage());
         }
+        this.shutdown();
+    }
 
-        if (numberOfPlayers < 2 || numberOfPlayers > 5) {
-            this.sendMessage("There must be between 2 and 5 players in each game");
-            this.shutdown();
-            System.exit(0);
-        }
+    /** @return number of lines waiting to be sent to this client */
+    public int getQueuedLines() {
+        return connection.queuedLines();
+    }
 
-        server.setNumberOfPlayersToPlay(numberOfPlayers);
+    public void beginBatch() {
+        connection.beginBatch();
+    }
 
-        try {
-            this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
-                    "The game will have " + numberOfPlayers + " players. " +
-                    "You have been put in a lobby.");
-        } catch (ClientUnavailableException e) {
-            throw new RuntimeException(e);
-        }
+    public void endBatch() {
+        connection.endBatch();
     }
 
     /**
@@ -334,18 +374,61 @@ public class ClientHandler implements Runnable {
      * that this ClientHandler left.
      */
     public void shutdown() {
-        isShuttingDown = true;
+        synchronized (this) {
+            if (isShuttingDown) {
+                return;
+            }
+            isShuttingDown = true;
+        }
         System.out.println("> [" + this.name + "] disconnected.");
         server.setNextClientNo(-1);
         try {
-            in.close();
-            out.close();
-            sock.close();
+            connection.close();
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
-        server.setNumberOfCurrentPlayers(-1);
+        if (bot == null) {
+            server.getAdmission().onConnectionClosed(isInHandshake.getAndSet(false));
+        }
         server.removeClient(this);
+        if (name != null) {
+            server.releaseName(name);
+        }
+        Room seatedRoom = room;
+        if (seatedRoom != null) {
+            seatedRoom.runOrPost(() -> {
+                // A client gone without an ABORT once its game started,
+                // e.g. while it was being seated, leaves the game too
+                if (seatedRoom.isStarted() && !seatedRoom.isClosed()
+                        && seatedRoom.getClients().contains(this)) {
+                    this.leaveGame();
+                    return;
+                }
+                seatedRoom.getNopeWindow().onLeave(this);
+                seatedRoom.removeClient(this);
+            });
+        }
+    }
+
+    /**
+     * Puts this client back in the queue for a game with the numbers of
+     * players it requested, e.g. because the clients it was matched with
+     * left before their room started.
+     * @requires called on the worker of the room it was matched in
+     */
+    public void requeue() {
+        room = null;
+        try {
+            this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
+                    "Waiting for players to start a game with.");
+        } catch (ClientUnavailableException e) {
+            System.out.println(e.getMessage());
+            this.shutdown();
+            return;
+        }
+        if (!server.requestGame(this, numbersOfPlayers)) {
+            this.refuse();
+        }
     }
 
     /* ************************************
@@ -354,54 +437,94 @@ public class ClientHandler implements Runnable {
 
 
     /**
-     * Continuously listens for client's input and forwards the input to the
-     * {@link #handleCommand(String)} method.
+     * Continuously listens for client's input, from the handshake on, and
+     * forwards the input to the {@link #handleLine(String)} method.
+     * <p>
+     * Blocks on the socket, thus it is only used with a {@link SocketConnection}.
      */
     @Override
     public void run() {
+        SocketConnection socketConnection = (SocketConnection) connection;
         String msg;
         try {
-            msg = in.readLine();
-            while (msg != null) {
-                System.out.println("> [" + name + "] Incoming: " + msg);
-                handleCommand(msg);
-//                out.newLine();
-//                out.flush();
-                msg = in.readLine();
+            msg = socketConnection.readLine();
+            while (msg != null && !isShuttingDown) {
+                handleLine(msg);
+                msg = socketConnection.readLine();
             }
         } catch (IOException e) {
-            if (!isShuttingDown)
-                try {
-                    throw new ServerUnavailableException("Could not read from socket");
-                } catch (ServerUnavailableException ex) {
-                    throw new RuntimeException(ex);
-                }
+            System.out.println("> [" + name + "] Could not read from socket: " + e.getMessage());
+        }
+        if (!isShuttingDown) {
+            this.onConnectionLost();
         }
     }
 
 
     /**
-     * Returns the first object of the splitted message that
-     * came from the socket.
-     * <p>
-     * For example, if the splitted message is
-     * {@link Protocol#PLAYMOVE}|{@link network.model.Card#FUTURE}, then
-     * this method returns {@link Protocol#PLAYMOVE}
-     * @requires splittedMsg != null && !splittedMsg.isEmpty()
-     * @throws ArrayIndexOutOfBoundsException if splittedMsg.size() = 0
-     * @param splittedMsg != null
-     * @ensures command of Protocol
+     * Handles one line received from the client. Depending on
+     * how far the client got, the line is part of the handshake or a
+     * command of the game. The commands of a seated client are posted to its
+     * room, which handles them in order with those of the other clients.
+     * The room is read once: a client seated meanwhile is told it waits,
+     * such that no command runs off the mailbox of its room.
+     * @param line != null
      */
-    public String getProtocolCmd(String[] splittedMsg)
-            throws ArrayIndexOutOfBoundsException{
-        String protocolCmd;
+    public void handleLine(String line) {
+        System.out.println("> [" + name + "] Incoming: " + line);
+        Room seatedRoom = room;
+        if (state == State.IN_GAME && seatedRoom != null) {
+            seatedRoom.post(() -> this.handleStep(line, seatedRoom));
+        } else {
+            this.handleStep(line, null);
+        }
+    }
+
+    /**
+     * Handles one line at the step of the handshake the client is at.
+     * Any failure disconnects the client.
+     * @param line != null
+     * @param seatedRoom the room whose mailbox runs this step, or null if
+     * the step runs on the thread reading the client
+     */
+    private void handleStep(String line, Room seatedRoom) {
         try {
-            protocolCmd = splittedMsg[0];
-        } catch (ArrayIndexOutOfBoundsException e) {
+            switch (state) {
+                case ANNOUNCE -> {
+                    this.processAnnounce(line);
+                    state = State.REQUESTGAME;
+                }
+                case REQUESTGAME -> {
+                    numbersOfPlayers = this.processRequestGame(line);
+                    if (isInHandshake.compareAndSet(true, false)) {
+                        server.getAdmission().onHandshakeDone();
+                    }
+                    this.enterGame();
+                    this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
+                            "Waiting for players to start a game with.");
+                    if (!server.requestGame(this, numbersOfPlayers)) {
+                        this.refuse();
+                    }
+                }
+                case IN_GAME -> this.handleCommand(line, seatedRoom);
+            }
+        } catch (IOException | ClientUnavailableException | RuntimeException e) {
+            System.out.println("> [" + name + "] " + e.getMessage());
+            this.shutdown();
+        }
+    }
+
+    /**
+     * Called when the connection of this client broke without an
+     * {@link Protocol#ABORT}. A client that is playing is treated as if it
+     * aborted, such that the game of its room can go on.
+     */
+    public void onConnectionLost() {
+        if (state == State.IN_GAME && room != null && room.isStarted()) {
+            this.handleLine(Protocol.ABORT);
+        } else {
             this.shutdown();
-            throw new ArrayIndexOutOfBoundsException("Client did not provide a command");
         }
-        return protocolCmd;
     }
 
     /**
@@ -410,30 +533,64 @@ public class ClientHandler implements Runnable {
      * sends a string over the socket.
      *
      * @param socketMsg command from client
+     * @param commandRoom the room on whose mailbox the command runs, or
+     * null if the client is not seated yet
      * @throws IOException if an IO errors occur.
      * @throws ArrayIndexOutOfBoundsException if client did not
      * provide a command.
      * @throws ProtocolException if received command is invalid.
      */
-    private void handleCommand(String socketMsg)
+    private void handleCommand(String socketMsg, Room commandRoom)
             throws IOException, ArrayIndexOutOfBoundsException, ProtocolException {
-        dummyCounter++;
-        String[] clientMsgSplitted = this.getArgSplit(socketMsg);
-        String protocolCmd = this.getProtocolCmd(clientMsgSplitted);
-
-        //First player to play a move in the game
-        if (dummyCounter == 1 && clientMsgSplitted[0].equals(Protocol.PLAYMOVE)) {
-            timerActivated = true;
+        if (commandRoom == null) {
+            try {
+                this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
+                        "You are waiting for other players.");
+            } catch (ClientUnavailableException e) {
+                throw new RuntimeException(e);
+            }
+            return;
         }
+        // Everything the command makes the room send leaves in one batch
+        commandRoom.beginBatch();
+        try {
+            line.parse(socketMsg);
+            this.processCommand();
+        } finally {
+            commandRoom.endBatch();
+        }
+    }
+
+    /**
+     * Executes the command of the last line, for a client seated in a room.
+     * Only the arguments that are kept or shown to players get copied.
+     */
+    private void processCommand() {
+        String protocolCmd = line.command();
 
-        if (protocolCmd.equals(Protocol.ABORT) && server.getClients().size() == 1) {
-            System.out.println("First player disconnected");
-            System.exit(-1);
+        if (protocolCmd.equals(Protocol.ABORT) && room.getClients().size() == 1) {
+            System.out.println("> Last player of room " + room.getId() + " disconnected");
+            this.shutdown();
+            room.close();
         }
         else if (protocolCmd.equals(Protocol.BROADCAST)) {
-                server.doChatBroadcast(clientMsgSplitted[1], this);
+                room.doChatBroadcast(line.argument(1), this);
+        }
+        else if (!room.isStarted()) {
+                try {
+                    this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
+                            "The game has not started yet.");
+                } catch (ClientUnavailableException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        else if (protocolCmd.equals(Protocol.PASS)) {
+                room.getNopeWindow().onPass(this);
+        }
+        else if (protocolCmd.equals(Protocol.ABORT)) {
+                this.leaveGame();
         }
-        else if ( (!server.isClientsTurn(this) && !awaitFavorResponse) && !timerActivated ) {
+        else if ( (!room.isClientsTurn(this) && !awaitFavorResponse) && !room.getNopeWindow().isOpen() ) {
                 try {
                     this.sendMessage(Protocol.PRIVATE + Protocol.DELIMITER +
                             "It is not your turn.");
@@ -444,37 +601,30 @@ public class ClientHandler implements Runnable {
         else {
                 switch (protocolCmd) {
                     case Protocol.PLAYMOVE -> {
-                        if (!timerActivated || dummyCounter == 1) {
-                            nopeCardsCounter = 0;
-                            resumeGameHasBeenCalled = 0;
-                            onCardPlayedStartNope(clientMsgSplitted);
+                        move.parse(line.line(), line.start(1), line.end(1));
+                        if (awaitFavorResponse) {
+                            this.giveFavor(move);
                         } else {
-                            if ( clientMsgSplitted[1].contains("nope") || clientMsgSplitted[1].contains("NOPE"))
-                                this.onNopeCardPlayed(clientMsgSplitted);
+                            room.getNopeWindow().onPlayMove(move, this);
                         }
-//                        this.normalFlowOfGame(clientMsgSplitted);
                     }
                     case Protocol.INSERTEXPLODE -> {
-                        server.doInsertExplode(Integer.parseInt(clientMsgSplitted[1]),
-                                this);
-                        server.resumeGame();
-                    }
-                    case Protocol.PRIVATE -> {
-                        server.doPrivate(clientMsgSplitted[1],
-                                server.getClients().indexOf(this));
-                        server.resumeGame();
-                    }
-                    case Protocol.ABORT -> {
-                        server.removePlayerFromGame(this);
-                        this.shutdown();
-                        if (server.getClients().size() == 1) {
-                            server.doBroadcast("Other client(s) disconnected. You won (by luck).");
-                            System.exit(-1);
-                        } else {
-                            server.doBroadcast(this.name + " just left! His/her cards were lost.");
+                        int index;
+                        try {
+                            index = Integer.parseInt(line.line(), line.start(1), line.end(1), 10);
+                        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                            // A missing or mistyped index gets an error, not a disconnection
+                            try {
+                                this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
+                                        Protocol.UNRECOGNIZED);
+                            } catch (ClientUnavailableException unavailable) {
+                                throw new RuntimeException(unavailable);
+                            }
+                            return;
                         }
-                        server.resumeGame();
+                        this.doInsertExplode(index);
                     }
+                    case Protocol.PRIVATE -> room.doPrivate(line.argument(1), seat);
                     default -> {
                         try {
                             this.sendMessage(Protocol.ERROR + Protocol.DELIMITER +
@@ -482,68 +632,106 @@ public class ClientHandler implements Runnable {
                         } catch (ClientUnavailableException e) {
                             throw new RuntimeException(e);
                         }
-                        server.resumeGame();
                     }
                 }
             }
         }
 
-    public void onNopeCardPlayed(String[] clientMsgSplitted) {
-        if (timerActivated) {
-            nopeCardsCounter++;
-            server.doBroadcast("A NOPE card was played! Counter: " + nopeCardsCounter);
-            onCardPlayedStartNope(clientMsgSplitted); // Restart the timer
+    /**
+     * Takes the player of this client out of the game, whether or not it is
+     * its turn. Since the other players keep their seat, nothing else has to
+     * be renumbered. The game only goes on to the next turn if the turn was
+     * the one of the leaving player.
+     */
+    private void leaveGame() {
+        boolean wasClientsTurn = room.isClientsTurn(this);
+        room.removePlayerFromGame(this);
+        room.getNopeWindow().onLeave(this);
+        room.removeClient(this);
+        this.shutdown();
+        if (room.getClients().size() == 1) {
+            room.doBroadcast("Other client(s) disconnected. You won (by luck).");
+            room.close();
+        } else {
+            room.doBroadcast(this.name + " just left! His/her cards were lost.");
+        }
+        if (wasClientsTurn) {
+            room.endMove();
         }
     }
 
-    public void onCardPlayedStartNope(String[] clientMsgSplitted) {
-        // Keeping the initial move. Assumes it was not a NOPE
-        if (!clientMsgSplitted[1].contains("nope")) {
-            initialSequence = clientMsgSplitted;
-        }
+    private void doInsertExplode(int index) {
+        room.doInsertExplode(index, this);
+        room.endMove();
+    }
 
-        if (timerActivated) {
-            if (nopeTimer != null) {
-                nopeTimer.cancel();
+    /* ************************************
+                      BOT
+    ************************************ */
+
+    /**
+     * Plays a move which the bot of this handler chose, like a
+     * {@link Protocol#PLAYMOVE}: the move opens a NOPE window, which the
+     * other players may answer.
+     * @param move != null, copied by the window
+     * @requires getBot() != null, called on the mailbox of the room
+     */
+    public void playMove(Move move) {
+        room.beginBatch();
+        try {
+            if (!room.getNopeWindow().isOpen() && !room.isPlayAllowed(move, this)) {
+                // A move the rules do not allow is not retried, as in the Simulator
+                move.setDraw();
             }
-            timerActivated = false;
+            room.getNopeWindow().onPlayMove(move, this);
+        } finally {
+            room.endBatch();
         }
+    }
 
-        nopeTimer = new Timer();
-        resumeGameHasBeenCalled += 1;
-
-        server.doBroadcast(this.name + " wanted to " + clientMsgSplitted[1]);
-        server.doBroadcast("Starting a 7 seconds timer in which you can type <play nope>...");
-        TimerTask nopeCountdown = new TimerTask() {
-
-            @Override
-            public void run() {
-                // Execute move
-                if (nopeCardsCounter % 2 == 0) {
-                    normalFlowOfGame(initialSequence);
-                    server.doBroadcast("Server executed the move.");
-                } else {
-                    server.doBroadcast("Server did not execute the move.");
-                    server.removeCardFromPlayerHand(Arrays.copyOfRange(
-                            initialSequence, 1, initialSequence.length));
-                    server.resumeGame();
-                }
-                timerActivated = false;
-            }
-        };
+    /**
+     * Gives the card which this client or its bot chose to the player who
+     * asked it a FAVOR. It opens no NOPE window: nobody can NOPE a card
+     * being handed over. A card the client does not hold is refused, and
+     * the FAVOR still waits for its answer.
+     * @param move the play of the card given, e.g. {@code play BEARD}
+     * @requires isAwaitFavorResponse(), called on the mailbox of the room
+     */
+    public void giveFavor(Move move) {
+        Card card = (move.size() == 1) ? move.card(0) : null;
+        if (card == null || !room.holdsCard(card, this)) {
+            room.doPrivate("Give a card of your hand. Type <play> <CARD's NAME>.", seat);
+            return;
+        }
+        room.beginBatch();
+        try {
+            this.awaitFavorResponse = false;
+            room.doFavorResponse(move, this);
+            room.endMove();
+        } finally {
+            room.endBatch();
+        }
+    }
 
-        timerActivated = true;
-        nopeTimer.schedule(nopeCountdown, 7000); // 7 seconds countdown
+    /**
+     * Puts back the EXPLODE which the bot of this handler defused, like a
+     * {@link Protocol#INSERTEXPLODE}.
+     * @requires getBot() != null, called on the mailbox of the room
+     */
+    public void insertExplode(int index) {
+        room.beginBatch();
+        try {
+            this.doInsertExplode(index);
+        } finally {
+            room.endBatch();
+        }
     }
 
-    public void normalFlowOfGame(String[] clientMsgSplitted) {
-        if (!awaitFavorResponse)
-            server.doPlayMove(Arrays.copyOfRange(
-                            clientMsgSplitted, 1, clientMsgSplitted.length),
-                    this);
-        else
-            server.doFavorResponse(clientMsgSplitted[1], this);
-        this.awaitFavorResponse = false;
-        server.resumeGame();
+    /**
+     * Executes a move of this client once its NOPE countdown ended.
+     * @param move the move, as received from the client.
+     */
+    public void normalFlowOfGame(Move move) {
+        room.doPlayMove(move, this);
     }
 }
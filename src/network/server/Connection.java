@@ -0,0 +1,67 @@
+package network.server;
+
+import java.io.IOException;
+
+/**
+ * Transport of the protocol lines exchanged with one client. A
+ * {@link ClientHandler} only knows its client through a connection, such that
+ * the same command handling works whether the server runs one thread per
+ * client ({@link SocketConnection}) or a few selector loops ({@link NioConnection}).
+ * <p>
+ * Writing never waits for the client: lines are queued and sent by the I/O
+ * layer. The queue is bounded, such that a client which stopped reading cannot
+ * make the server buffer its messages forever.
+ */
+public interface Connection {
+
+    /**
+     * Queues one protocol line for the client. The line separator is added
+     * by the connection. Lines written after {@link #abort(String)} are dropped.
+     * @param line != null
+     * @throws network.exceptions.SlowConsumerException if too many lines are
+     * already waiting to be sent.
+     * @throws IOException if the client is unreachable.
+     */
+    void writeLine(String line) throws IOException;
+
+    /**
+     * Closes the connection. Lines that were already handed over to
+     * {@link #writeLine(String)} are sent first, whenever possible.
+     * @throws IOException if the connection could not be closed.
+     */
+    void close() throws IOException;
+
+    /**
+     * Holds back the lines written from now on, until the matching
+     * {@link #endBatch()}. Batches may overlap, e.g. when two threads of a room
+     * both produce output; the lines leave once the last batch ended.
+     */
+    void beginBatch();
+
+    /**
+     * Ends a batch started by {@link #beginBatch()}. If no other batch is
+     * open, the lines held back are sent together.
+     */
+    void endBatch();
+
+    /**
+     * Drops the connection of a client that cannot keep up. The lines still
+     * waiting are discarded, the given line is sent if the client still takes
+     * it, and the handler is told that the connection was lost.
+     * @param lastLine != null, line explaining why the client is dropped
+     */
+    void abort(String lastLine);
+
+    /**
+     * Exchanges frames of the {@link network.Protocol.FrameCodec} instead of
+     * text lines from now on, in both directions. Lines written before are
+     * still sent as text.
+     */
+    void useFrames();
+
+    /**
+     * @return number of lines waiting to be sent, which tells how far the
+     * server is behind with this client.
+     */
+    int queuedLines();
+}
@@ -0,0 +1,211 @@
+package network.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single thread multiplexing many {@link NioConnection}s over one
+ * {@link Selector}. Reading, line framing and the handling of the received
+ * commands all happen on this thread. Other threads only interact with the
+ * loop by handing it tasks through {@link #execute(Runnable)}.
+ * <p>
+ * The loop is also the worker of the {@link Room}s pinned to it: a room runs
+ * all its tasks here, from its first to its last, such that its game is only
+ * ever touched by this thread.
+ */
+public class EventLoop implements Runnable, Executor {
+    /** Size of the buffer in which each readable channel is read. It is
+     * shared by all the connections of this loop. */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final String name;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    /** Rooms pinned to this loop, see {@link Room#getWorker()} */
+    private final AtomicInteger rooms = new AtomicInteger();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private Thread thread;
+    private volatile boolean isRunning = true;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * Opens the selector of a new event loop. The loop does nothing until
+     * {@link #start()} is called.
+     * @param name name of the thread of this loop
+     * @throws IOException if the selector could not be opened.
+     */
+    public EventLoop(String name) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+    }
+
+    /* ************************************
+               SETTERS AND GETTERS
+    ************************************ */
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Provides the number of connections currently registered to this loop.
+     * @return number of registered channels.
+     */
+    public int getConnectionCount() {
+        return selector.keys().size();
+    }
+
+    /** @return number of tasks waiting to be run by this loop */
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    /** @return number of rooms pinned to this loop */
+    public int getRoomCount() {
+        return rooms.get();
+    }
+
+    void onRoomOpened() {
+        rooms.incrementAndGet();
+    }
+
+    void onRoomClosed() {
+        rooms.decrementAndGet();
+    }
+
+    /**
+     * Checks if the calling thread is the thread of this loop.
+     * @return true if it is safe to touch the selector directly.
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    public void start() {
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    public void stop() {
+        isRunning = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Runs the given task on the thread of this loop, as soon as possible.
+     * @param task != null
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        queuedTasks.incrementAndGet();
+        selector.wakeup();
+    }
+
+    /**
+     * Registers a freshly accepted channel to this loop. From now on, every
+     * line received on the channel is handed to the connection's handler.
+     * @requires !channel.isBlocking()
+     * @param connection != null
+     */
+    public void register(NioConnection connection) {
+        this.execute(() -> {
+            try {
+                SelectionKey key = connection.getChannel()
+                        .register(selector, SelectionKey.OP_READ, connection);
+                connection.onRegistered(key);
+            } catch (IOException e) {
+                connection.onClosed();
+            }
+        });
+    }
+
+    /**
+     * Selects ready channels until the loop is stopped. Readable channels are
+     * read into the shared read buffer, writable channels get their pending
+     * output written.
+     */
+    @Override
+    public void run() {
+        while (isRunning) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.out.println("> [" + name + "] could not select: " + e.getMessage());
+                continue;
+            }
+            this.runTasks();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                NioConnection connection = (NioConnection) key.attachment();
+                try {
+                    if (key.isValid() && key.isReadable()) {
+                        connection.onReadable(readBuffer);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("> [" + name + "] dropped a connection: " + e.getMessage());
+                    connection.onClosed();
+                }
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the tasks queued so far. Tasks queued meanwhile wait for the next
+     * round, such that the channels are not starved by busy rooms.
+     */
+    private void runTasks() {
+        for (int count = queuedTasks.get(); count > 0; count--) {
+            Runnable task = tasks.poll();
+            queuedTasks.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("> [" + name + "] task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes a channel that was registered to this loop.
+     * @requires inEventLoop()
+     */
+    void closeChannel(SocketChannel channel, SelectionKey key) {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package network.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups the clients that requested a game into rooms. Every client tells
+ * which numbers of players it accepts, and a room is opened as soon as enough
+ * waiting clients accept the same number, the largest number first. No client
+ * has to choose the size of the game for the others.
+ * <p>
+ * Since a room is opened whenever one is possible, fewer than k of the
+ * waiting clients accept k players, for every k. The queue thus never holds
+ * more than a handful of clients, and scanning it costs next to nothing.
+ * <p>
+ * Once bots are enabled with a wait bound, a client that waited that long
+ * gets a room anyway, whose missing seats are taken by bots.
+ */
+public class Matchmaker {
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 5;
+
+    /** Numbers of players accepted by a client that did not tell, as a mask
+     * with bit k set for k players */
+    public static final int ANY_NUMBER_OF_PLAYERS = maskOf(MIN_PLAYERS, MAX_PLAYERS);
+
+    private final Server server;
+
+    /** Guards the queue and the opening of rooms. Not a monitor, such that
+     * virtual threads are not pinned. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Clients waiting for a game, oldest first */
+    private final List<Ticket> waiting = new ArrayList<>();
+
+    /** Milliseconds after which a waiting client is topped up with bots.
+     * Negative when bots are disabled. */
+    private long botWaitMillis = -1;
+
+    private int nextBotNo = 0;
+
+    /** A client waiting for a game, and the numbers of players it accepts */
+    private record Ticket(ClientHandler client, int numbersOfPlayers) {
+        private boolean accepts(int players) {
+            return (numbersOfPlayers & (1 << players)) != 0;
+        }
+    }
+
+    /**
+     * @param server the server which hosts the rooms
+     */
+    public Matchmaker(Server server) {
+        this.server = server;
+    }
+
+    /**
+     * @return a mask of the numbers of players from min to max, inclusive.
+     */
+    public static int maskOf(int min, int max) {
+        return (1 << (max + 1)) - (1 << min);
+    }
+
+    public void setBotWaitMillis(long botWaitMillis) {
+        this.botWaitMillis = botWaitMillis;
+    }
+
+    /** @return number of clients waiting for a game, e.g. for the stats of
+     * another thread, thus read under the lock as well */
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* ************************************
+                    QUEUE
+    ************************************ */
+
+    /**
+     * Puts a client that requested a game in the queue. If it completes a
+     * group, the room of that group starts right away.
+     * @param client != null, done with its handshake
+     * @param numbersOfPlayers mask of the accepted numbers of players, with
+     * bit k set for k players
+     * @return false if the client was refused since the server hosts as many
+     * rooms as it may.
+     */
+    public boolean enqueue(ClientHandler client, int numbersOfPlayers) {
+        lock.lock();
+        try {
+            if (server.getRooms().size() >= server.getAdmission().getMaxRooms()) {
+                return false;
+            }
+            Ticket ticket = new Ticket(client, numbersOfPlayers & ANY_NUMBER_OF_PLAYERS);
+            if (ticket.numbersOfPlayers() == 0) {
+                ticket = new Ticket(client, ANY_NUMBER_OF_PLAYERS);
+            }
+            waiting.add(ticket);
+            if (!this.matchNewest(ticket) && botWaitMillis >= 0) {
+                Ticket waitingTicket = ticket;
+                server.getTimers().schedule(() -> this.topUpWithBots(waitingTicket), botWaitMillis);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a client out of the queue, e.g. because it left.
+     * @param client != null
+     */
+    public void remove(ClientHandler client) {
+        lock.lock();
+        try {
+            waiting.removeIf(ticket -> ticket.client() == client);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a room if the newest client completes a group. Only the numbers
+     * of players it accepts can have become possible.
+     * @return true if the client got a room.
+     */
+    private boolean matchNewest(Ticket newest) {
+        for (int players = MAX_PLAYERS; players >= MIN_PLAYERS; players--) {
+            if (newest.accepts(players)) {
+                List<Ticket> group = this.oldestAccepting(players);
+                if (group.size() == players) {
+                    this.startRoom(group, players);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens a room for a client that waited too long, with as few bots as
+     * possible, and the smaller game when that makes no difference.
+     */
+    private void topUpWithBots(Ticket ticket) {
+        lock.lock();
+        try {
+            if (!waiting.contains(ticket)) {
+                return;
+            }
+            List<Ticket> bestGroup = null;
+            int bestPlayers = 0;
+            for (int players = MIN_PLAYERS; players <= MAX_PLAYERS; players++) {
+                if (ticket.accepts(players)) {
+                    List<Ticket> group = this.oldestAccepting(players);
+                    if (bestGroup == null || players - group.size() < bestPlayers - bestGroup.size()) {
+                        bestGroup = group;
+                        bestPlayers = players;
+                    }
+                }
+            }
+            this.startRoom(bestGroup, bestPlayers);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the oldest waiting clients that accept the number of players,
+     * at most that many.
+     */
+    private List<Ticket> oldestAccepting(int players) {
+        List<Ticket> group = new ArrayList<>(players);
+        for (Ticket ticket : waiting) {
+            if (ticket.accepts(players)) {
+                group.add(ticket);
+                if (group.size() == players) {
+                    break;
+                }
+            }
+        }
+        return group;
+    }
+
+    /* ************************************
+                    ROOMS
+    ************************************ */
+
+    /**
+     * Seats a group, and bots on the seats left, in a new room and starts its
+     * game. If no room may be opened anymore, the group is refused instead.
+     */
+    private void startRoom(List<Ticket> group, int players) {
+        waiting.removeAll(group);
+        Room room = server.openRoom(players);
+        if (room == null) {
+            for (Ticket ticket : group) {
+                ticket.client().refuse();
+            }
+            return;
+        }
+        // Seated on the worker of the room, which alone touches its seats
+        for (Ticket ticket : group) {
+            ClientHandler client = ticket.client();
+            room.post(() -> room.addClient(client));
+        }
+        for (int seat = group.size(); seat < players; seat++) {
+            ClientHandler bot = this.newBot();
+            room.post(() -> room.addClient(bot));
+        }
+        server.showMessage("Room " + room.getId() + " matched " + group.size()
+                + " client(s) and " + (players - group.size()) + " bot(s) on "
+                + room.getWorker().getName() + ".");
+        server.startRoom(room);
+    }
+
+    private ClientHandler newBot() {
+        String name;
+        do {
+            name = botNameOf(nextBotNo++);
+        } while (!server.reserveName(name));
+        BotConnection connection = new BotConnection(server);
+        ClientHandler bot = new ClientHandler(connection, server, name);
+        connection.setHandler(bot);
+        server.addClient(bot);
+        return bot;
+    }
+
+    /**
+     * Builds a unique name made of letters only, as the protocol requires.
+     */
+    private static String botNameOf(int index) {
+        StringBuilder name = new StringBuilder("bot");
+        int rest = index;
+        do {
+            name.append((char) ('a' + rest % 26));
+            rest /= 26;
+        } while (rest > 0);
+        return name.toString();
+    }
+}
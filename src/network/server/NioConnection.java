@@ -0,0 +1,364 @@
+package network.server;
+
+import network.Protocol.FrameCodec;
+import network.exceptions.SlowConsumerException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking {@link Connection} driven by an {@link EventLoop}. Incoming bytes
+ * are framed into lines (which still contain the {@link network.Protocol.Protocol#DELIMITER}
+ * separated arguments) and handed to the {@link ClientHandler} on the loop's
+ * thread. Outgoing lines are queued and written by the loop whenever the
+ * channel is writable, so that writing never blocks the caller. At most
+ * {@code maxQueuedLines} lines may wait; a client that lets more pile up is dropped.
+ * Queued lines leave with one gathering write, once no batch is open.
+ * <p>
+ * After {@link #useFrames()}, the bytes are framed by their length prefix
+ * instead, see {@link FrameCodec}.
+ */
+public class NioConnection implements Connection {
+    /** Longest line accepted from a client. Longer lines close the connection. */
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /** Most lines handed to the socket by one gathering write */
+    private static final int MAX_LINES_PER_WRITE = 64;
+
+    private final SocketChannel channel;
+    /** Loop serving this connection. It changes when the client gets
+     * seated, see {@link #moveTo(EventLoop)}. */
+    private volatile EventLoop loop;
+    private final ServerStats stats;
+    private SelectionKey key;
+    private ClientHandler handler;
+
+    /** Bytes of the line (or frame) that is currently being received */
+    private byte[] lineBuffer = new byte[256];
+    private int lineLength = 0;
+    private volatile boolean isBinary = false;
+
+    /** Lines waiting to be written, already encoded */
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedLines = new AtomicInteger();
+    private final int maxQueuedLines;
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean(false);
+    private final ByteBuffer[] writeBatch = new ByteBuffer[MAX_LINES_PER_WRITE];
+
+    /** Number of batches currently open */
+    private final AtomicInteger batchDepth = new AtomicInteger();
+    private volatile boolean isClosing = false;
+    private volatile boolean isAborted = false;
+    private boolean isClosed = false;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * @param channel non-blocking channel of an accepted client
+     * @param loop event loop the channel is going to be registered to
+     * @param server server which provides the settings and statistics
+     */
+    public NioConnection(SocketChannel channel, EventLoop loop, Server server) {
+        this.channel = channel;
+        this.loop = loop;
+        this.maxQueuedLines = server.getMaxQueuedLines();
+        this.stats = server.getStats();
+    }
+
+    /* ************************************
+               SETTERS AND GETTERS
+    ************************************ */
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public EventLoop getLoop() {
+        return loop;
+    }
+
+    /**
+     * Called by the loop once the channel is registered to its selector.
+     * Lines written before that moment are sent now.
+     * @requires loop.inEventLoop()
+     */
+    void onRegistered(SelectionKey key) {
+        this.key = key;
+        this.flush();
+    }
+
+    public void setHandler(ClientHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Hands this connection over to another loop, e.g. the worker of the
+     * room its client got seated in, such that its lines are read on the
+     * thread that plays its game. The channel leaves the selector of the
+     * current loop before it joins the other one; lines written meanwhile
+     * are queued, and sent once it joined.
+     * @param target != null
+     */
+    public void moveTo(EventLoop target) {
+        EventLoop source = loop;
+        if (source == target) {
+            return;
+        }
+        source.execute(() -> {
+            if (isClosed) {
+                return;
+            }
+            if (key != null) {
+                key.cancel();
+                key = null;
+            }
+            loop = target;
+            target.register(this);
+        });
+    }
+
+    /* ************************************
+                    NETWORK
+    ************************************ */
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        if (isAborted) {
+            return;
+        }
+        if (isClosing) {
+            throw new IOException("Connection is closed.");
+        }
+        if (queuedLines.get() >= maxQueuedLines) {
+            throw new SlowConsumerException(queuedLines.get() + " lines are waiting to be sent.");
+        }
+        queuedLines.incrementAndGet();
+        outbound.add(ByteBuffer.wrap(FrameCodec.encode(line, isBinary)));
+        if (batchDepth.get() == 0) {
+            this.scheduleFlush();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        batchDepth.incrementAndGet();
+    }
+
+    @Override
+    public void endBatch() {
+        if (batchDepth.updateAndGet(depth -> Math.max(0, depth - 1)) == 0) {
+            this.scheduleFlush();
+        }
+    }
+
+    @Override
+    public void useFrames() {
+        isBinary = true;
+    }
+
+    @Override
+    public int queuedLines() {
+        return queuedLines.get();
+    }
+
+    @Override
+    public void close() {
+        isClosing = true;
+        this.scheduleFlush();
+    }
+
+    @Override
+    public void abort(String lastLine) {
+        isAborted = true;
+        loop.execute(() -> {
+            ByteBuffer head = outbound.peek();
+            boolean isLineCut = head != null && head.position() > 0;
+            outbound.clear();
+            queuedLines.set(0);
+            if (!isClosed) {
+                try {
+                    // One attempt only: the client is not reading anyway. A cut
+                    // text line is ended first; a cut frame cannot be repaired.
+                    String line = isLineCut && !isBinary ? System.lineSeparator() + lastLine : lastLine;
+                    channel.write(ByteBuffer.wrap(FrameCodec.encode(line, isBinary)));
+                } catch (IOException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            this.onClosed();
+        });
+    }
+
+    private void scheduleFlush() {
+        if (loop.inEventLoop()) {
+            this.flush();
+        } else if (isFlushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes as many queued lines as the socket accepts without blocking. If
+     * some remain, the loop is asked to call {@link #onWritable()} later on.
+     * @requires loop.inEventLoop()
+     */
+    private void flush() {
+        isFlushScheduled.set(false);
+        if (isClosed || key == null) {
+            return;
+        }
+        try {
+            int count;
+            while ((count = this.fillWriteBatch()) > 0) {
+                stats.countBytesSent(channel.write(writeBatch, 0, count));
+                stats.countSocketWrite();
+                int linesSent = 0;
+                while (linesSent < count && !writeBatch[linesSent].hasRemaining()) {
+                    outbound.poll();
+                    linesSent++;
+                }
+                queuedLines.addAndGet(-linesSent);
+                stats.countLinesSent(linesSent);
+                Arrays.fill(writeBatch, 0, count, null);
+                if (linesSent < count) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (isClosing) {
+                this.onClosed();
+            }
+        } catch (IOException e) {
+            this.onClosed();
+        }
+    }
+
+    /**
+     * Puts the first queued lines in {@link #writeBatch}.
+     * @return the number of lines put.
+     */
+    private int fillWriteBatch() {
+        int count = 0;
+        for (ByteBuffer line : outbound) {
+            writeBatch[count++] = line;
+            if (count == MAX_LINES_PER_WRITE) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Called by the loop when the channel accepts more output.
+     * @requires loop.inEventLoop()
+     */
+    void onWritable() {
+        this.flush();
+    }
+
+    /**
+     * Called by the loop when the channel has input. Every complete line is
+     * handed to the handler, the rest is kept until its end arrives.
+     * @requires loop.inEventLoop()
+     * @param readBuffer buffer shared by all the connections of the loop
+     * @throws IOException if the channel could not be read.
+     */
+    void onReadable(ByteBuffer readBuffer) throws IOException {
+        readBuffer.clear();
+        int bytesRead = channel.read(readBuffer);
+        if (bytesRead < 0) {
+            this.onClosed();
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !isClosed) {
+            if (isBinary) {
+                this.readFrameBytes(readBuffer);
+                continue;
+            }
+            byte nextByte = readBuffer.get();
+            if (nextByte == LINE_FEED) {
+                int length = lineLength;
+                if (length > 0 && lineBuffer[length - 1] == CARRIAGE_RETURN) {
+                    length--;
+                }
+                String line = new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+                lineLength = 0;
+                handler.handleLine(line);
+            } else {
+                if (lineLength == MAX_LINE_LENGTH) {
+                    throw new IOException("Line too long.");
+                }
+                if (lineLength == lineBuffer.length) {
+                    lineBuffer = Arrays.copyOf(lineBuffer,
+                            Math.min(lineBuffer.length * 2, MAX_LINE_LENGTH));
+                }
+                lineBuffer[lineLength++] = nextByte;
+            }
+        }
+    }
+
+    /**
+     * Takes the bytes of the current frame out of the read buffer, and hands
+     * the frame to the handler once it is complete.
+     * @requires isBinary
+     */
+    private void readFrameBytes(ByteBuffer readBuffer) throws IOException {
+        int wanted = lineLength < FrameCodec.HEADER_LENGTH
+                ? FrameCodec.HEADER_LENGTH
+                : FrameCodec.HEADER_LENGTH + FrameCodec.bodyLength(lineBuffer, 0);
+        if (wanted > MAX_LINE_LENGTH) {
+            throw new IOException("Frame too long.");
+        }
+        if (wanted == lineLength) {
+            throw new IOException("Empty frame.");
+        }
+        if (wanted > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, wanted);
+        }
+        int count = Math.min(wanted - lineLength, readBuffer.remaining());
+        readBuffer.get(lineBuffer, lineLength, count);
+        lineLength += count;
+        if (lineLength == wanted && wanted > FrameCodec.HEADER_LENGTH) {
+            String line;
+            try {
+                line = FrameCodec.decode(lineBuffer, FrameCodec.HEADER_LENGTH, wanted - FrameCodec.HEADER_LENGTH);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage());
+            }
+            lineLength = 0;
+            handler.handleLine(line);
+        }
+    }
+
+    /**
+     * Releases the channel and tells the handler that its client is gone,
+     * unless the handler itself asked for the connection to be closed.
+     * @requires loop.inEventLoop()
+     */
+    void onClosed() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        outbound.clear();
+        loop.closeChannel(channel, key);
+        if (!isClosing && handler != null) {
+            isClosing = true;
+            handler.onConnectionLost();
+        }
+    }
+}
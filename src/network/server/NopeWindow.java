@@ -0,0 +1,236 @@
+package network.server;
+
+import network.Protocol.Protocol;
+import network.model.Card;
+import network.model.Move;
+import network.util.TimerWheel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The NOPE window of a {@link Room}: the time during which the opponents of the
+ * player who made a move can answer it with a NOPE, or {@link Protocol#PASS} on it.
+ * <p>
+ * The window is CLOSED until a move is played. It then stays OPEN until every
+ * player that may still respond did so, or until the countdown ran out. Each NOPE
+ * starts a new round in which everybody but the player who played it may respond,
+ * provided they still hold a NOPE. If nobody does, the round ends at once.
+ * A chain of NOPEs is thus resolved by its length only: the move is executed
+ * if it was NOPE'd an even number of times.
+ * <p>
+ * All transitions, including the execution of the move, run on the mailbox
+ * of the room, see {@link Room#post(Runnable)}, thus one at a time and
+ * without a lock. The end of a countdown is posted there as well.
+ */
+public class NopeWindow {
+    /** Time the players have to answer a move, in milliseconds */
+    public static final long RESPONSE_TIME_MILLIS = 7000;
+
+    public enum State {
+        CLOSED, OPEN
+    }
+
+    private final Room room;
+    private State state = State.CLOSED;
+
+    /** The move waiting to be executed, as received from its player. Copied,
+     * since the player's handler reuses its own move for the next line. */
+    private final Move move = new Move();
+    private ClientHandler mover;
+
+    /** Players who NOPE'd the move, in order */
+    private final List<ClientHandler> nopes = new ArrayList<>();
+
+    /** Players who did not respond to the current round yet */
+    private final Set<ClientHandler> awaited = new HashSet<>();
+
+    private TimerWheel.Timeout countdown;
+
+    /** Number of the current round, such that a late countdown of a
+     * previous round is ignored */
+    private int round = 0;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    public NopeWindow(Room room) {
+        this.room = room;
+    }
+
+    /* ************************************
+               SETTERS AND GETTERS
+    ************************************ */
+
+    public boolean isOpen() {
+        return state == State.OPEN;
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    /**
+     * Handles a move sent by a player. If no window is open, the move opens
+     * one, provided the game allows it. Otherwise, only a NOPE on the waiting
+     * move is accepted. The answer to a FAVOR does not come here: a card
+     * handed over cannot be NOPE'd, see {@link ClientHandler#giveFavor(Move)}.
+     * @param played the move, as received from the client
+     * @param handler player who sent it
+     */
+    public void onPlayMove(Move played, ClientHandler handler) {
+        if (state == State.CLOSED) {
+            this.open(played, handler);
+        } else if (played.card(0) == Card.NOPE) {
+            this.onNope(handler);
+        } else {
+            room.doPrivate("Wait until the NOPE window of the previous move is closed.",
+                    handler.getSeat());
+        }
+    }
+
+    /**
+     * Handles a {@link Protocol#PASS}: the player lets the waiting move (or
+     * the last NOPE on it) through.
+     * @param handler player who passed
+     */
+    public void onPass(ClientHandler handler) {
+        if (state != State.OPEN) {
+            room.doPrivate("There is nothing you can pass on.",
+                    handler.getSeat());
+        } else if (awaited.remove(handler)) {
+            this.resolveIfNobodyIsAwaited();
+        }
+    }
+
+    /**
+     * Forgets a player who left the game. If he made the waiting move, the
+     * move is dropped; otherwise the window no longer waits for him.
+     * @param handler player who left
+     */
+    public void onLeave(ClientHandler handler) {
+        if (state != State.OPEN) {
+            return;
+        }
+        if (handler == mover) {
+            this.close();
+        } else if (awaited.remove(handler)) {
+            this.resolveIfNobodyIsAwaited();
+        }
+    }
+
+    /**
+     * Closes the window without executing the waiting move.
+     */
+    public void close() {
+        if (countdown != null) {
+            countdown.cancel();
+        }
+        awaited.clear();
+        state = State.CLOSED;
+    }
+
+    /* ************************************
+                  TRANSITIONS
+    ************************************ */
+
+    private void open(Move played, ClientHandler handler) {
+        if (!room.isPlayAllowed(played, handler)) {
+            return; // The game told the player why, and nobody has to answer
+        }
+        move.copyFrom(played);
+        mover = handler;
+        nopes.clear();
+        state = State.OPEN;
+        room.doBroadcast(handler.getName() + " wanted to " + move);
+        if (move.isDraw()) {
+            this.resolve(); // Drawing a card cannot be NOPE'd
+            return;
+        }
+        this.startRound(handler);
+    }
+
+    private void onNope(ClientHandler handler) {
+        int seat = handler.getSeat();
+        if (!room.holdsNope(handler)) {
+            room.doPrivate("You don't have a NOPE card in your hand.", seat);
+            return;
+        }
+        if (!awaited.contains(handler)) {
+            room.doPrivate("You cannot NOPE this move.", seat);
+            return;
+        }
+        room.discardNope(handler);
+        nopes.add(handler);
+        room.doBroadcast("A NOPE card was played! Counter: " + nopes.size());
+        this.startRound(handler);
+    }
+
+    /**
+     * Lets everybody but the given player respond, during a fresh countdown.
+     * Only the clients holding a NOPE are awaited, since bots never NOPE:
+     * a round in which nobody can NOPE is over before it started.
+     * @param lastPlayer player who made the move or the last NOPE
+     */
+    private void startRound(ClientHandler lastPlayer) {
+        round++;
+        if (countdown != null) {
+            countdown.cancel();
+        }
+        awaited.clear();
+        for (ClientHandler client : room.getClients()) {
+            if (client != lastPlayer && client.getBot() == null && room.holdsNope(client)) {
+                awaited.add(client);
+            }
+        }
+        if (this.resolveIfNobodyIsAwaited()) {
+            return;
+        }
+        room.doBroadcast("Starting a " + RESPONSE_TIME_MILLIS / 1000 + " seconds timer in which "
+                + "you can type <play nope>, or <pass> to let it through...");
+        int countdownRound = round;
+        countdown = room.getServer().getTimers().schedule(
+                () -> room.post(() -> this.onCountdownEnded(countdownRound)), RESPONSE_TIME_MILLIS);
+    }
+
+    private void onCountdownEnded(int countdownRound) {
+        room.beginBatch();
+        try {
+            if (state == State.OPEN && round == countdownRound) {
+                this.resolve();
+            }
+        } finally {
+            room.endBatch();
+        }
+    }
+
+    private boolean resolveIfNobodyIsAwaited() {
+        if (awaited.isEmpty()) {
+            this.resolve();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Executes the waiting move, or discards it if it was NOPE'd an odd
+     * number of times, and closes the window.
+     */
+    private void resolve() {
+        if (countdown != null) {
+            countdown.cancel();
+        }
+        state = State.CLOSED;
+        if (nopes.size() % 2 == 0) {
+            mover.normalFlowOfGame(move);
+            room.doBroadcast("Server executed the move.");
+        } else {
+            room.doBroadcast("Server did not execute the move.");
+            room.removeCardFromPlayerHand(move);
+        }
+        room.endMove();
+    }
+}
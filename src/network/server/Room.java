@@ -0,0 +1,530 @@
+package network.server;
+
+import network.Protocol.Protocol;
+import network.controller.GameController;
+import network.exceptions.ClientUnavailableException;
+import network.model.Card;
+import network.model.Game;
+import network.model.Move;
+import network.simulator.IsmctsSearch;
+import network.util.Mailbox;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A single table hosted by the {@link Server}. A room is opened by the
+ * {@link Matchmaker} for a group of {@link ClientHandler}s that accept the same
+ * number of players. Then it runs its own {@link GameController} (and thus its
+ * own {@link network.model.Game}), independently of every other room of the
+ * same server.
+ * <p>
+ * The room has no thread of its own. Everything that drives its game, i.e.
+ * the commands of its clients, the end of a NOPE countdown and the departure
+ * of a client, is posted to its {@link Mailbox} and handled in that order, one
+ * at a time. The mailbox runs on one worker, an {@link EventLoop} of the
+ * server, from the opening of the room to its closing. The game, the seats
+ * and the NOPE window are thus only touched by that thread and take no lock.
+ */
+public class Room {
+    /** Identifier of this room, unique within the server. */
+    private final int id;
+
+    /** Server that hosts this room. */
+    private final Server server;
+
+    /** Seed of the random generator of the game, which decides the deck,
+     * the first player and every other draw of luck */
+    private final long seed;
+
+    /** ClientHandlers seated in this room, in joining order */
+    private final List<ClientHandler> clients = new CopyOnWriteArrayList<>();
+
+    /** Number of clients to play. Decided by the matchmaker. */
+    private final int numberOfPlayersToPlay;
+
+    /** ClientHandlers by their seat, which is also the seat of their player
+     * in the game. A seat is never reused, and is emptied when its client
+     * leaves, such that the other seats stay valid. */
+    private ClientHandler[] seats;
+
+    /** Seat of the next client, never given twice: a client who leaves
+     * before the game starts does not hand its seat number on */
+    private int nextSeat = 0;
+
+    /** Communication which links game logic to Client */
+    private GameController controller = null;
+
+    private volatile boolean isStarted = false;
+    private volatile boolean isClosed = false;
+
+    /** Window in which the last move can be NOPE'd */
+    private final NopeWindow nopeWindow = new NopeWindow(this);
+
+    /** Thread on which every task of this room runs */
+    private final EventLoop worker;
+
+    /** Tasks of this room, run one at a time */
+    private final Mailbox mailbox;
+
+    /** Search by which the bots of this room choose their moves, or null
+     * if they play the plain {@link network.model.ComputerPlayer} moves */
+    private volatile IsmctsSearch botSearch = null;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * @param numberOfPlayersToPlay number of seats, at least 2
+     * @param worker loop to which the room is pinned for its whole life
+     */
+    public Room(int id, Server server, long seed, int numberOfPlayersToPlay, EventLoop worker) {
+        this.id = id;
+        this.server = server;
+        this.seed = seed;
+        this.numberOfPlayersToPlay = numberOfPlayersToPlay;
+        this.seats = new ClientHandler[numberOfPlayersToPlay];
+        this.worker = worker;
+        this.mailbox = new Mailbox("room " + id, worker);
+    }
+
+    /* ************************************
+              GETTER'S & SETTER'S
+    ************************************ */
+
+    public int getId() {
+        return id;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public NopeWindow getNopeWindow() {
+        return nopeWindow;
+    }
+
+    /**
+     * Provides the list of clients seated in this room.
+     * @ensures this.clients != null
+     * @return this.clients
+     */
+    public List<ClientHandler> getClients() {
+        return this.clients;
+    }
+
+    public int getNumberOfPlayersToPlay() {
+        return numberOfPlayersToPlay;
+    }
+
+    public boolean isFull() {
+        return clients.size() >= numberOfPlayersToPlay;
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    public EventLoop getWorker() {
+        return worker;
+    }
+
+    /** @return the game of this room, or null until it started */
+    public Game getGame() {
+        return (controller != null) ? controller.getGame() : null;
+    }
+
+    public IsmctsSearch getBotSearch() {
+        return botSearch;
+    }
+
+    /**
+     * Sets how the bots of this room choose their moves: a search with a
+     * longer budget or more threads plays stronger but answers later.
+     * @param botSearch the search, or null for the plain moves
+     * @requires botSearch == null || botSearch.getExecutor() != null, such
+     * that the searches run off the event loops
+     */
+    public void setBotSearch(IsmctsSearch botSearch) {
+        this.botSearch = botSearch;
+    }
+
+    /** @return number of tasks waiting in the mailbox of this room */
+    public int getQueuedTasks() {
+        return mailbox.size();
+    }
+
+    /* ************************************
+                    LOBBY
+    ************************************ */
+
+    /**
+     * Seats a client in this room, on a seat never used before, and moves its
+     * connection to the worker of this room. A client which disconnected
+     * since it was matched is not seated, and its seat stays empty.
+     * @requires client != null && !isFull() && getWorker().inEventLoop()
+     * @ensures client.getSeat() is the seat of its player for the whole game
+     */
+    public void addClient(ClientHandler client) {
+        client.setSeat(nextSeat++);
+        // The room is set before the check, such that a client shutting down
+        // meanwhile either sees its room and leaves it, or is seen here
+        client.setRoom(this);
+        if (client.isShuttingDown()) {
+            return;
+        }
+        client.moveTo(worker);
+        if (client.getSeat() >= seats.length) {
+            seats = Arrays.copyOf(seats, 2 * seats.length);
+        }
+        seats[client.getSeat()] = client;
+        clients.add(client);
+    }
+
+    /**
+     * Removes a clientHandler from this room. Its seat stays empty.
+     * @requires client != null && getWorker().inEventLoop()
+     */
+    public void removeClient(ClientHandler client) {
+        if (this.clients.remove(client)) {
+            seats[client.getSeat()] = null;
+        }
+    }
+
+    /**
+     * @return the client on the seat, or null if it left.
+     */
+    private ClientHandler clientAt(int seat) {
+        return (seat >= 0 && seat < seats.length) ? seats[seat] : null;
+    }
+
+    /**
+     * Hands a task to the mailbox of this room, to be run after every task
+     * posted before it. Anything touching the game goes through here.
+     * @param task != null
+     */
+    public void post(Runnable task) {
+        mailbox.execute(task);
+    }
+
+    /**
+     * Runs the task at once if the calling thread is the worker of this
+     * room, since nothing else can touch the room meanwhile, and posts it
+     * otherwise.
+     * @param task != null
+     */
+    public void runOrPost(Runnable task) {
+        if (worker.inEventLoop()) {
+            task.run();
+        } else {
+            this.post(task);
+        }
+    }
+
+    /**
+     * Deals the cards and tells the first player to move. From then on, the
+     * game advances with every command posted to this room.
+     */
+    public void startGame() {
+        // Clients that left between their match and the start lose their seat
+        int humans = 0;
+        for (ClientHandler client : clients) {
+            if (client.isShuttingDown()) {
+                this.removeClient(client);
+            } else if (client.getBot() == null) {
+                humans++;
+            }
+        }
+        if (humans == 0) {
+            this.close();
+            return;
+        } else if (clients.size() < Matchmaker.MIN_PLAYERS) {
+            // Too few to play: the clients wait for another game instead
+            for (ClientHandler client : clients) {
+                if (client.getBot() == null) {
+                    this.removeClient(client);
+                    client.requeue();
+                }
+            }
+            this.close();
+            return;
+        }
+        this.doBroadcast("Game has reached " + numberOfPlayersToPlay +
+                " players. Game is starting now.");
+        server.showMessage("Room " + id + " has reached " + numberOfPlayersToPlay +
+                " players. Game is starting now.");
+        controller = (new GameController(clients, this));
+        isStarted = true;
+        controller.startGame();
+    }
+
+    /**
+     * Ends the game of this room. Every client that is still seated is
+     * disconnected and the room is removed from the server, while the
+     * other rooms keep on playing.
+     * @requires getWorker().inEventLoop()
+     */
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        nopeWindow.close();
+        for (ClientHandler client : clients) {
+            client.shutdown();
+        }
+        server.removeRoom(this);
+        server.showMessage("Room " + id + " closed. Server " + server.getStats());
+        server.showMessage("Rooms by event loop: " + server.describeEventLoops());
+    }
+
+    /* ************************************
+                    NETWORK
+    ************************************ */
+
+    /**
+     * Holds back the messages to the clients of this room until
+     * {@link #endBatch()}, such that the messages of one command or one turn
+     * leave together.
+     */
+    public void beginBatch() {
+        for (ClientHandler client : clients) {
+            client.beginBatch();
+        }
+    }
+
+    public void endBatch() {
+        for (ClientHandler client : clients) {
+            client.endBatch();
+        }
+    }
+
+    public void removePlayerFromGame(ClientHandler handler) {
+        controller.removePlayerFromGame(handler.getSeat());
+    }
+
+    /**
+     * Allows method to accept any number of card arguments. Useful
+     * because the logic does not differ that much. It is just that
+     * one can play:
+     * <p> 1 card - EX: {@link Protocol.cardType#FUTURE} </p>
+     * <p> 2 cards - EX: {@link Protocol.cardType#POTATO}</p>
+     * <p> combinations - EX: {@link Protocol.cardType#ATTACK}
+     *      *      && a player's name </p>
+     * @param move != null
+     */
+    public void doPlayMove(Move move, ClientHandler handler) {
+        // Translation between clientHandler and Player is done with their seat
+        controller.doPlayMove(move, handler.getSeat());
+    }
+
+    /**
+     * Checks a move with the game before the others may NOPE it. If it breaks
+     * the rules, the player is told why.
+     * @return whether the game would apply the move
+     */
+    public boolean isPlayAllowed(Move move, ClientHandler handler) {
+        return controller.isPlayAllowed(move, handler.getSeat());
+    }
+
+    public void doInsertExplode(int cardIndex, ClientHandler clientHandler) {
+        controller.doInsertExplode(cardIndex, clientHandler.getSeat());
+    }
+
+    /**
+     * Sends a broadcast to all players of this room.
+     * @param message
+     */
+    public void doBroadcast(String message) {
+        for (ClientHandler client : clients) {
+            this.send(client, Protocol.BROADCAST + Protocol.DELIMITER + message);
+        }
+    }
+
+    /**
+     * Sends a broadcast to all players, except for the one who sent
+     * the command to the server, just like in a chat environment.
+     * @param message
+     * @param clientHandler
+     */
+    public void doChatBroadcast(String message, ClientHandler clientHandler) {
+        for (ClientHandler client : clients) {
+            if (! client.equals(clientHandler)) {
+                this.send(client, Protocol.BROADCAST + Protocol.DELIMITER
+                        + "[" + clientHandler.getName() + "]: " + message);
+            }
+        }
+    }
+
+    /**
+     * Sends a broadcast to all players, except for the one who sent
+     * the command to the server, just like in a chat environment.
+     * @param message
+     * @param seat seat of the player the message is about
+     */
+    public void doChatBroadcast(String message, int seat) {
+        ClientHandler sender = this.clientAt(seat);
+        if (sender == null) {
+            return;
+        }
+        for (ClientHandler client : clients) {
+            if (client.getSeat() != seat) {
+                this.send(client, Protocol.BROADCAST + Protocol.DELIMITER
+                        + "[" + sender.getName() + "]: " + message);
+            }
+        }
+    }
+
+    /** Change from player to clientHandler happens via the seat, which is
+     * the same for both, see {@link network.model.Player#getSeat()}.
+     * Nothing is sent if the client of the seat left. */
+    public void doPrivate(String msg, int seat) {
+        ClientHandler client = this.clientAt(seat);
+        if (client == null) {
+            return;
+        }
+        this.send(client, Protocol.PRIVATE + Protocol.DELIMITER + msg);
+    }
+
+    /**
+     * Sends a line to one client. A client which cannot be reached is
+     * dropped, and the others still get their lines: a broadcast or the
+     * task which sends it does not stop at a dead client.
+     */
+    private void send(ClientHandler client, String line) {
+        try {
+            client.sendMessage(line);
+        } catch (ClientUnavailableException e) {
+            System.out.println("> [" + client.getName() + "] " + e.getMessage());
+            client.shutdown();
+        }
+    }
+
+    public void doKick(String msg, int seat) {
+        ClientHandler client = this.clientAt(seat);
+        this.doPrivate(msg, seat);
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Ends the move that was just handled: the turn goes on, or passes to
+     * the next player, and the players are told so.
+     */
+    public void endMove() {
+        if (controller != null) {
+            controller.endMove();
+        }
+    }
+
+    public void revealTopThreeCardsToPlayer(
+            String lastCardName,
+            String secondToLastCardName,
+            String thirdToLastCardName,
+            int seatToReplyTo
+    ) {
+        ClientHandler client = this.clientAt(seatToReplyTo);
+        if (client == null) {
+            return;
+        }
+        String msgToSend =
+                Protocol.SEETHEFUTURE + Protocol.DELIMITER +
+                        lastCardName + Protocol.DELIMITER +
+                        secondToLastCardName + Protocol.DELIMITER +
+                        thirdToLastCardName;
+        this.send(client, msgToSend);
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    public void askPlayerForCard(
+            int targetSeat,
+            String requestingPlayerName
+    ) {
+        ClientHandler target = this.clientAt(targetSeat);
+        if (target == null) {
+            return;
+        }
+        this.doPrivate(requestingPlayerName + " has played a FAVOR to you." +
+                " Type <play> <CARD's NAME>, just like a normal move.", targetSeat);
+        target.setAwaitFavorResponse(true);
+        if (target.getBot() != null) {
+            target.getBot().onFavorAsked();
+        }
+    }
+
+    /**
+     * Lets the bot on the seat, if any, play: its turn started or goes on.
+     * Clients are told so by message instead.
+     */
+    public void promptTurn(int seat) {
+        BotConnection bot = this.botAt(seat);
+        if (bot != null) {
+            bot.onTurn();
+        }
+    }
+
+    /**
+     * Lets the bot on the seat, if any, put back the EXPLODE it defused.
+     */
+    public void promptInsertExplode(int seat) {
+        BotConnection bot = this.botAt(seat);
+        if (bot != null) {
+            bot.onExplodeDefused();
+        }
+    }
+
+    /**
+     * @return the bot on the seat, or null if a client sits there or
+     * the seat is empty.
+     */
+    private BotConnection botAt(int seat) {
+        ClientHandler client = this.clientAt(seat);
+        return (client != null) ? client.getBot() : null;
+    }
+
+    public boolean isClientsTurn(ClientHandler handler) {
+        return controller.isClientsTurn(handler.getSeat());
+    }
+
+    public void doFavorResponse(Move move, ClientHandler targetClientHandler) {
+        controller.doFavorResponse(move, targetClientHandler.getSeat());
+    }
+
+    public void checkGameHasWinner() {
+        controller.checkGameHasWinner();
+    }
+
+    public void removeCardFromPlayerHand(Move move) {
+        controller.removeCardFromPlayerHand(move);
+    }
+
+    public boolean holdsNope(ClientHandler handler) {
+        return this.holdsCard(Card.NOPE, handler);
+    }
+
+    public boolean holdsCard(Card card, ClientHandler handler) {
+        return controller.hasCard(card, handler.getSeat());
+    }
+
+    /**
+     * Moves a NOPE from the hand of a player to the discard pile.
+     * @return false if the player has no NOPE.
+     */
+    public boolean discardNope(ClientHandler handler) {
+        return controller.discardCard(Card.NOPE, handler.getSeat());
+    }
+}
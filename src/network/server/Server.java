@@ -1,47 +1,162 @@
 package network.server;
 
+import network.Protocol.FrameCodec;
 import network.Protocol.Protocol;
-import network.controller.GameController;
-import network.exceptions.ClientUnavailableException;
 import network.model.Card;
+import network.simulator.IsmctsSearch;
+import network.util.TimerWheel;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Pattern;
 
 public class Server implements Runnable{
     /** The ServerSocket of this HotelServer */
     private ServerSocket ssock;
 
-    private Object insertExplodeLock = new Object();
+    /** Channel of the ServerSocket, when clients are served by event loops */
+    private ServerSocketChannel serverChannel;
+
+    /** Event loops, one per core. Every room is pinned to one of them,
+     * which runs its game. With {@value #NIO_MODE}, they also serve the
+     * clients; otherwise every client has its own thread. */
+    private EventLoop[] eventLoops;
+
+    /** Index of the event loop that gets the next accepted client */
+    private int nextEventLoop = 0;
+
+    /** Creates the threads of the clients and rooms */
+    private ServerThreads threads = ServerThreads.platform();
+
+    /** Single timer of the whole server, on which every room registers its
+     * NOPE countdowns. Expired countdowns run on the threads above. */
+    private final TimerWheel timers = new TimerWheel("Server timer",
+            task -> threads.execute(task));
 
     /** List of ClientHandlers, one for each connected client */
     private List<ClientHandler> clients;
 
+    /** Names of the clients and bots, from their ANNOUNCE until they
+     * disconnect. A name is reserved at once, such that two connections
+     * announcing the same name cannot both get it. */
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    /** Rooms hosted by this server, each of them running its own game */
+    private List<Room> rooms;
+
+    /** Groups the clients that requested a game into rooms */
+    private final Matchmaker matchmaker = new Matchmaker(this);
+
     /** Next client number, increasing for every new connection */
     private int nextClientNo;
 
+    /** Next room number, increasing for every new room */
+    private int nextRoomNo = 0;
+
     /** The view of this server */
     private ServerTUI serverTUI;
 
-    /** Number of clients to play. Decided by the first connected client.
-     * Initialised with 2 because there must be at least 2 players to start.*/
-    private int numberOfPlayersToPlay = 2;
+    /** Usage of how the Server config should be started made */
+    private static final String USAGE
+            = "usage: <port> [nio|virtual] [--max-queued-lines=<lines>] "
+            + "[--handshake-timeout=<millis>] [--max-connections=<n>] "
+            + "[--max-handshakes=<n>] [--max-rooms=<n>] [--max-load=<percent>] "
+            + "[--bot-wait=<millis>] [--bot-think=<millis>] [--bot-budget=<millis>] "
+            + "[--bot-threads=<n>] [--seed=<n>]";
 
-    /** Currently connected players counter */
-    int playersConnectedCounter = 0;
+    /** Optional argument which makes the server use event loops instead of
+     * one thread per client */
+    private static final String NIO_MODE = "nio";
 
-    /** Communication which links game logic to Client */
-    private GameController controller = null;
+    /** Optional argument which makes the server use virtual threads
+     * instead of platform threads */
+    private static final String VIRTUAL_MODE = "virtual";
 
-    /** Usage of how the Server config should be started made */
-    private static final String USAGE
-            = "usage: <port>";
+    /** Number of connections the operating system may keep waiting to be
+     * accepted. The default of 50 refuses clients as soon as many of them
+     * connect at once. */
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    /** Option setting how many lines may wait to be sent to one client before
+     * that client is dropped as too slow */
+    private static final String MAX_QUEUED_LINES_OPTION = "--max-queued-lines=";
+
+    /** Lines that may wait to be sent to one client. A whole turn is about
+     * ten lines per client, so only a client that stopped reading gets there. */
+    private int maxQueuedLines = 1000;
+
+    /** Option setting how long a client may take to announce itself and
+     * request a game */
+    private static final String HANDSHAKE_TIMEOUT_OPTION = "--handshake-timeout=";
+
+    /** Milliseconds a client gets for its handshake. Long enough for a slow
+     * network, short enough that connections which never say anything are
+     * soon closed. */
+    private long handshakeTimeoutMillis = 30_000;
+
+    /** Option enabling bots: a client that waited this many milliseconds for
+     * players gets a game, with bots on the missing seats */
+    private static final String BOT_WAIT_OPTION = "--bot-wait=";
+
+    /** Option setting how long a bot seated by the server waits before
+     * it acts, such that players can follow the game. 0 lets bots act at
+     * once, such that a server can fill many seats with bots. */
+    private static final String BOT_THINK_OPTION = "--bot-think=";
+
+    /** Milliseconds a bot waits before it acts */
+    private long botThinkMillis = 500;
+
+    /** Option making the bots search their moves, see {@link IsmctsSearch},
+     * for this many milliseconds per move. The search then takes the place
+     * of the think delay. */
+    private static final String BOT_BUDGET_OPTION = "--bot-budget=";
+
+    /** Milliseconds a bot searches its move; 0 plays the plain moves */
+    private long botBudgetMillis = 0;
+
+    /** Option setting on how many threads the bots search, and how many
+     * trees one search grows at once */
+    private static final String BOT_THREADS_OPTION = "--bot-threads=";
+
+    /** Threads on which the bots of all rooms search, and trees grown at
+     * once by one search */
+    private int botThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Pool of botThreads threads running the searches of the bots; null
+     * if the bots play the plain moves */
+    private ExecutorService botSearches = null;
+
+    /** Option setting the seed from which the random generators of the
+     * rooms are seeded, such that the games of a run can be played again */
+    private static final String SEED_OPTION = "--seed=";
+
+    /** Seed of this run. Room n seeds its random generator with seed + n. */
+    private long seed = ThreadLocalRandom.current().nextLong();
+
+    /** Traffic counters of all the connections */
+    private final ServerStats stats = new ServerStats();
+
+    /** Limits of the connections, handshakes and rooms, and the load from
+     * which new clients are refused */
+    private final AdmissionControl admission = new AdmissionControl(this);
+
+    /** Line sent to clients that are refused */
+    private static final byte[] LOBBY_FULL_LINE = FrameCodec.encode(
+            Protocol.ERROR + Protocol.DELIMITER + Protocol.LOBBY_FULL, false);
 
     /* ************************************
                  CONSTRUCTOR
@@ -53,18 +168,25 @@ public class Server implements Runnable{
      * to be opened. If the attempt succeeds, the method ends, If the
      * attempt fails, the user decides to try again, after which an
      * ExitProgram exception is thrown or a new port is entered.
+     * <p>
+     * If the second argument is {@value #NIO_MODE}, clients are served by
+     * a few {@link EventLoop}s instead of one thread per client. If it is
+     * {@value #VIRTUAL_MODE}, every client and NOPE countdown gets a
+     * virtual thread instead of a platform one. Options such as
+     * {@value #MAX_QUEUED_LINES_OPTION} may follow.
      *
      * @throws IOException if a connection can not be created on the given
      *                     port.
      * @ensures a serverSocket is opened.
      */
     public Server(String[] args) throws IOException {
-        if (args.length != 1) {
+        if (args.length < 1) {
             System.out.println(USAGE);
             System.exit(0);
         }
 
-        clients = new ArrayList<>();
+        clients = new CopyOnWriteArrayList<>();
+        rooms = new CopyOnWriteArrayList<>();
         serverTUI = new ServerTUI();
         nextClientNo = 0; // Array starts at 0
         ssock = null;
@@ -75,17 +197,44 @@ public class Server implements Runnable{
             port = Integer.parseInt(args[0]);
         } catch (NumberFormatException e) {
             serverTUI.showMessage(USAGE);
-            serverTUI.showMessage("ERROR: port " + args[2]
+            serverTUI.showMessage("ERROR: port " + args[0]
                     + " is not an integer");
             System.exit(0);
         }
 
+        // parse the optional mode and the options
+        String mode = "";
+        for (int index = 1; index < args.length; index++) {
+            if (args[index].startsWith("--")) {
+                this.parseOption(args[index]);
+            } else {
+                mode = args[index];
+            }
+        }
+
+        if (botBudgetMillis > 0) {
+            botSearches = ServerThreads.fixedPool(Math.max(1, botThreads), "BotSearch");
+        }
+
         try {
             serverTUI.showMessage("Attempting to open a socket at 127.0.0.1 "
                     + "on port " + port + ".");
-            ssock = new ServerSocket(1234, 0,
-                    InetAddress.getByName("127.0.0.1"));
-            serverTUI.showMessage("Server started on port " + port + ". ");
+            if (mode.equalsIgnoreCase(NIO_MODE)) {
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.bind(new InetSocketAddress(
+                        InetAddress.getByName("127.0.0.1"), port), ACCEPT_BACKLOG);
+                ssock = serverChannel.socket();
+            } else {
+                ssock = new ServerSocket(port, ACCEPT_BACKLOG,
+                        InetAddress.getByName("127.0.0.1"));
+                if (mode.equalsIgnoreCase(VIRTUAL_MODE)) {
+                    threads = ServerThreads.virtual();
+                }
+            }
+            this.startEventLoops();
+            admission.start(timers);
+            serverTUI.showMessage("Server started on port " + port + " with "
+                    + SEED_OPTION + seed + ". ");
         } catch (IOException e) {
             serverTUI.showMessage("ERROR: could not create a socket on "
                     + "127.0.0.1" + " and port " + port + ".");
@@ -97,7 +246,7 @@ public class Server implements Runnable{
     ************************************ */
 
     /**
-     * Provides the list of clients.
+     * Provides the list of all connected clients, regardless of their room.
      * @ensures this.clients != null
      * @return this.clients
      */
@@ -105,205 +254,355 @@ public class Server implements Runnable{
         return this.clients;
     }
 
-    public void setNextClientNo(int no) {
-        this.nextClientNo += no;
+    /**
+     * Provides the rooms that are currently hosted by this server.
+     * @ensures this.rooms != null
+     * @return this.rooms
+     */
+    public List<Room> getRooms() {
+        return this.rooms;
     }
 
-    public void setNumberOfPlayersToPlay(int numberOfPlayersToPlay) {
-        this.numberOfPlayersToPlay = numberOfPlayersToPlay;
+    public ServerThreads getThreads() {
+        return threads;
     }
 
-    public void setNumberOfCurrentPlayers(int value) { this.playersConnectedCounter += value; }
+    public TimerWheel getTimers() {
+        return timers;
+    }
 
-    public Object getClientInsertExplodeLock(int clientHandlerIndex) {
-        return clients.get(clientHandlerIndex).getInsertExplodeLock();
+    public int getMaxQueuedLines() {
+        return maxQueuedLines;
+    }
+
+    public long getHandshakeTimeoutMillis() {
+        return handshakeTimeoutMillis;
+    }
+
+    public long getBotThinkMillis() {
+        return botThinkMillis;
+    }
+
+    public ServerStats getStats() {
+        return stats;
+    }
+
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    public Matchmaker getMatchmaker() {
+        return matchmaker;
+    }
+
+    /**
+     * Applies one {@code --name=value} option of the command line.
+     * @param option != null
+     */
+    private void parseOption(String option) {
+        try {
+            if (admission.applyOption(option)) {
+                return;
+            }
+            if (option.startsWith(BOT_WAIT_OPTION)) {
+                matchmaker.setBotWaitMillis(Long.parseLong(
+                        option.substring(BOT_WAIT_OPTION.length())));
+                return;
+            }
+            if (option.startsWith(BOT_BUDGET_OPTION)) {
+                botBudgetMillis = Long.parseLong(
+                        option.substring(BOT_BUDGET_OPTION.length()));
+                return;
+            }
+            if (option.startsWith(BOT_THREADS_OPTION)) {
+                botThreads = Integer.parseInt(
+                        option.substring(BOT_THREADS_OPTION.length()));
+                return;
+            }
+            if (option.startsWith(BOT_THINK_OPTION)) {
+                botThinkMillis = Long.parseLong(
+                        option.substring(BOT_THINK_OPTION.length()));
+                return;
+            }
+            if (option.startsWith(MAX_QUEUED_LINES_OPTION)) {
+                maxQueuedLines = Integer.parseInt(
+                        option.substring(MAX_QUEUED_LINES_OPTION.length()));
+                return;
+            }
+            if (option.startsWith(SEED_OPTION)) {
+                seed = Long.parseLong(option.substring(SEED_OPTION.length()));
+                return;
+            }
+            if (option.startsWith(HANDSHAKE_TIMEOUT_OPTION)) {
+                handshakeTimeoutMillis = Long.parseLong(
+                        option.substring(HANDSHAKE_TIMEOUT_OPTION.length()));
+                return;
+            }
+        } catch (NumberFormatException e) {
+            serverTUI.showMessage("ERROR: " + option + " is not a number");
+        }
+        serverTUI.showMessage(USAGE);
+        System.exit(0);
+    }
+
+    public void setNextClientNo(int no) {
+        this.nextClientNo += no;
+    }
+
+    public void showMessage(String message) {
+        serverTUI.showMessage(message);
     }
 
     /* ************************************
                     NETWORK
     ************************************ */
 
-    public void removePlayerFromGame(ClientHandler handler) {
-        controller.removePlayerFromGame(clients.indexOf(handler));
-    }
-
     /**
-     * Opens a new server socket and starts a new
-     * ClientHandler for every connecting client. Asks the first client
-     * who is connected for the number of players that should be in the game.
+     * Keeps the server socket open and starts a new thread for every
+     * connecting client, on which its ClientHandler does the handshake and
+     * then serves it. Clients that requested a game are grouped into rooms
+     * by the {@link Matchmaker}, and the rooms play their games on the
+     * event loops, each room on one of them for its whole life.
+     * <p>
+     * The accepting thread never waits for a client, such that clients
+     * which connect but say nothing do not hold up the others. They are
+     * dropped after {@link #getHandshakeTimeoutMillis()}.
      */
     @Override
     public void run() {
-        boolean openNewSocket = true;
-        while (openNewSocket) {
+        if (serverChannel != null) {
+            this.acceptToEventLoops();
+            return;
+        }
+        while (!ssock.isClosed()) {
             try {
-                while (playersConnectedCounter < numberOfPlayersToPlay) {
-                    Socket sock = ssock.accept();
-                    playersConnectedCounter++;
-                    String name = "Client "
-                            + String.format("%02d", nextClientNo++);
-                    serverTUI.showMessage("New client [" + name + "] connected!");
-                    ClientHandler handler =
-                            new ClientHandler(sock, this);
-                    handler.handleHello();
-                    clients.add(handler);
-
-                    if (clients.size() == 1 && clients.get(0).isSupportsLobby()) {
-                        handler.handleLobbySize();
-                    }
-
-                    new Thread(handler, handler.getName()).start();
-                    serverTUI.showMessage("Client [" +
-                            clients.get(clients.size() - 1).getName() +
-                            "] put into lobby!");
-
-                    if (playersConnectedCounter == numberOfPlayersToPlay) {
-                        try {
-                            ssock.close();
-                            this.startGame();
-                        } catch (IOException ex) {
-                            throw new RuntimeException(ex);
-                        }
-                    }
+                Socket sock = ssock.accept();
+                String refusal = admission.admitConnection();
+                if (refusal != null) {
+                    this.refuse(sock, refusal);
+                    continue;
                 }
-            } catch (Exception e) {
-                serverTUI.showMessage("Error accepting the client and starting a " +
-                        "client handler\n" + e.getMessage());
-                e.printStackTrace();
-                playersConnectedCounter--;
+                String name = "Client "
+                        + String.format("%02d", nextClientNo++);
+                serverTUI.showMessage("New client [" + name + "] connected!");
+                threads.start(() -> this.serve(sock), name);
+            } catch (IOException e) {
+                serverTUI.showMessage("Error accepting the client\n" + e.getMessage());
             }
-            openNewSocket = false;
         }
     }
 
     /**
-     * Allows method to accept any number of card arguments. Useful
-     * because the logic does not differ that much. It is just that
-     * one can play:
-     * <p> 1 card - EX: {@link Protocol.cardType#FUTURE} </p>
-     * <p> 2 cards - EX: {@link Protocol.cardType#POTATO}</p>
-     * <p> combinations - EX: {@link Protocol.cardType#ATTACK}
-     *      *      && a player's name </p>
-     * @param cmd != null
+     * Serves one accepted client, from its handshake on, on the calling
+     * thread.
+     * @param sock socket of the client
      */
-    public void doPlayMove(String[] cmd, ClientHandler handler) {
-        // Translation between clientHandler and Player is doing with ArrayLists' indexes
-        controller.doPlayMove(cmd, clients.indexOf(handler));
-    }
-
-    public void doInsertExplode(int cardIndex, ClientHandler clientHandler) {
-        controller.doInsertExplode(cardIndex, clients.indexOf(clientHandler));
+    private void serve(Socket sock) {
+        ClientHandler handler;
+        try {
+            handler = new ClientHandler(sock, this);
+        } catch (IOException e) {
+            serverTUI.showMessage("Error starting a client handler\n" + e.getMessage());
+            admission.onConnectionClosed(true);
+            try {
+                sock.close();
+            } catch (IOException ex) {
+                System.out.println(ex.getMessage());
+            }
+            return;
+        }
+        handler.run();
     }
 
     /**
-     * Sends a broadcast to all players.
-     * @param message
+     * Opens one {@link EventLoop} per available core.
+     * @throws IOException if a selector could not be opened.
      */
-    public void doBroadcast(String message) {
-        for (ClientHandler client : clients) {
-            try {
-                client.sendMessage(Protocol.BROADCAST + Protocol.DELIMITER
-                        + message);
-            } catch (ClientUnavailableException e) {
-                throw new RuntimeException(e);
-            }
+    private void startEventLoops() throws IOException {
+        eventLoops = new EventLoop[Runtime.getRuntime().availableProcessors()];
+        for (int index = 0; index < eventLoops.length; index++) {
+            eventLoops[index] = new EventLoop("EventLoop " + index);
+            eventLoops[index].start();
         }
     }
 
     /**
-     * Sends a broadcast to all players, except for the one who sent
-     * the command to the server, just like in a chat environment.
-     * @param message
-     * @param clientHandler
+     * Accepts clients, blocking the accepting thread until one connects, and
+     * hands each of them, in turns, to one of the event loops as a
+     * non-blocking channel. The handshake and everything that follows are
+     * driven by the event loop, such that no thread is dedicated to a single
+     * client.
      */
-    public void doChatBroadcast(String message, ClientHandler clientHandler) {
-        for (ClientHandler client : clients) {
+    private void acceptToEventLoops() {
+        while (serverChannel.isOpen()) {
+            boolean isAdmitted = false;
+            ClientHandler handler = null;
             try {
-                if (! client.equals(clientHandler)) {
-                    client.sendMessage(Protocol.BROADCAST + Protocol.DELIMITER
-                            + "[" + clientHandler.getName() + "]: " + message);
+                SocketChannel channel = serverChannel.accept();
+                String refusal = admission.admitConnection();
+                if (refusal != null) {
+                    this.refuse(channel, refusal);
+                    continue;
+                }
+                isAdmitted = true;
+                channel.configureBlocking(false);
+                EventLoop loop = eventLoops[nextEventLoop];
+                nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+
+                NioConnection connection = new NioConnection(channel, loop, this);
+                handler = new ClientHandler(connection, this);
+                connection.setHandler(handler);
+                loop.register(connection);
+                serverTUI.showMessage("New client [Client "
+                        + String.format("%02d", nextClientNo++)
+                        + "] connected to " + loop.getName() + "!");
+            } catch (IOException e) {
+                serverTUI.showMessage("Error accepting the client\n" + e.getMessage());
+                if (handler != null) {
+                    handler.shutdown();
+                } else if (isAdmitted) {
+                    admission.onConnectionClosed(true);
                 }
-            } catch (ClientUnavailableException e) {
-                throw new RuntimeException(e);
             }
         }
     }
+
     /**
-     * Sends a broadcast to all players, except for the one who sent
-     * the command to the server, just like in a chat environment.
-     * @param message
+     * Tells a client that was not admitted why, and closes its socket. The
+     * socket is fresh, so the single line fits in its send buffer.
+     * @param sock accepted socket
+     * @param reason reason shown on the server
      */
-    public void doChatBroadcast(String message, int playerIndex) {
-        for (ClientHandler client : clients) {
-            try {
-                if ( clients.indexOf(client) != playerIndex) {
-                    client.sendMessage(Protocol.BROADCAST + Protocol.DELIMITER
-                            + "[" + clients.get(playerIndex).getName() + "]: " + message);
-                }
-            } catch (ClientUnavailableException e) {
-                throw new RuntimeException(e);
-            }
+    private void refuse(Socket sock, String reason) {
+        serverTUI.showMessage("Refused a client: " + reason + ".");
+        try (sock) {
+            OutputStream out = sock.getOutputStream();
+            out.write(LOBBY_FULL_LINE);
+            out.flush();
+        } catch (IOException e) {
+            serverTUI.showMessage(e.getMessage());
         }
     }
 
-    /** Change from player to clientHandler happens via clientHandlerIndex,
-     * which is just player's index in the {@link network.model.Game#players}*/
-    public void doPrivate(String msg, int clientHandlerIndex) {
-        try {
-            clients.get(clientHandlerIndex)
-                    .sendMessage(Protocol.PRIVATE + Protocol.DELIMITER + msg);
-        } catch (ClientUnavailableException e) {
-            throw new RuntimeException(e);
+    /**
+     * Same as {@link #refuse(Socket, String)} for an accepted channel.
+     * @param channel accepted channel, still blocking
+     * @param reason reason shown on the server
+     */
+    private void refuse(SocketChannel channel, String reason) {
+        serverTUI.showMessage("Refused a client: " + reason + ".");
+        try (channel) {
+            channel.write(ByteBuffer.wrap(LOBBY_FULL_LINE));
+        } catch (IOException e) {
+            serverTUI.showMessage(e.getMessage());
         }
     }
 
-    public void doKick(String msg, int clientHandlerIndex) {
-        this.doPrivate(msg, clientHandlerIndex);
-        clients.get(clientHandlerIndex).shutdown();
+    /**
+     * Puts a client which finished its handshake in the queue of the
+     * {@link Matchmaker}, which seats it as soon as a game can start.
+     * @requires handler != null && handler.getName() != null
+     * @param numbersOfPlayers mask of the numbers of players the client
+     * accepts, with bit k set for k players
+     * @return false if the client was refused, since the server hosts as
+     * many rooms as it may.
+     */
+    public boolean requestGame(ClientHandler handler, int numbersOfPlayers) {
+        this.addClient(handler);
+        return matchmaker.enqueue(handler, numbersOfPlayers);
     }
 
+    /**
+     * Adds a clientHandler, or a bot, to the client list.
+     * @requires client != null
+     */
+    public void addClient(ClientHandler client) {
+        if (!clients.contains(client)) {
+            clients.add(client);
+        }
+    }
 
-    public void resumeGame() {
-        controller.resumeGame();
+    /**
+     * Opens a new room for a game of the given number of players, unless
+     * the server already hosts {@link AdmissionControl#getMaxRooms()} rooms.
+     * Called by the {@link Matchmaker} only.
+     * @return the new room, or null if no room may be opened.
+     */
+    Room openRoom(int players) {
+        if (rooms.size() >= admission.getMaxRooms()) {
+            return null;
+        }
+        int id = nextRoomNo++;
+        EventLoop worker = this.leastBusyEventLoop();
+        worker.onRoomOpened();
+        Room room = new Room(id, this, seed + id, players, worker);
+        if (botBudgetMillis > 0) {
+            room.setBotSearch(new IsmctsSearch(botBudgetMillis, 0, botThreads, botSearches));
+        }
+        rooms.add(room);
+        return room;
     }
 
-    public void revealTopThreeCardsToPlayer(
-            String lastCardName,
-            String secondToLastCardName,
-            String thirdToLastCardName,
-            int clientIndexToReplyTo
-    ) {
-        String msgToSend =
-                Protocol.SEETHEFUTURE + Protocol.DELIMITER +
-                        lastCardName + Protocol.DELIMITER +
-                        secondToLastCardName + Protocol.DELIMITER +
-                        thirdToLastCardName;
-        try {
-            clients.get(clientIndexToReplyTo).sendMessage(msgToSend);
-        } catch (ClientUnavailableException e) {
-            throw new RuntimeException(e);
+    /**
+     * Picks the event loop to which a new room is pinned: the one with the
+     * fewest rooms, and of those the one with the fewest queued tasks.
+     */
+    private EventLoop leastBusyEventLoop() {
+        EventLoop best = eventLoops[0];
+        for (EventLoop loop : eventLoops) {
+            if (loop.getRoomCount() < best.getRoomCount()
+                    || (loop.getRoomCount() == best.getRoomCount()
+                    && loop.getQueuedTasks() < best.getQueuedTasks())) {
+                best = loop;
+            }
         }
+        return best;
     }
 
-    /* ************************************
-                    GENERAL
-    ************************************ */
+    /**
+     * Describes the balance of the rooms over the event loops, e.g.
+     * {@code EventLoop 0: 3 room(s), 0 task(s) queued; EventLoop 1: ...}
+     */
+    public String describeEventLoops() {
+        StringBuilder description = new StringBuilder();
+        for (EventLoop loop : eventLoops) {
+            if (!description.isEmpty()) {
+                description.append("; ");
+            }
+            description.append(loop.getName()).append(": ")
+                    .append(loop.getRoomCount()).append(" room(s), ")
+                    .append(loop.getQueuedTasks()).append(" task(s) queued");
+        }
+        return description.toString();
+    }
+
+    /**
+     * Starts the game of a room, whose seats are all taken, on the event
+     * loop of the room.
+     * @requires room != null
+     */
+    public void startRoom(Room room) {
+        room.post(room::startGame);
+    }
 
-    public void askPlayerForCard(
-            int targetPlayerIndex,
-            String requestingPlayerName
-    ) {
-        this.doPrivate(requestingPlayerName + " has played a FAVOR to you." +
-                " Type <play> <CARD's NAME>, just like a normal move.", targetPlayerIndex);
-        clients.get(targetPlayerIndex).setAwaitFavorResponse(true);
+    /**
+     * Removes a room from the server, once its game is over.
+     * @requires room != null
+     */
+    public void removeRoom(Room room) {
+        if (rooms.remove(room)) {
+            room.getWorker().onRoomClosed();
+        }
     }
 
     /**
-     * Removes a clientHandler from the client list.
+     * Removes a clientHandler from the client list, and from the queue of
+     * the matchmaker if it was still waiting for a game.
      * @requires client != null
      */
     public void removeClient(ClientHandler client) {
         this.clients.remove(client);
+        matchmaker.remove(client);
     }
 
     /**
@@ -351,33 +650,21 @@ public class Server implements Runnable{
      * @ensures clientName is taken or not.
      */
     public boolean isNameTaken(String clientName) {
-        return (clients.stream().anyMatch(
-                handler -> handler.getName().equals(clientName)));
+        return names.contains(clientName);
     }
 
-    public void startGame() {
-        this.doBroadcast("Game has reached " + numberOfPlayersToPlay +
-                " players. Game is starting now.");
-        serverTUI.showMessage("Game has reached " + numberOfPlayersToPlay +
-                " players. Game is starting now.");
-        controller = (new GameController(clients, this));
-        controller.startGame();
-    }
-
-    public boolean isClientsTurn(ClientHandler handler) {
-        return controller.isClientsTurn(clients.indexOf(handler));
-    }
-
-    public void doFavorResponse(String card, ClientHandler targetClientHandler) {
-        controller.doFavorResponse(card, clients.indexOf(targetClientHandler));
-    }
-
-    public void checkGameHasWinner() {
-        controller.checkGameHasWinner();
+    /**
+     * Reserves a name for one client, until {@link #releaseName(String)}.
+     * @requires clientName != null
+     * @return false if the name is already taken
+     */
+    public boolean reserveName(String clientName) {
+        return names.add(clientName);
     }
 
-    public void removeCardFromPlayerHand(String[] clientMsgSplitted) {
-        controller.removeCardFromPlayerHand(clientMsgSplitted);
+    /** Frees the name of a client which disconnected. */
+    public void releaseName(String clientName) {
+        names.remove(clientName);
     }
 
     /* ************************************
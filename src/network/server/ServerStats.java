@@ -0,0 +1,55 @@
+package network.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the traffic of a {@link Server}, shared by all its connections.
+ * Comparing the lines sent with the socket writes shows how well the
+ * connections batch their output; the bytes per line show what the encoding
+ * of the lines costs.
+ */
+public class ServerStats {
+    /** Protocol lines handed over to the operating system */
+    private final LongAdder linesSent = new LongAdder();
+
+    /** Write (or flush) system calls made on client sockets */
+    private final LongAdder socketWrites = new LongAdder();
+
+    /** Bytes handed over to the operating system */
+    private final LongAdder bytesSent = new LongAdder();
+
+    public void countLinesSent(int lines) {
+        linesSent.add(lines);
+    }
+
+    public void countSocketWrite() {
+        socketWrites.increment();
+    }
+
+    public void countBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    public long getLinesSent() {
+        return linesSent.sum();
+    }
+
+    public long getSocketWrites() {
+        return socketWrites.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public String toString() {
+        long lines = this.getLinesSent();
+        long writes = this.getSocketWrites();
+        long bytes = this.getBytesSent();
+        return "lines sent: " + lines + ", socket writes: " + writes
+                + (writes == 0 ? "" : String.format(" (%.1f lines per write)", (double) lines / writes))
+                + ", bytes sent: " + bytes
+                + (lines == 0 ? "" : String.format(" (%.1f bytes per line)", (double) bytes / lines));
+    }
+}
@@ -0,0 +1,108 @@
+package network.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates every thread the server needs besides its accept loop: one per
+ * {@link ClientHandler}, one per running {@link Room}, a pool running the
+ * expired timers of the server, and bounded pools for work that keeps a
+ * core busy, see {@link #fixedPool(int, String)}.
+ * The threads are either platform threads or, when the JVM supports them
+ * (Java 21 and newer), virtual threads.
+ */
+public class ServerThreads {
+    private final ThreadFactory factory;
+    private final boolean isVirtual;
+    private final ExecutorService tasks;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    private ServerThreads(ThreadFactory factory, boolean isVirtual) {
+        this.factory = factory;
+        this.isVirtual = isVirtual;
+        this.tasks = Executors.newCachedThreadPool(factory);
+    }
+
+    /**
+     * Provides threads backed by an operating system thread each.
+     * @return platform threads
+     */
+    public static ServerThreads platform() {
+        return new ServerThreads(Thread::new, false);
+    }
+
+    /**
+     * Provides virtual threads. They are looked up reflectively, such that the
+     * project still compiles with Java 17, on which platform threads are used instead.
+     * @return virtual threads if the JVM has them, platform threads otherwise.
+     */
+    public static ServerThreads virtual() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factoryMethod = Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory");
+            return new ServerThreads((ThreadFactory) factoryMethod.invoke(builder), true);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("> Virtual threads need Java 21 or newer. "
+                    + "Using platform threads instead.");
+            return platform();
+        }
+    }
+
+    /* ************************************
+               SETTERS AND GETTERS
+    ************************************ */
+
+    public boolean isVirtual() {
+        return isVirtual;
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    /**
+     * Starts the task on a new thread.
+     * @param task != null
+     * @param name name of the new thread
+     * @return the started thread
+     */
+    public Thread start(Runnable task, String name) {
+        Thread thread = factory.newThread(task);
+        thread.setName(name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Runs a short task, such as an expired timer, on a pooled thread.
+     * @param task != null
+     */
+    public void execute(Runnable task) {
+        tasks.execute(task);
+    }
+
+    /**
+     * Creates a pool of a fixed number of platform threads, e.g. for the
+     * searches of the bots, which keep a core busy each and thus should not
+     * run on more threads than there are cores to spare. The threads do not
+     * keep the JVM alive.
+     * @param threads number of threads, at least 1
+     * @param name prefix of the names of the threads
+     * @return the pool
+     */
+    public static ExecutorService fixedPool(int threads, String name) {
+        AtomicInteger created = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, name + "-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
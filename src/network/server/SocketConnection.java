@@ -0,0 +1,196 @@
+package network.server;
+
+import network.Protocol.FrameCodec;
+import network.Protocol.ProtocolReader;
+import network.exceptions.SlowConsumerException;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Blocking {@link Connection} over a plain {@link Socket}. Lines are read by the
+ * thread of the {@link ClientHandler} that owns this connection, and written by
+ * a writer thread of its own, such that a client which stopped reading only
+ * blocks that writer. The writer flushes once no line is waiting and no batch
+ * is open, such that the lines of a turn leave together.
+ */
+public class SocketConnection implements Connection {
+    /** Time a closing connection gets to send its last lines, in milliseconds.
+     * Afterwards, the socket is closed even if the client did not take them. */
+    private static final long CLOSE_GRACE_MILLIS = 5000;
+
+    /** Queued by {@link #close()} after the last line. Compared by identity. */
+    private static final byte[] END_OF_OUTPUT = new byte[0];
+
+    /** Queued when the last batch ended, such that the writer flushes. Compared by identity. */
+    private static final byte[] FLUSH = new byte[0];
+
+    /** Socket's Input and Output streams */
+    private final ProtocolReader in;
+    private final OutputStream out;
+    private final Socket sock;
+    private final Server server;
+    private final ServerStats stats;
+
+    /** Lines waiting for the writer thread, already encoded, followed by
+     * {@link #END_OF_OUTPUT} once the connection is closing */
+    private final BlockingQueue<byte[]> outbound = new LinkedBlockingQueue<>();
+    private volatile boolean isBinary = false;
+    private final int maxQueuedLines;
+    private final AtomicBoolean isClosing = new AtomicBoolean(false);
+    private volatile boolean isAborted = false;
+
+    /** Number of batches currently open */
+    private final AtomicInteger batchDepth = new AtomicInteger();
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * Opens the Input and Output streams of the socket and starts its writer.
+     * @param sock The client socket
+     * @param server server which provides the writer thread and its settings
+     * @throws IOException if the streams could not be opened.
+     */
+    public SocketConnection(Socket sock, Server server) throws IOException {
+        this.sock = sock;
+        this.server = server;
+        this.maxQueuedLines = server.getMaxQueuedLines();
+        this.stats = server.getStats();
+        this.in = new ProtocolReader(sock.getInputStream());
+        this.out = new BufferedOutputStream(new CountingOutputStream(sock.getOutputStream()));
+        server.getThreads().start(this::writeQueuedLines, "Writer " + sock.getPort());
+    }
+
+    /* ************************************
+                    NETWORK
+    ************************************ */
+
+    /**
+     * Blocks until the client sent a whole line.
+     * @return the line, without line separator, or null if the stream ended.
+     * @throws IOException if the socket could not be read.
+     */
+    public String readLine() throws IOException {
+        return in.readLine();
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        if (isAborted) {
+            return;
+        }
+        if (isClosing.get()) {
+            throw new IOException("Connection is closed.");
+        }
+        if (outbound.size() >= maxQueuedLines) {
+            throw new SlowConsumerException(outbound.size() + " lines are waiting to be sent.");
+        }
+        outbound.add(FrameCodec.encode(line, isBinary));
+    }
+
+    @Override
+    public void useFrames() {
+        isBinary = true;
+        in.useFrames();
+    }
+
+    @Override
+    public int queuedLines() {
+        return outbound.size();
+    }
+
+    @Override
+    public void close() {
+        if (isClosing.compareAndSet(false, true)) {
+            outbound.add(END_OF_OUTPUT);
+            server.getTimers().schedule(this::closeSocket, CLOSE_GRACE_MILLIS);
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        batchDepth.incrementAndGet();
+    }
+
+    @Override
+    public void endBatch() {
+        if (batchDepth.updateAndGet(depth -> Math.max(0, depth - 1)) == 0) {
+            outbound.add(FLUSH);
+        }
+    }
+
+    @Override
+    public void abort(String lastLine) {
+        isAborted = true;
+        outbound.clear();
+        outbound.add(FrameCodec.encode(lastLine, isBinary));
+        outbound.add(END_OF_OUTPUT);
+        if (isClosing.compareAndSet(false, true)) {
+            server.getTimers().schedule(this::closeSocket, CLOSE_GRACE_MILLIS);
+        }
+        try {
+            // Ends the reading thread, which reports the lost connection
+            sock.shutdownInput();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Body of the writer thread: sends the queued lines until the connection
+     * is closed.
+     */
+    private void writeQueuedLines() {
+        int unflushedLines = 0;
+        try {
+            byte[] line;
+            while ((line = outbound.take()) != END_OF_OUTPUT) {
+                if (line != FLUSH) {
+                    out.write(line);
+                    unflushedLines++;
+                }
+                if (unflushedLines > 0 && outbound.isEmpty() && batchDepth.get() == 0) {
+                    out.flush();
+                    stats.countLinesSent(unflushedLines);
+                    unflushedLines = 0;
+                }
+            }
+            out.flush();
+            stats.countLinesSent(unflushedLines);
+        } catch (IOException | InterruptedException e) {
+            System.out.println(e.getMessage());
+        } finally {
+            this.closeSocket();
+        }
+    }
+
+    /**
+     * Counts every write on the socket, which is one system call each.
+     */
+    private class CountingOutputStream extends FilterOutputStream {
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            stats.countSocketWrite();
+            stats.countBytesSent(length);
+            out.write(bytes, offset, length);
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            sock.close();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package network.simulator;
+
+import network.model.*;
+
+/**
+ * Plays the moves of bots on a game without any server, the way the bots of
+ * a room would: a move the rules reject becomes a draw, the target of a
+ * FAVOR gives its card, a player who defused an EXPLODE puts it back, and
+ * the move is ended. The {@link Simulator} and the random games of the
+ * {@link IsmctsSearch} both play through it, such that they follow the same
+ * rules.
+ * <p>
+ * The driver learns what to answer from the events of the game, thus it has
+ * to be among the listeners of every game it drives.
+ */
+class GameDriver implements GameListener {
+
+    /** How the players answer what the move of another asks of them */
+    interface Answers {
+        /**
+         * @return the card the target gives for a FAVOR, or null if it has none
+         */
+        Card favorCard(Game game, Player target);
+
+        /**
+         * @return the index at which the player puts back the EXPLODE it
+         * defused, 0 being the bottom of the deck
+         */
+        int explodeIndex(Game game, Player player);
+    }
+
+    private boolean isRejected = false;
+    private Player favorTarget = null;
+    private Player defused = null;
+    private Player winner = null;
+
+    /** @return the winner of the game driven last, or null if it has none yet */
+    Player getWinner() {
+        return winner;
+    }
+
+    /** Forgets the game driven last, e.g. before driving another one */
+    void reset() {
+        isRejected = false;
+        favorTarget = null;
+        defused = null;
+        winner = null;
+    }
+
+    /* ************************************
+                    MOVES
+    ************************************ */
+
+    /**
+     * Plays a move of the current player, answers what it asks of the
+     * others, and ends the move.
+     * @param move the move; set to a draw if the rules reject it
+     * @return true if the turn went to the next player
+     * @requires !game.hasWinner() && !game.isExplodeToInsert()
+     */
+    boolean play(Game game, Move move, Answers answers) {
+        int seat = game.getCurrentPlayerSeat();
+        isRejected = false;
+        game.execute(new GameCommand.Play(seat, move));
+        if (isRejected) {
+            // A move the rules do not allow is not retried
+            move.setDraw();
+            game.execute(new GameCommand.Play(seat, move));
+        }
+
+        if (favorTarget != null) {
+            Player target = favorTarget;
+            favorTarget = null;
+            Card card = answers.favorCard(game, target);
+            if (card != null) {
+                game.execute(new GameCommand.GiveFavor(target.getSeat(), card));
+            } else {
+                // Nothing to give, the FAVOR is spent for nothing
+                game.execute(new GameCommand.Cancel(seat, move));
+            }
+        }
+        if (defused != null) {
+            Player player = defused;
+            defused = null;
+            game.execute(new GameCommand.InsertExplode(player.getSeat(),
+                    answers.explodeIndex(game, player)));
+        }
+        return this.endMove(game);
+    }
+
+    /**
+     * Puts back the EXPLODE the current player defused, and ends its move.
+     * @return true if the turn went to the next player
+     * @requires game.isExplodeToInsert()
+     */
+    boolean insertExplode(Game game, int index) {
+        game.execute(new GameCommand.InsertExplode(game.getCurrentPlayerSeat(), index));
+        return this.endMove(game);
+    }
+
+    private boolean endMove(Game game) {
+        return !game.hasWinner() && game.endMove();
+    }
+
+    /* ************************************
+                    EVENTS
+    ************************************ */
+
+    @Override
+    public void onRejected(Player player, String reason) {
+        isRejected = true;
+    }
+
+    @Override
+    public void onFavorAsked(Player asker, Player target) {
+        favorTarget = target;
+    }
+
+    @Override
+    public void onExplodeDefused(Player player, int lastIndex) {
+        defused = player;
+    }
+
+    @Override
+    public void onWinner(Player winner) {
+        this.winner = winner;
+    }
+}
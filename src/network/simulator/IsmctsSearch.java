@@ -0,0 +1,425 @@
+package network.simulator;
+
+import network.model.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Chooses the move of a bot by information set Monte Carlo tree search
+ * (single observer). The bot cannot see the deck nor the other hands, thus
+ * every iteration first deals them at random from the cards it has not seen,
+ * see {@link Game#determinize}, then walks down one tree shared by all those
+ * deals: a move is only considered where the deal allows it, and is weighed
+ * by how often it was available. The game is then played to its end by
+ * random moves, and the winner is credited along the path.
+ * <p>
+ * The search grows {@code threads} trees at once, the first on the calling
+ * thread and the others on the executor it is given, until the time budget or
+ * the number of iterations is spent; the root move tried most often over all
+ * the trees wins. Searching longer or on more threads plays stronger, at the
+ * cost of a slower answer.
+ * <p>
+ * Bots only consider drawing, the single cards ATTACK, SKIP, SHUFFLE and
+ * FUTURE, a FAVOR and a pair of cat cards on every opponent; they never NOPE.
+ */
+public class IsmctsSearch {
+    /** Weight of the exploration in UCB1, for results between 0 and 1 */
+    private static final double EXPLORATION = 0.7;
+    /** Moves after which a random game is given up, without a winner */
+    private static final int MAX_ROLLOUT_MOVES = 1000;
+    /** Upper bound of the moves available in one position */
+    private static final int MAX_ACTIONS = 32;
+
+    private static final Card[] SINGLE_CARDS = {Card.ATTACK, Card.SKIP, Card.SHUFFLE, Card.FUTURE};
+    private static final Card[] CAT_CARDS = {Card.TACOCAT, Card.CATTERMELLON, Card.POTATO,
+            Card.BEARD, Card.RAINBOW};
+
+    /* Moves are packed in an int: the kind, then the card, then the seat of
+     * the target or the index of an inserted EXPLODE, one byte each */
+    private static final int DRAW = 0;
+    private static final int PLAY = 1;
+    private static final int FAVOR = 2;
+    private static final int PAIR = 3;
+    private static final int INSERT = 4;
+
+    private final long budgetMillis;
+    private final int maxIterations;
+    private final int threads;
+    /** Runs the trees beyond the first; null to grow them one after the other */
+    private final Executor executor;
+
+    /** One node per move of a player, below the moves that led to it */
+    private static final class Node {
+        private final int action;
+        /** Seat of the player who made the move */
+        private final int actorSeat;
+        private final ArrayList<Node> children = new ArrayList<>();
+        private int visits = 0;
+        /** Iterations in which this move could have been chosen */
+        private int availability = 0;
+        private int wins = 0;
+
+        private Node(int action, int actorSeat) {
+            this.action = action;
+            this.actorSeat = actorSeat;
+        }
+
+        private double ucb() {
+            return (double) wins / visits + EXPLORATION * Math.sqrt(Math.log(availability) / visits);
+        }
+    }
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * Creates a search which grows its trees one after the other, on the
+     * calling thread, e.g. in the simulator, which plays a game per core.
+     * @param budgetMillis time a search may take, 0 for no limit
+     * @param maxIterations iterations of a search over all threads, 0 for no limit
+     * @param threads number of trees grown, at least 1
+     * @requires budgetMillis > 0 || maxIterations > 0
+     */
+    public IsmctsSearch(long budgetMillis, int maxIterations, int threads) {
+        this(budgetMillis, maxIterations, threads, null);
+    }
+
+    /**
+     * @param budgetMillis time a search may take, 0 for no limit
+     * @param maxIterations iterations of a search over all threads, 0 for no limit
+     * @param threads number of trees grown at once, at least 1
+     * @param executor runs the trees beyond the first, e.g. a pool bounded to
+     * the cores to spare; null to grow them all on the calling thread
+     * @requires budgetMillis > 0 || maxIterations > 0
+     */
+    public IsmctsSearch(long budgetMillis, int maxIterations, int threads, Executor executor) {
+        if (budgetMillis <= 0 && maxIterations <= 0) {
+            throw new IllegalArgumentException("A search needs a time budget or a number of iterations");
+        }
+        this.budgetMillis = budgetMillis;
+        this.maxIterations = maxIterations;
+        this.threads = Math.max(1, threads);
+        this.executor = executor;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** @return the executor running the trees beyond the first, or null */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /* ************************************
+                    SEARCH
+    ************************************ */
+
+    /**
+     * Chooses the move of the current player.
+     * @param game the game, or a copy of it as the player sees it; only read
+     * @param random decides the deals and the random games; with an
+     * iteration limit only, the same generator gives the same move
+     * @requires game.getCurrentPlayerSeat() == seat && !game.isExplodeToInsert()
+     * @return the move as typed after a {@link network.Protocol.Protocol#PLAYMOVE},
+     * e.g. {@code play FAVOR bob} or {@code draw}
+     */
+    public String chooseMove(Game game, int seat, SplittableRandom random) {
+        return this.chooseMove(game, seat, new Card[0], random);
+    }
+
+    /**
+     * Chooses the move of the current player, who knows some cards on top
+     * of the deck, see {@link Game#determinize(int, Card[], GameListener, java.util.random.RandomGenerator)}.
+     * @param knownTop the card known at each depth of the deck, or null
+     * where unknown, e.g. {@link CardTracker#getTop()}
+     */
+    public String chooseMove(Game game, int seat, Card[] knownTop, SplittableRandom random) {
+        int action = this.search(game, seat, knownTop, random);
+        return switch (kindOf(action)) {
+            case PLAY -> "play " + cardOf(action).name();
+            case FAVOR -> "play FAVOR " + game.getPlayerAtSeat(argumentOf(action)).getName();
+            case PAIR -> "play " + cardOf(action).name() + " " + cardOf(action).name() + " "
+                    + game.getPlayerAtSeat(argumentOf(action)).getName();
+            default -> "draw";
+        };
+    }
+
+    /**
+     * Chooses where the current player puts back the EXPLODE it defused.
+     * @requires game.getCurrentPlayerSeat() == seat && game.isExplodeToInsert()
+     * @return the index in the deck, 0 being the bottom
+     */
+    public int chooseExplodeIndex(Game game, int seat, SplittableRandom random) {
+        return this.chooseExplodeIndex(game, seat, new Card[0], random);
+    }
+
+    /**
+     * Chooses where the current player puts back the EXPLODE it defused,
+     * knowing some cards on top of the deck, see {@link #chooseMove(Game, int, Card[], SplittableRandom)}.
+     */
+    public int chooseExplodeIndex(Game game, int seat, Card[] knownTop, SplittableRandom random) {
+        return argumentOf(this.search(game, seat, knownTop, random));
+    }
+
+    /**
+     * Grows a tree per thread and adds up the visits of their root moves.
+     * @return the move visited most often
+     */
+    private int search(Game game, int seat, Card[] knownTop, SplittableRandom random) {
+        SplittableRandom[] randoms = new SplittableRandom[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            randoms[thread] = random.split();
+        }
+        long deadline = (budgetMillis > 0) ? System.nanoTime() + budgetMillis * 1_000_000 : Long.MAX_VALUE;
+        int iterations = (maxIterations > 0) ? Math.max(1, maxIterations / threads) : Integer.MAX_VALUE;
+
+        Node[] roots = this.growTrees(game, seat, knownTop, randoms, deadline, iterations);
+
+        int[] actions = new int[MAX_ACTIONS];
+        int[] visits = new int[MAX_ACTIONS];
+        int count = 0;
+        for (Node root : roots) {
+            for (Node child : root.children) {
+                int index = 0;
+                while (index < count && actions[index] != child.action) {
+                    index++;
+                }
+                if (index == count) {
+                    actions[count++] = child.action;
+                }
+                visits[index] += child.visits;
+            }
+        }
+        int best = 0;
+        for (int index = 1; index < count; index++) {
+            if (visits[index] > visits[best]) {
+                best = index;
+            }
+        }
+        return (count > 0) ? actions[best] : DRAW;
+    }
+
+    /**
+     * Grows a tree per thread: the first on the calling thread, the others
+     * on the executor. A tree the executor did not start yet once the first
+     * is grown is grown on the calling thread too, such that a search run on
+     * the executor itself never waits for a thread of it.
+     */
+    private Node[] growTrees(Game game, int seat, Card[] knownTop, SplittableRandom[] randoms,
+                             long deadline, int iterations) {
+        ArrayList<FutureTask<Node>> others = new ArrayList<>();
+        for (int thread = 1; thread < threads; thread++) {
+            SplittableRandom random = randoms[thread];
+            FutureTask<Node> tree = new FutureTask<>(
+                    () -> new Worker(random).grow(game, seat, knownTop, deadline, iterations));
+            others.add(tree);
+            if (executor != null) {
+                executor.execute(tree);
+            }
+        }
+        Node[] roots = new Node[threads];
+        roots[0] = new Worker(randoms[0]).grow(game, seat, knownTop, deadline, iterations);
+        for (int thread = 1; thread < threads; thread++) {
+            FutureTask<Node> tree = others.get(thread - 1);
+            tree.run();
+            try {
+                roots[thread] = tree.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The search was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A tree of the search failed", e.getCause());
+            }
+        }
+        return roots;
+    }
+
+    /** Grows one tree, on one thread. The other players answer at random. */
+    private static final class Worker implements GameDriver.Answers {
+        private final SplittableRandom random;
+        private final GameDriver driver = new GameDriver();
+        private final Move move = new Move();
+        private final int[] actions = new int[MAX_ACTIONS];
+        private final ArrayList<Node> path = new ArrayList<>();
+
+        private Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        private Node grow(Game game, int seat, Card[] knownTop, long deadline, int iterations) {
+            Node root = new Node(DRAW, seat);
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                if (iteration > 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                driver.reset();
+                Game copy = game.determinize(seat, knownTop, driver, random);
+                this.iterate(root, copy);
+            }
+            return root;
+        }
+
+        /** Selects and expands down the tree, plays the game out, and credits the winner */
+        private void iterate(Node root, Game game) {
+            path.clear();
+            Node node = root;
+            boolean isExpanded = false;
+            while (!isExpanded && !game.hasWinner()) {
+                int count = legalActions(game, actions);
+                int actor = game.getCurrentPlayerSeat();
+                Node next = null;
+                int untried = 0;
+                for (int index = 0; index < count; index++) {
+                    Node child = childOf(node, actions[index], actor);
+                    if (child == null) {
+                        // Remembered in front, to pick one of them at random
+                        actions[untried++] = actions[index];
+                    } else {
+                        child.availability++;
+                        if (next == null || child.ucb() > next.ucb()) {
+                            next = child;
+                        }
+                    }
+                }
+                if (untried > 0) {
+                    next = new Node(actions[random.nextInt(untried)], actor);
+                    next.availability = 1;
+                    node.children.add(next);
+                    isExpanded = true;
+                }
+                this.apply(game, next.action);
+                path.add(next);
+                node = next;
+            }
+
+            for (int moves = 0; !game.hasWinner() && moves < MAX_ROLLOUT_MOVES; moves++) {
+                this.apply(game, actions[random.nextInt(legalActions(game, actions))]);
+            }
+            int winnerSeat = (driver.getWinner() != null) ? driver.getWinner().getSeat() : -1;
+            for (Node visited : path) {
+                visited.visits++;
+                if (visited.actorSeat == winnerSeat) {
+                    visited.wins++;
+                }
+            }
+        }
+
+        private static Node childOf(Node node, int action, int actorSeat) {
+            for (Node child : node.children) {
+                if (child.action == action && child.actorSeat == actorSeat) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Applies a move of the current player, answers what it asks of the
+         * others at random, and ends the move.
+         */
+        private void apply(Game game, int action) {
+            if (kindOf(action) == INSERT) {
+                driver.insertExplode(game, argumentOf(action));
+            } else {
+                this.setMove(game, action);
+                driver.play(game, move, this);
+            }
+        }
+
+        @Override
+        public Card favorCard(Game game, Player target) {
+            Hand hand = target.getHand();
+            return hand.isEmpty() ? null : hand.get(random.nextInt(hand.size()));
+        }
+
+        @Override
+        public int explodeIndex(Game game, Player player) {
+            return random.nextInt(game.getDeckObject().size() + 1);
+        }
+
+        private void setMove(Game game, int action) {
+            switch (kindOf(action)) {
+                case PLAY -> move.setPlay(cardOf(action));
+                case FAVOR -> move.parse("play FAVOR "
+                        + game.getPlayerAtSeat(argumentOf(action)).getName());
+                case PAIR -> move.parse("play " + cardOf(action).name() + " " + cardOf(action).name()
+                        + " " + game.getPlayerAtSeat(argumentOf(action)).getName());
+                default -> move.setDraw();
+            }
+        }
+    }
+
+    /* ************************************
+                    MOVES
+    ************************************ */
+
+    /**
+     * Lists the moves the current player may make: where to insert the
+     * EXPLODE it defused, or else what to play.
+     * @return the number of moves written into actions
+     */
+    private static int legalActions(Game game, int[] actions) {
+        int count = 0;
+        if (game.isExplodeToInsert()) {
+            // The bottom, the middle, just below the top and the top
+            int size = game.getDeckObject().size();
+            for (int index : new int[]{0, size / 2, Math.max(0, size - 1), size}) {
+                if (count == 0 || argumentOf(actions[count - 1]) != index) {
+                    actions[count++] = actionOf(INSERT, null, index);
+                }
+            }
+            return count;
+        }
+        Player player = game.getCurrentPlayer();
+        Hand hand = player.getHand();
+        actions[count++] = DRAW;
+        for (Card card : SINGLE_CARDS) {
+            if (hand.has(card)) {
+                actions[count++] = actionOf(PLAY, card, 0);
+            }
+        }
+        for (Player other : game.getPlayers()) {
+            if (other == player) {
+                continue;
+            }
+            if (hand.has(Card.FAVOR)) {
+                actions[count++] = actionOf(FAVOR, Card.FAVOR, other.getSeat());
+            }
+            if (other.getHand().isEmpty()) {
+                continue; // Nothing to steal
+            }
+            for (Card card : CAT_CARDS) {
+                if (hand.count(card) >= 2) {
+                    actions[count++] = actionOf(PAIR, card, other.getSeat());
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int actionOf(int kind, Card card, int argument) {
+        return kind << 16 | ((card != null) ? card.ordinal() : 0) << 8 | argument;
+    }
+
+    private static int kindOf(int action) {
+        return action >>> 16;
+    }
+
+    private static Card cardOf(int action) {
+        return Card.byOrdinal((action >>> 8) & 0xFF);
+    }
+
+    private static int argumentOf(int action) {
+        return action & 0xFF;
+    }
+}
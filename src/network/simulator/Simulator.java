@@ -0,0 +1,308 @@
+package network.simulator;
+
+import network.model.*;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Plays many games between bots in this process, without any server or
+ * socket, and reports how fast they were played, how often each seat and
+ * each strategy won and how long the games took. Games are spread over all
+ * the cores by a parallel stream; game n is seeded with seed + n, such that
+ * a run can be played again.
+ * <p>
+ * Bots never NOPE, thus a move is applied as soon as it is played.
+ * <p>
+ * Usage: {@code <games> <players> [--seed=<n>] [--strategies=<strategy>,...]
+ * [--iterations=<n>]}
+ */
+public class Simulator {
+    private static final String USAGE = "usage: <games> <players> [--seed=<n>] "
+            + "[--strategies=<bot|draw|ismcts>,...] [--iterations=<n>]";
+    private static final String SEED_OPTION = "--seed=";
+    /** Option giving the strategy of each seat. A shorter list is repeated
+     * over the seats, e.g. {@code bot,draw} for 4 players is bot, draw, bot, draw. */
+    private static final String STRATEGIES_OPTION = "--strategies=";
+    /** Option giving the iterations of every search of the ISMCTS bots */
+    private static final String ITERATIONS_OPTION = "--iterations=";
+    /** Iterations of a search, when not given. Bounded by iterations rather
+     * than time, such that a run can be played again. */
+    private static final int DEFAULT_ITERATIONS = 200;
+    private static final int MIN_PLAYERS = 2;
+    private static final int MAX_PLAYERS = 5;
+    /** Moves after which a game is given up, in case a strategy never ends it */
+    private static final int MAX_MOVES = 10_000;
+
+    /** How a bot chooses its move */
+    public enum Strategy {
+        /** Plays what {@link ComputerPlayer#chooseMove(Move)} plays */
+        BOT,
+        /** Only draws */
+        DRAW,
+        /** Searches its moves with {@link IsmctsSearch}, on one thread since
+         * the games already run on every core */
+        ISMCTS
+    }
+
+    /** Outcome of one game: the seat of the winner, -1 if it was given up */
+    private record GameResult(int winnerSeat, int turns) {
+    }
+
+    /** Counts of the games of a run, added up over the threads */
+    public static class Tally {
+        private final long[] winsBySeat;
+        private long games = 0;
+        private long unfinished = 0;
+        private long turns = 0;
+
+        private Tally(int players) {
+            this.winsBySeat = new long[players];
+        }
+
+        private void add(GameResult result) {
+            games++;
+            if (result.winnerSeat() < 0) {
+                unfinished++;
+            } else {
+                winsBySeat[result.winnerSeat()]++;
+                turns += result.turns();
+            }
+        }
+
+        private void addAll(Tally other) {
+            for (int seat = 0; seat < winsBySeat.length; seat++) {
+                winsBySeat[seat] += other.winsBySeat[seat];
+            }
+            games += other.games;
+            unfinished += other.unfinished;
+            turns += other.turns;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getUnfinished() {
+            return unfinished;
+        }
+
+        public long getWins(int seat) {
+            return winsBySeat[seat];
+        }
+
+        /** @return the average number of turns of the finished games */
+        public double getAverageTurns() {
+            return (games == unfinished) ? 0 : (double) turns / (games - unfinished);
+        }
+    }
+
+    private final int players;
+    private final Strategy[] strategies;
+    private final IsmctsSearch search;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * @param strategies strategy of each seat
+     * @requires MIN_PLAYERS <= strategies.length <= MAX_PLAYERS
+     */
+    public Simulator(Strategy... strategies) {
+        this(DEFAULT_ITERATIONS, strategies);
+    }
+
+    /**
+     * @param iterations iterations of every search of an {@link Strategy#ISMCTS} seat
+     * @param strategies strategy of each seat
+     * @requires iterations > 0 && MIN_PLAYERS <= strategies.length <= MAX_PLAYERS
+     */
+    public Simulator(int iterations, Strategy... strategies) {
+        this.players = strategies.length;
+        this.strategies = strategies.clone();
+        this.search = new IsmctsSearch(0, iterations, 1);
+    }
+
+    /* ************************************
+                    METHODS
+    ************************************ */
+
+    /**
+     * Plays games in parallel on all the cores.
+     * @param seed game n is seeded with seed + n
+     * @return the counts of all the games
+     */
+    public Tally run(int games, long seed) {
+        return LongStream.range(0, games)
+                .parallel()
+                .mapToObj(game -> this.play(seed + game))
+                .collect(() -> new Tally(players), Tally::add, Tally::addAll);
+    }
+
+    /**
+     * Plays one game to its end, answering the events the way the bots of a
+     * room would.
+     */
+    private GameResult play(long seed) {
+        ArrayList<Player> seated = new ArrayList<>(players);
+        GameListener[] listeners = new GameListener[players + 1];
+        GameDriver driver = new GameDriver();
+        listeners[0] = driver;
+        for (int seat = 0; seat < players; seat++) {
+            ComputerPlayer bot = new ComputerPlayer("bot" + (char) ('a' + seat), seat);
+            seated.add(bot);
+            listeners[seat + 1] = bot.getTracker();
+        }
+        Game game = new Game(seated, GameListener.all(listeners), new SplittableRandom(seed));
+        game.init();
+        for (Player bot : seated) {
+            ((ComputerPlayer) bot).getTracker().start(game);
+        }
+        // The searches draw from a stream of their own, such that the game
+        // deals the same cards whatever the strategies
+        SplittableRandom searchRandom = new SplittableRandom(seed).split();
+
+        GameDriver.Answers answers = new GameDriver.Answers() {
+            @Override
+            public Card favorCard(Game game, Player target) {
+                return ((ComputerPlayer) target).chooseFavorCard();
+            }
+
+            @Override
+            public int explodeIndex(Game game, Player player) {
+                ComputerPlayer defused = (ComputerPlayer) player;
+                return (strategies[defused.getSeat()] == Strategy.ISMCTS)
+                        ? search.chooseExplodeIndex(game, defused.getSeat(),
+                                defused.getTracker().getTop(), searchRandom)
+                        : defused.chooseExplodeIndex();
+            }
+        };
+
+        Move move = new Move();
+        int turns = 1;
+        for (int moves = 0; !game.hasWinner(); moves++) {
+            if (moves == MAX_MOVES) {
+                return new GameResult(-1, turns);
+            }
+            ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+            this.chooseMove(game, player, move, searchRandom);
+            if (driver.play(game, move, answers)) {
+                turns++;
+            }
+        }
+        return new GameResult(driver.getWinner().getSeat(), turns);
+    }
+
+    /** Writes the move of the current player, as its strategy chooses it */
+    private void chooseMove(Game game, ComputerPlayer player, Move move, SplittableRandom random) {
+        switch (strategies[player.getSeat()]) {
+            case BOT -> player.chooseMove(move);
+            case DRAW -> move.setDraw();
+            case ISMCTS -> move.parse(search.chooseMove(game, player.getSeat(),
+                    player.getTracker().getTop(), random));
+        }
+    }
+
+    /** Prints the results of a run */
+    private void report(Tally tally, long seed, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf(Locale.ROOT, "Played %d games of %d players in %.2f s: "
+                        + "%.1f games/s, with --seed=%d.%n",
+                tally.getGames(), players, seconds, tally.getGames() / seconds, seed);
+        System.out.printf(Locale.ROOT, "Average turns per game: %.1f. Unfinished games: %d.%n",
+                tally.getAverageTurns(), tally.getUnfinished());
+        long finished = tally.getGames() - tally.getUnfinished();
+
+        System.out.println("Wins by seat:");
+        for (int seat = 0; seat < players; seat++) {
+            System.out.printf(Locale.ROOT, "  seat %d (%s): %5.1f%%%n",
+                    seat, strategies[seat], percentOf(tally.getWins(seat), finished));
+        }
+
+        System.out.println("Wins by strategy, per seat played:");
+        for (Strategy strategy : Strategy.values()) {
+            long wins = 0;
+            int seats = 0;
+            for (int seat = 0; seat < players; seat++) {
+                if (strategies[seat] == strategy) {
+                    wins += tally.getWins(seat);
+                    seats++;
+                }
+            }
+            if (seats > 0) {
+                System.out.printf(Locale.ROOT, "  %s: %5.1f%% on %d seat(s), %.1f%% if all equal%n",
+                        strategy, percentOf(wins, finished * seats), seats, 100.0 / players);
+            }
+        }
+    }
+
+    private static double percentOf(long part, long whole) {
+        return (whole == 0) ? 0 : 100.0 * part / whole;
+    }
+
+    /**
+     * Parses a list of strategies, repeated over the seats.
+     * @throws IllegalArgumentException if a strategy is unknown
+     */
+    private static Strategy[] parseStrategies(String list, int players) {
+        String[] names = list.split(",");
+        Strategy[] strategies = new Strategy[players];
+        for (int seat = 0; seat < players; seat++) {
+            strategies[seat] = Strategy.valueOf(names[seat % names.length].trim().toUpperCase(Locale.ROOT));
+        }
+        return strategies;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println(USAGE);
+            System.exit(0);
+        }
+        int games;
+        int players;
+        long seed = ThreadLocalRandom.current().nextLong();
+        String strategyList = "bot";
+        int iterations = DEFAULT_ITERATIONS;
+        try {
+            games = Integer.parseInt(args[0]);
+            players = Integer.parseInt(args[1]);
+            for (int index = 2; index < args.length; index++) {
+                if (args[index].startsWith(SEED_OPTION)) {
+                    seed = Long.parseLong(args[index].substring(SEED_OPTION.length()));
+                } else if (args[index].startsWith(ITERATIONS_OPTION)) {
+                    iterations = Integer.parseInt(args[index].substring(ITERATIONS_OPTION.length()));
+                } else if (args[index].startsWith(STRATEGIES_OPTION)) {
+                    strategyList = args[index].substring(STRATEGIES_OPTION.length());
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[index]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+        if (games < 1 || players < MIN_PLAYERS || players > MAX_PLAYERS || iterations < 1) {
+            System.out.println("ERROR: play at least 1 game, of "
+                    + MIN_PLAYERS + " to " + MAX_PLAYERS + " players, with at least 1 iteration.");
+            return;
+        }
+        Strategy[] strategies;
+        try {
+            strategies = parseStrategies(strategyList, players);
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: unknown strategy in " + strategyList);
+            System.out.println(USAGE);
+            return;
+        }
+
+        Simulator simulator = new Simulator(iterations, strategies);
+        long startedAt = System.nanoTime();
+        Tally tally = simulator.run(games, seed);
+        simulator.report(tally, seed, System.nanoTime() - startedAt);
+    }
+}
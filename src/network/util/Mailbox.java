@@ -0,0 +1,82 @@
+package network.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks one at a time, in the order in which they were posted, on the
+ * threads of a shared executor. Whoever owns the mailbox is only ever touched
+ * by one task at a time, thus needs no lock, while a few threads serve the
+ * mailboxes of many owners.
+ * <p>
+ * Posting never blocks. The first task posted to an idle mailbox hands it
+ * to the executor, which then runs the queued tasks until the mailbox is
+ * empty, or until it ran {@link #MAX_TASKS_PER_TURN} of them and hands the
+ * rest back, such that a busy mailbox does not starve the others.
+ */
+public class Mailbox implements Executor {
+    /** Tasks run in a row before the thread is given to another mailbox */
+    private static final int MAX_TASKS_PER_TURN = 64;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /** Tasks posted and not run yet. The mailbox is handed to the executor
+     * when this goes from 0 to 1, and only then. */
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Executor executor;
+    private final String name;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * @param name name of the owner, shown when one of its tasks fails
+     * @param executor != null, runs the tasks
+     */
+    public Mailbox(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    /**
+     * Queues a task, to be run after every task posted before it.
+     * @param task != null
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /** @return number of tasks waiting, the running one included */
+    public int size() {
+        return pending.get();
+    }
+
+    private void drain() {
+        for (int ran = 1; ; ran++) {
+            Runnable task = tasks.poll();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // One failing task must not stop the ones queued after it
+                System.out.println("> Task of " + name + " failed: " + e);
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+            if (ran == MAX_TASKS_PER_TURN) {
+                executor.execute(this::drain);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package network.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed timer wheel: one thread serving every delayed task of a process,
+ * instead of one {@link java.util.Timer} (and thus one thread) per task.
+ * <p>
+ * Time is cut in ticks of {@link #TICK_MILLIS}. The wheel has a bucket per tick
+ * of one revolution; a task lands in the bucket of the tick it is due on, together
+ * with the number of whole revolutions still to wait. Scheduling and cancelling
+ * are O(1): both only enqueue the task, and the wheel thread moves it in or out
+ * of its bucket on the next tick. Tasks therefore run at most one tick late.
+ */
+public class TimerWheel implements Runnable {
+    /** Duration of one tick, which is also the precision of the wheel */
+    public static final long TICK_MILLIS = 50;
+
+    /** Number of buckets. A power of two, such that the bucket of a tick is
+     * found with a mask. One revolution lasts 512 * 50 ms = 25.6 seconds. */
+    private static final int WHEEL_SIZE = 512;
+
+    /** Upper bound of the tasks moved into the wheel per tick, such that a
+     * burst of scheduling cannot delay the expiry of the current bucket. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    private final long startTime;
+    private final Thread thread;
+    private volatile boolean isRunning = true;
+
+    /** Number of ticks elapsed. Only touched by the wheel thread. */
+    private long tick = 0;
+
+    /* ************************************
+                  CONSTRUCTOR
+    ************************************ */
+
+    /**
+     * Starts a wheel which runs the expired tasks on its own thread.
+     * Such tasks must be short, since they delay every other task.
+     * @param name name of the wheel thread
+     */
+    public TimerWheel(String name) {
+        this(name, Runnable::run);
+    }
+
+    /**
+     * Starts a wheel which hands the expired tasks to an executor.
+     * @param name name of the wheel thread
+     * @param executor != null, runs the expired tasks
+     */
+    public TimerWheel(String name, Executor executor) {
+        for (int index = 0; index < WHEEL_SIZE; index++) {
+            wheel[index] = new Bucket();
+        }
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /* ************************************
+                    GENERAL
+    ************************************ */
+
+    /**
+     * Runs the task once the delay passed, unless the returned timeout is
+     * cancelled first.
+     * @param task != null
+     * @param delayMillis delay, in milliseconds
+     * @return the timeout, which can be cancelled
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadline = System.nanoTime() - startTime
+                + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        Timeout timeout = new Timeout(this, task, deadline);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the wheel. Tasks that did not expire yet never run.
+     */
+    public void stop() {
+        isRunning = false;
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        while (isRunning) {
+            long nextTick = (tick + 1) * tickNanos;
+            long sleepNanos = nextTick - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    continue; // Woken up by stop()
+                }
+            }
+            this.removeCancelled();
+            this.transferScheduled();
+            wheel[(int) (tick & (WHEEL_SIZE - 1))].expire();
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int count = 0; count < MAX_TRANSFERS_PER_TICK; count++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            // A task that is already due goes in the current bucket
+            long dueTick = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / WHEEL_SIZE;
+            wheel[(int) (dueTick & (WHEEL_SIZE - 1))].add(timeout);
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+            try {
+                executor.execute(timeout.task);
+            } catch (RuntimeException e) {
+                System.out.println("> [" + thread.getName() + "] task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A task registered on a {@link TimerWheel}.
+     */
+    public static class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerWheel timerWheel;
+        private final Runnable task;
+        /** Due time, in nanoseconds since the start of the wheel */
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        /** Revolutions of the wheel to wait before the task is due */
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimerWheel timerWheel, Runnable task, long deadline) {
+            this.timerWheel = timerWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Prevents the task from running. Has no effect if the task
+         * already expired.
+         * @return true if the task will not run because of this call.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                timerWheel.cancelled.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts of one tick. Only touched by the
+     * wheel thread.
+     */
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Runs the timeouts of this bucket that are due in this revolution,
+         * and brings the other ones one revolution closer.
+         */
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    this.remove(timeout);
+                    TimerWheel.this.expire(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import network.server.AdmissionControl;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+    private AdmissionControl admission;
+
+    @BeforeEach
+    void setUp() {
+        // Admitting does not look at the server, only sampling the load does
+        admission = new AdmissionControl(null);
+    }
+
+    @Test
+    @DisplayName("Tests if pending handshakes are limited, and released once done or closed")
+    void handshakeLimitTest() {
+        assertTrue(admission.applyOption(AdmissionControl.MAX_HANDSHAKES_OPTION + "2"));
+        assertNull(admission.admitConnection());
+        assertNull(admission.admitConnection());
+        assertNotNull(admission.admitConnection());
+
+        admission.onHandshakeDone();
+        assertNull(admission.admitConnection());
+        assertNotNull(admission.admitConnection());
+
+        admission.onConnectionClosed(true);
+        assertNull(admission.admitConnection());
+    }
+
+    @Test
+    @DisplayName("Tests if connections are limited, whether or not their handshake is done")
+    void connectionLimitTest() {
+        admission.applyOption(AdmissionControl.MAX_CONNECTIONS_OPTION + "2");
+        assertNull(admission.admitConnection());
+        admission.onHandshakeDone();
+        assertNull(admission.admitConnection());
+        admission.onHandshakeDone();
+        assertNotNull(admission.admitConnection());
+
+        admission.onConnectionClosed(false);
+        assertNull(admission.admitConnection());
+    }
+
+    @Test
+    @DisplayName("Tests if only admission options are taken")
+    void optionTest() {
+        assertTrue(admission.applyOption(AdmissionControl.MAX_ROOMS_OPTION + "7"));
+        assertEquals(7, admission.getMaxRooms());
+        assertFalse(admission.applyOption("--max-queued-lines=10"));
+        assertThrows(NumberFormatException.class,
+                () -> admission.applyOption(AdmissionControl.MAX_LOAD_OPTION + "lots"));
+    }
+}
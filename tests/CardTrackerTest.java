@@ -0,0 +1,142 @@
+import network.model.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardTrackerTest {
+    private ArrayList<Player> players;
+    private Game game;
+    private Player favorTarget;
+    private Player defused;
+
+    /** Deals a game of bots which all track it */
+    private void deal(int count, long seed) {
+        players = new ArrayList<>();
+        GameListener[] listeners = new GameListener[count + 1];
+        listeners[0] = new GameListener() {
+            @Override
+            public void onFavorAsked(Player asker, Player target) {
+                favorTarget = target;
+            }
+
+            @Override
+            public void onExplodeDefused(Player player, int lastIndex) {
+                defused = player;
+            }
+        };
+        for (int seat = 0; seat < count; seat++) {
+            ComputerPlayer bot = new ComputerPlayer("bot" + (char) ('a' + seat), seat);
+            players.add(bot);
+            listeners[seat + 1] = bot.getTracker();
+        }
+        game = new Game(players, GameListener.all(listeners), new SplittableRandom(seed));
+        game.init();
+        for (Player player : players) {
+            ((ComputerPlayer) player).getTracker().start(game);
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if every tracker agrees with the game after every move of whole games")
+    void followsGameTest() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (long seed = 0; seed < 60; seed++) {
+            this.deal(2 + (int) (seed % 4), seed);
+            Move move = new Move();
+            for (int moves = 0; moves < 2000 && !game.hasWinner(); moves++) {
+                ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+                if (random.nextInt(8) == 0) {
+                    // Steal or demand a card now and then, to follow known cards around
+                    Player target = game.getPlayers().get((game.getCurrentPlayerTurnIndex() + 1)
+                            % game.getPlayers().size());
+                    Card card = player.getHand().isEmpty() ? Card.BEARD : player.getHand().get(0);
+                    move.parse("play " + card.name() + " " + card.name() + " " + target.getName());
+                } else {
+                    player.chooseMove(move);
+                }
+                game.execute(new GameCommand.Play(player.getSeat(), move));
+                if (favorTarget != null) {
+                    Card card = ((ComputerPlayer) favorTarget).chooseFavorCard();
+                    if (card != null) {
+                        game.execute(new GameCommand.GiveFavor(favorTarget.getSeat(), card));
+                    } else {
+                        game.execute(new GameCommand.Cancel(player.getSeat(), move));
+                    }
+                    favorTarget = null;
+                }
+                if (defused != null) {
+                    int index = random.nextInt(game.getDeckObject().size() + 1);
+                    game.execute(new GameCommand.InsertExplode(defused.getSeat(), index));
+                    defused = null;
+                }
+                if (game.getPlayers().size() > 2 && moves == 40) {
+                    game.execute(new GameCommand.Leave(game.getPlayers().get(0).getSeat()));
+                }
+                if (!game.hasWinner()) {
+                    this.assertTracked();
+                    game.endMove();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if the bot knows the top card once it played a SEETHEFUTURE")
+    void futureSeenTest() {
+        this.deal(3, 2);
+        ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+        CardTracker tracker = player.getTracker();
+        assertFalse(tracker.isTopKnown());
+        assertEquals(2.0 / game.getDeckObject().size(), tracker.explodeChance(), 1e-9);
+
+        player.getHand().add(Card.FUTURE);
+        Move move = new Move();
+        move.setPlay(Card.FUTURE);
+        game.execute(new GameCommand.Play(player.getSeat(), move));
+        assertTrue(tracker.isTopKnown());
+        assertEquals(game.getDeckObject().peek(0) == Card.EXPLODE ? 1 : 0, tracker.explodeChance());
+        for (Player other : game.getPlayers()) {
+            if (other != player) {
+                assertFalse(((ComputerPlayer) other).getTracker().isTopKnown());
+            }
+        }
+    }
+
+    /** Checks what each bot believes against the game */
+    private void assertTracked() {
+        Deck deck = game.getDeckObject();
+        for (Player player : game.getPlayers()) {
+            CardTracker tracker = ((ComputerPlayer) player).getTracker();
+            assertEquals(deck.size(), tracker.getDeckSize());
+            if (!game.isExplodeToInsert()) {
+                assertEquals(deck.count(Card.EXPLODE), tracker.getDeckExplodes());
+            }
+            if (tracker.isTopKnown()) {
+                assertEquals(deck.peek(0) == Card.EXPLODE, tracker.explodeChance() == 1);
+            }
+            for (Card card : Card.values()) {
+                if (card == Card.EXPLODE) {
+                    continue;
+                }
+                int total = (card == Card.DEFUSE) ? game.getDefusesDealt() : Deck.totalOf(card);
+                int hidden = total - player.getHand().count(card);
+                for (Card discarded : game.getDiscardPile()) {
+                    hidden -= (discarded == card) ? 1 : 0;
+                }
+                int believed = tracker.getUnseen(card);
+                for (Player other : players) {
+                    int known = tracker.getKnown(other.getSeat(), card);
+                    believed += known;
+                    if (game.getPlayers().contains(other)) {
+                        assertTrue(known <= other.getHand().count(card),
+                                player.getName() + " believes " + other.getName() + " holds " + known + " " + card);
+                    }
+                }
+                assertEquals(hidden, believed, player.getName() + " lost track of " + card);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import network.model.Card;
+import network.model.ComputerPlayer;
+import network.model.Move;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputerPlayerTest {
+    private ComputerPlayer bot;
+    private Move move;
+
+    @BeforeEach
+    void setUp() {
+        bot = new ComputerPlayer("bota", 0);
+        move = new Move();
+    }
+
+    @Test
+    @DisplayName("Tests if the typed move of the bot reads like the move it would type")
+    void chooseMoveTest() {
+        bot.getHand().add(Card.DEFUSE);
+        bot.getHand().add(Card.SKIP);
+        bot.chooseMove(move);
+        assertFalse(move.isDraw());
+        assertEquals(1, move.size());
+        assertEquals(Card.SKIP, move.card(0));
+        assertTrue(move.wordEquals(0, "skip"));
+        assertEquals(bot.doMove(), move.toString());
+
+        bot.getHand().remove(Card.SKIP);
+        bot.chooseMove(move);
+        assertTrue(move.isDraw());
+        assertEquals(0, move.size());
+        assertEquals("draw", move.toString());
+    }
+
+    @Test
+    @DisplayName("Tests if the bot gives a card of its hand to a FAVOR, or none if it has none")
+    void chooseFavorCardTest() {
+        assertNull(bot.chooseFavorCard());
+        bot.getHand().add(Card.BEARD);
+        assertEquals(Card.BEARD, bot.chooseFavorCard());
+        assertEquals("play BEARD", bot.getCardInFavorResponse());
+    }
+}
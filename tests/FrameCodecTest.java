@@ -0,0 +1,80 @@
+import network.Protocol.FrameCodec;
+import network.Protocol.ProtocolReader;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCodecTest {
+
+    private static String roundTrip(String line) {
+        byte[] frame = FrameCodec.encodeFrame(line);
+        assertEquals(frame.length - FrameCodec.HEADER_LENGTH, FrameCodec.bodyLength(frame, 0));
+        return FrameCodec.decode(frame, FrameCodec.HEADER_LENGTH, frame.length - FrameCodec.HEADER_LENGTH);
+    }
+
+    @Test
+    @DisplayName("Tests if every kind of line decodes to exactly what was encoded")
+    void roundTripTest() {
+        String[] lines = {
+                "PRIVATE|Your hand: [DEFUSE, NOPE, TACOCAT, BEARD, RAINBOW, SKIP, POTATO, NOPE]",
+                "BROADCAST|alice wanted to play tacocat TACOCAT bob",
+                "SEETHEFUTURE|EXPLODE|SKIP|CATTERMELLON",
+                "PASS",
+                "PRIVATE|",
+                "PRIVATE|a|b||c|",
+                "HELLO|not a command",
+                "",
+                "BROADCAST|[bob]: h\u00e9llo w\u00f6rld, \u00e7a va? \ud83d\ude00",
+                "BROADCAST|control \u0001\u0002\u0003\u0000 bytes",
+                "PLAYMOVE|DRAW",
+        };
+        for (String line : lines) {
+            assertEquals(line, roundTrip(line));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if cards, commands and common sentences take less room than in text")
+    void sizeTest() {
+        String hand = "PRIVATE|Your hand: [DEFUSE, NOPE, TACOCAT, BEARD, RAINBOW, SKIP, POTATO, NOPE]";
+        byte[] frame = FrameCodec.encodeFrame(hand);
+        assertTrue(frame.length < hand.length() / 2, frame.length + " bytes");
+
+        assertEquals(FrameCodec.HEADER_LENGTH + 1, FrameCodec.encodeFrame("PASS").length);
+        assertEquals(FrameCodec.HEADER_LENGTH + 3,
+                FrameCodec.encodeFrame("BROADCAST|Server executed the move.").length);
+    }
+
+    @Test
+    @DisplayName("Tests if a reader switches from text lines to frames without losing bytes")
+    void readerTest() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write("ANNOUNCE|bob|C|L|B\r\n".getBytes(StandardCharsets.UTF_8));
+        stream.write(FrameCodec.encodeFrame("REQUESTGAME|N"));
+        stream.write(FrameCodec.encodeFrame("PLAYMOVE|play favor alice"));
+        ProtocolReader reader = new ProtocolReader(new ByteArrayInputStream(stream.toByteArray()));
+
+        assertEquals("ANNOUNCE|bob|C|L|B", reader.readLine());
+        reader.useFrames();
+        assertEquals("REQUESTGAME|N", reader.readLine());
+        assertEquals("PLAYMOVE|play favor alice", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    @DisplayName("Tests if malformed frames are rejected")
+    void malformedTest() {
+        assertThrows(IllegalArgumentException.class, () -> FrameCodec.decode(new byte[]{0x7F}, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> FrameCodec.decode(new byte[]{14, 1}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> FrameCodec.decode(new byte[]{14, 1, 99}, 0, 3));
+
+        ProtocolReader cut = new ProtocolReader(new ByteArrayInputStream(new byte[]{0, 5, 14}));
+        cut.useFrames();
+        assertThrows(IOException.class, cut::readLine);
+    }
+}
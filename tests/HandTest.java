@@ -0,0 +1,54 @@
+import network.model.Card;
+import network.model.Hand;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandTest {
+    private Hand hand;
+
+    @BeforeEach
+    void setUp() {
+        hand = new Hand();
+        hand.add(Card.NOPE);
+        hand.add(Card.DEFUSE);
+        hand.add(Card.NOPE);
+    }
+
+    @Test
+    @DisplayName("Tests if cards are counted per type, and the mask follows the counts")
+    void countTest() {
+        assertEquals(3, hand.size());
+        assertEquals(2, hand.count(Card.NOPE));
+        assertTrue(hand.has(Card.DEFUSE));
+        assertFalse(hand.has(Card.SKIP));
+        assertEquals((1 << Card.NOPE.ordinal()) | (1 << Card.DEFUSE.ordinal()), hand.types());
+
+        assertTrue(hand.remove(Card.DEFUSE));
+        assertFalse(hand.remove(Card.DEFUSE));
+        assertFalse(hand.has(Card.DEFUSE));
+        assertEquals(1 << Card.NOPE.ordinal(), hand.types());
+        assertEquals(2, hand.size());
+    }
+
+    @Test
+    @DisplayName("Tests if the hand is rendered like a list, in the order the cards were received")
+    void toStringTest() {
+        assertEquals("[NOPE, DEFUSE, NOPE]", hand.toString());
+        assertEquals("[]", new Hand().toString());
+
+        // The first NOPE received is the one removed, as in a list
+        hand.remove(Card.NOPE);
+        hand.add(Card.SKIP);
+        assertEquals("[DEFUSE, NOPE, SKIP]", hand.toString());
+    }
+
+    @Test
+    @DisplayName("Tests if every position of the hand gives one of its cards")
+    void getTest() {
+        assertEquals(Card.NOPE, hand.get(0));
+        assertEquals(Card.DEFUSE, hand.get(1));
+        assertEquals(Card.NOPE, hand.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> hand.get(3));
+    }
+}
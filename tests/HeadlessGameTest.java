@@ -0,0 +1,158 @@
+import network.model.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessGameTest {
+    private static final int NUMBER_OF_PLAYERS = 4;
+
+    /** Remembers the events a game loop has to react to */
+    private static class Recorder implements GameListener {
+        private Player defused = null;
+        private Player winner = null;
+        private int exploded = 0;
+        private int rejected = 0;
+
+        @Override
+        public void onRejected(Player player, String reason) {
+            rejected++;
+        }
+
+        @Override
+        public void onExplodeDefused(Player player, int lastIndex) {
+            defused = player;
+        }
+
+        @Override
+        public void onExploded(Player player) {
+            exploded++;
+        }
+
+        @Override
+        public void onWinner(Player winner) {
+            this.winner = winner;
+        }
+    }
+
+    private Recorder recorder;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < NUMBER_OF_PLAYERS; seat++) {
+            players.add(new HumanPlayer("player" + (char) ('a' + seat), seat));
+        }
+        recorder = new Recorder();
+        game = new Game(players, recorder, new SplittableRandom(7));
+        game.init();
+    }
+
+    @Test
+    @DisplayName("Tests if a game of draws only is played to its winner through commands and events")
+    void playToWinnerTest() {
+        Move draw = new Move();
+        draw.parse("DRAW");
+        int moves = 0;
+        while (!game.hasWinner()) {
+            assertTrue(++moves < 1000, "The game does not end");
+            game.execute(new GameCommand.Play(game.getCurrentPlayerSeat(), draw));
+            if (recorder.defused != null) {
+                game.execute(new GameCommand.InsertExplode(recorder.defused.getSeat(), 0));
+                recorder.defused = null;
+            }
+            if (!game.hasWinner()) {
+                game.endMove();
+            }
+        }
+        assertNotNull(recorder.winner);
+        assertEquals(NUMBER_OF_PLAYERS - 1, recorder.exploded);
+        assertEquals(1, game.getPlayers().size());
+        assertEquals(0, recorder.rejected);
+    }
+
+    @Test
+    @DisplayName("Tests if a player cannot play out of turn")
+    void outOfTurnTest() {
+        Move draw = new Move();
+        draw.parse("DRAW");
+        int otherSeat = (game.getCurrentPlayerSeat() + 1) % NUMBER_OF_PLAYERS;
+        game.execute(new GameCommand.Play(otherSeat, draw));
+        assertEquals(1, recorder.rejected);
+        assertEquals(8, game.getPlayerAtSeat(otherSeat).getHand().size());
+    }
+
+    /** Has the current player ask the next one for a FAVOR, and returns the next one */
+    private Player askFavor() {
+        Player asker = game.getCurrentPlayer();
+        Player target = game.getPlayerAtSeat((asker.getSeat() + 1) % NUMBER_OF_PLAYERS);
+        asker.getHand().add(Card.FAVOR);
+        Move favor = new Move();
+        favor.parse("play FAVOR " + target.getName());
+        int rejected = recorder.rejected;
+        game.execute(new GameCommand.Play(asker.getSeat(), favor));
+        assertEquals(rejected, recorder.rejected);
+        return target;
+    }
+
+    @Test
+    @DisplayName("Tests if a FAVOR cannot be answered with a card the target does not hold")
+    void favorCardNotHeldTest() {
+        Player asker = game.getCurrentPlayer();
+        Player target = this.askFavor();
+        int favors = asker.getHand().count(Card.FAVOR);
+        Card missing = null;
+        for (Card card : Card.values()) {
+            if (card != Card.EXPLODE && !target.getHand().has(card)) {
+                missing = card;
+            }
+        }
+        assertNotNull(missing);
+        game.execute(new GameCommand.GiveFavor(target.getSeat(), missing));
+        assertEquals(1, recorder.rejected);
+        assertEquals(9, asker.getHand().size());
+        assertEquals(8, target.getHand().size());
+        assertEquals(favors, asker.getHand().count(Card.FAVOR));
+
+        // The FAVOR is still to answer, with a card the target holds
+        game.execute(new GameCommand.GiveFavor(target.getSeat(), target.getHand().get(0)));
+        assertEquals(1, recorder.rejected);
+        assertEquals(9, asker.getHand().size());
+        assertEquals(7, target.getHand().size());
+        assertEquals(favors - 1, asker.getHand().count(Card.FAVOR));
+    }
+
+    @Test
+    @DisplayName("Tests if a card given for a FAVOR nobody asked is rejected")
+    void favorNotAskedTest() {
+        Player asker = game.getCurrentPlayer();
+        Player other = game.getPlayerAtSeat((asker.getSeat() + 1) % NUMBER_OF_PLAYERS);
+        game.execute(new GameCommand.GiveFavor(other.getSeat(), other.getHand().get(0)));
+        assertEquals(1, recorder.rejected);
+        assertEquals(8, asker.getHand().size());
+        assertEquals(8, other.getHand().size());
+
+        // Once answered, a FAVOR cannot be answered twice
+        Player target = this.askFavor();
+        game.execute(new GameCommand.GiveFavor(target.getSeat(), target.getHand().get(0)));
+        game.execute(new GameCommand.GiveFavor(target.getSeat(), target.getHand().get(0)));
+        assertEquals(2, recorder.rejected);
+        assertEquals(9, asker.getHand().size());
+        assertEquals(7, target.getHand().size());
+    }
+
+    @Test
+    @DisplayName("Tests if a player cannot cancel a move out of turn")
+    void cancelOutOfTurnTest() {
+        Player other = game.getPlayerAtSeat((game.getCurrentPlayerSeat() + 1) % NUMBER_OF_PLAYERS);
+        Move move = new Move();
+        move.setPlay(other.getHand().get(0));
+        game.execute(new GameCommand.Cancel(other.getSeat(), move));
+        assertEquals(1, recorder.rejected);
+        assertEquals(8, other.getHand().size());
+        assertTrue(game.getDiscardPile().isEmpty());
+    }
+}
@@ -0,0 +1,165 @@
+import network.model.*;
+import network.simulator.IsmctsSearch;
+import network.simulator.Simulator;
+import network.simulator.Simulator.Strategy;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsmctsSearchTest {
+    private Game game;
+    private int seat;
+
+    @BeforeEach
+    void setUp() {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int index = 0; index < 4; index++) {
+            players.add(new ComputerPlayer("bot" + (char) ('a' + index), index));
+        }
+        game = new Game(players, null, new SplittableRandom(7));
+        game.init();
+        seat = game.getCurrentPlayerSeat();
+    }
+
+    @Test
+    @DisplayName("Tests if a determinization only deals again what the player cannot see")
+    void determinizeTest() {
+        Game copy = game.determinize(seat, null, new SplittableRandom(1));
+        Hand hand = game.getPlayerAtSeat(seat).getHand();
+        Hand copiedHand = copy.getPlayerAtSeat(seat).getHand();
+        for (Card card : Card.values()) {
+            assertEquals(hand.count(card), copiedHand.count(card));
+        }
+        for (Player player : game.getPlayers()) {
+            assertEquals(player.getHand().size(), copy.getPlayerAtSeat(player.getSeat()).getHand().size());
+        }
+        assertEquals(game.getDeckObject().size(), copy.getDeckObject().size());
+        assertEquals(game.getDeckObject().count(Card.EXPLODE), copy.getDeckObject().count(Card.EXPLODE));
+        assertEquals(seat, copy.getCurrentPlayerSeat());
+
+        // Every card dealt again comes from the cards of a full deck
+        for (Card card : Card.values()) {
+            int count = copy.getDeckObject().count(card);
+            for (Player player : copy.getPlayers()) {
+                count += player.getHand().count(card);
+            }
+            assertTrue(count <= Deck.totalOf(card), card + " dealt " + count + " times");
+        }
+
+        // Playing on in the copy leaves the game alone
+        copy.execute(new GameCommand.Leave(seat));
+        assertEquals(4, game.getPlayers().size());
+        assertEquals(hand.size(), game.getPlayerAtSeat(seat).getHand().size());
+    }
+
+    @Test
+    @DisplayName("Tests if a determinization keeps the cards known on top of the deck")
+    void determinizeKnownTopTest() {
+        Deck deck = game.getDeckObject();
+        Card[] knownTop = {deck.peek(0), null, deck.peek(2)};
+        for (long seed = 0; seed < 20; seed++) {
+            Deck copied = game.determinize(seat, knownTop, null, new SplittableRandom(seed)).getDeckObject();
+            assertEquals(deck.size(), copied.size());
+            assertEquals(deck.count(Card.EXPLODE), copied.count(Card.EXPLODE));
+            assertSame(knownTop[0], copied.peek(0));
+            assertSame(knownTop[2], copied.peek(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if a game whose counts disagree with a full deck is still determinized")
+    void determinizeInconsistentTest() {
+        Player other = game.getPlayers().get((game.getCurrentPlayerTurnIndex() + 1) % 4);
+        for (int count = 0; count < 6; count++) {
+            other.getHand().add(Card.BEARD);
+        }
+        Game copy = game.determinize(seat, null, new SplittableRandom(1));
+        for (Player player : game.getPlayers()) {
+            assertEquals(player.getHand().size(), copy.getPlayerAtSeat(player.getSeat()).getHand().size());
+        }
+        assertEquals(game.getDeckObject().size(), copy.getDeckObject().size());
+    }
+
+    @Test
+    @DisplayName("Tests if a search bounded by iterations chooses a legal move, the same for the same seed")
+    void chooseMoveTest() {
+        IsmctsSearch search = new IsmctsSearch(0, 300, 2);
+        String move = search.chooseMove(game, seat, new SplittableRandom(3));
+        assertEquals(move, search.chooseMove(game, seat, new SplittableRandom(3)));
+
+        Move parsed = new Move();
+        parsed.parse(move);
+        assertTrue(parsed.isDraw() || game.getPlayerAtSeat(seat).getHand().has(parsed.card(0)), move);
+    }
+
+    @Test
+    @DisplayName("Tests if a search run on its own bounded executor chooses as one on the calling thread")
+    void executorTest() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        try {
+            IsmctsSearch pooled = new IsmctsSearch(0, 300, 3, pool);
+            // The search takes the only thread of the pool, thus grows its trees itself
+            String move = pool.submit(() -> pooled.chooseMove(game, seat, new SplittableRandom(3)))
+                    .get(30, TimeUnit.SECONDS);
+            assertEquals(new IsmctsSearch(0, 300, 3).chooseMove(game, seat, new SplittableRandom(3)), move);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if the search only chooses a move the game allows from four of a kind")
+    void fourOfAKindTest() {
+        // Swap every TACOCAT of the others and of the deck for a card of the player
+        Hand hand = game.getPlayerAtSeat(seat).getHand();
+        for (Player other : game.getPlayers()) {
+            while (other.getSeat() != seat && other.getHand().remove(Card.TACOCAT)) {
+                other.getHand().add(this.giveAwayOtherThan(hand, Card.TACOCAT));
+                hand.add(Card.TACOCAT);
+            }
+        }
+        while (game.getDeckObject().remove(Card.TACOCAT)) {
+            game.getDeckObject().add(this.giveAwayOtherThan(hand, Card.TACOCAT));
+            hand.add(Card.TACOCAT);
+        }
+        assertEquals(4, hand.count(Card.TACOCAT));
+
+        String target = game.getPlayers().get((game.getCurrentPlayerTurnIndex() + 1) % 4).getName();
+        Move move = new Move();
+        move.parse("play TACOCAT TACOCAT " + target);
+        assertTrue(game.isPlayAllowed(seat, move));
+        move.parse("play TACOCAT TACOCAT TACOCAT " + target + " DEFUSE");
+        assertTrue(game.isPlayAllowed(seat, move));
+
+        IsmctsSearch search = new IsmctsSearch(0, 300, 2);
+        String chosen = search.chooseMove(game, seat, new SplittableRandom(3));
+        move.parse(chosen);
+        assertTrue(game.isPlayAllowed(seat, move), chosen);
+    }
+
+    private Card giveAwayOtherThan(Hand hand, Card kept) {
+        for (int index = 0; index < hand.size(); index++) {
+            Card card = hand.get(index);
+            if (card != kept) {
+                hand.remove(card);
+                return card;
+            }
+        }
+        throw new IllegalStateException("Only " + kept + " in hand");
+    }
+
+    @Test
+    @DisplayName("Tests if the search wins more often than the plain bot")
+    void strongerThanBotTest() {
+        Simulator.Tally tally = new Simulator(200, Strategy.ISMCTS, Strategy.BOT).run(100, 11);
+        assertEquals(0, tally.getUnfinished());
+        assertTrue(tally.getWins(0) > tally.getWins(1),
+                "ISMCTS won " + tally.getWins(0) + " games, BOT " + tally.getWins(1));
+    }
+}
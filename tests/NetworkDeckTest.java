@@ -0,0 +1,57 @@
+import network.model.Card;
+import network.model.Deck;
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkDeckTest {
+    private Deck deck;
+
+    @BeforeEach
+    void setUp() {
+        deck = new Deck();
+    }
+
+    @Test
+    @DisplayName("Tests if the generated deck holds 56 cards, of which 4 EXPLODE and 6 DEFUSE")
+    void generateDeckTest() {
+        assertEquals(Deck.MAX_NUMBER_OF_CARDS, deck.size());
+        assertEquals(4, deck.removeAll(Card.EXPLODE));
+        assertEquals(6, deck.removeAll(Card.DEFUSE));
+        assertEquals(46, deck.size());
+        assertFalse(deck.remove(Card.EXPLODE));
+    }
+
+    @Test
+    @DisplayName("Tests if drawing and peeking go from the top, and inserting counts from the bottom")
+    void drawPeekInsertTest() {
+        deck.removeAll(Card.EXPLODE);
+        deck.add(Card.EXPLODE);
+        assertEquals(Card.EXPLODE, deck.getLastCard());
+        assertEquals(Card.EXPLODE, deck.peek(0));
+        Card below = deck.peek(1);
+        assertEquals(Card.EXPLODE, deck.getLastCardAndRemove());
+        assertEquals(below, deck.getLastCard());
+
+        deck.insert(0, Card.EXPLODE);
+        assertEquals(Card.EXPLODE, deck.get(0));
+        deck.insert(deck.size(), Card.EXPLODE);
+        assertEquals(Card.EXPLODE, deck.peek(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> deck.insert(deck.size() + 1, Card.EXPLODE));
+    }
+
+    @Test
+    @DisplayName("Tests if a seeded shuffle is repeatable and a clone is independent")
+    void shuffleAndCloneTest() {
+        Deck copy = deck.clone();
+        deck.shuffle(new SplittableRandom(42));
+        copy.shuffle(new SplittableRandom(42));
+        assertEquals(deck.toString(), copy.toString());
+
+        copy.getLastCardAndRemove();
+        assertEquals(Deck.MAX_NUMBER_OF_CARDS, deck.size());
+        assertEquals(Deck.MAX_NUMBER_OF_CARDS - 1, copy.size());
+    }
+}
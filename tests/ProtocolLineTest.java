@@ -0,0 +1,139 @@
+import network.Protocol.Protocol;
+import network.Protocol.ProtocolLine;
+import network.model.Card;
+import network.model.Move;
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtocolLineTest {
+    private ProtocolLine line;
+    private Move move;
+
+    @BeforeEach
+    void setUp() {
+        line = new ProtocolLine();
+        move = new Move();
+    }
+
+    @Test
+    @DisplayName("Tests if a line is cut into its command and arguments")
+    void parseTest() {
+        line.parse("ANNOUNCE|alice|C|L");
+        assertSame(Protocol.ANNOUNCE, line.command());
+        assertEquals(4, line.size());
+        assertEquals("alice", line.argument(1));
+        assertTrue(line.hasArgument("L"));
+        assertFalse(line.hasArgument("S"));
+
+        line.parse("PASS");
+        assertSame(Protocol.PASS, line.command());
+        assertEquals(1, line.size());
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> line.argument(1));
+
+        line.parse("PRIVATE|");
+        assertEquals(2, line.size());
+        assertEquals("", line.argument(1));
+    }
+
+    @Test
+    @DisplayName("Tests if only the exact commands of the protocol are recognized")
+    void commandTest() {
+        for (String command : new String[]{Protocol.ANNOUNCE, Protocol.WELCOME, Protocol.REQUESTGAME,
+                Protocol.START, Protocol.DRAW, Protocol.SEETHEFUTURE, Protocol.NEXTTURN,
+                Protocol.GAMEOVER, Protocol.PLAYMOVE, Protocol.PASS, Protocol.INSERTEXPLODE,
+                Protocol.ABORT, Protocol.BROADCAST, Protocol.PRIVATE, Protocol.ERROR}) {
+            line.parse(command + Protocol.DELIMITER + "argument");
+            assertSame(command, line.command());
+        }
+        line.parse("playmove|play skip");
+        assertSame(ProtocolLine.UNKNOWN_COMMAND, line.command());
+        line.parse("PLAYMOVES|play skip");
+        assertSame(ProtocolLine.UNKNOWN_COMMAND, line.command());
+        line.parse("");
+        assertSame(ProtocolLine.UNKNOWN_COMMAND, line.command());
+    }
+
+    @Test
+    @DisplayName("Tests if every card is found by its name, ignoring case, and nothing else is")
+    void cardLookupTest() {
+        for (Card card : Card.values()) {
+            String name = card.name();
+            assertSame(card, Card.lookup(name, 0, name.length()));
+            assertSame(card, Card.lookup(" " + name.toLowerCase() + " ", 1, name.length() + 1));
+        }
+        assertNull(Card.lookup("DRAW", 0, 4));
+        assertNull(Card.lookup("SKIPS", 0, 5));
+        assertNull(Card.lookup("bob", 0, 3));
+        assertNull(Card.lookup("", 0, 0));
+    }
+
+    @Test
+    @DisplayName("Tests if the words of a move are read after its verb")
+    void moveTest() {
+        move.parse("play  Tacocat TACOCAT tacocat bob potato");
+        assertFalse(move.isDraw());
+        assertEquals(5, move.size());
+        assertSame(Card.TACOCAT, move.card(0));
+        assertTrue(move.wordsEqual(0, 1));
+        assertTrue(move.wordsEqual(1, 2));
+        assertNull(move.card(3));
+        assertTrue(move.wordEquals(3, "Bob"));
+        assertSame(Card.POTATO, move.card(4));
+        assertEquals("play  Tacocat TACOCAT tacocat bob potato", move.toString());
+
+        line.parse("PLAYMOVE|Draw");
+        move.parse(line.line(), line.start(1), line.end(1));
+        assertTrue(move.isDraw());
+        assertEquals(0, move.size());
+        assertEquals("Draw", move.toString());
+
+        move.parse("   ");
+        assertTrue(move.isEmpty());
+        assertNull(move.card(0));
+    }
+
+    @Test
+    @DisplayName("Tests if a copied move outlives the reuse of the original")
+    void copyTest() {
+        Move copy = new Move();
+        move.parse("play favor bob");
+        copy.copyFrom(move);
+        move.parse("play skip");
+
+        assertSame(Card.FAVOR, copy.card(0));
+        assertTrue(copy.wordEquals(1, "bob"));
+        assertEquals("play favor bob", copy.toString());
+    }
+
+    @Test
+    @DisplayName("Tests if parsing a well-formed move allocates nothing")
+    void allocationTest() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        String received = "PLAYMOVE|play tacocat tacocat tacocat bob potato";
+        long threadId = Thread.currentThread().getId();
+        int cards = 0;
+
+        for (int i = 0; i < 10_000; i++) { // warm-up
+            line.parse(received);
+            move.parse(line.line(), line.start(1), line.end(1));
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            line.parse(received);
+            move.parse(line.line(), line.start(1), line.end(1));
+            if (move.card(4) == Card.POTATO) {
+                cards++;
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(100_000, cards);
+        // Far less than one object per parsed line
+        assertTrue(allocated < 100_000, allocated + " bytes allocated");
+    }
+}
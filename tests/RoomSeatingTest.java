@@ -0,0 +1,126 @@
+import network.server.*;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomSeatingTest {
+    /** Connection of a client which reads every line it is sent */
+    private static class RecordingConnection implements Connection {
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public synchronized void writeLine(String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void beginBatch() {
+        }
+
+        @Override
+        public void endBatch() {
+        }
+
+        @Override
+        public void abort(String lastLine) {
+        }
+
+        @Override
+        public void useFrames() {
+        }
+
+        @Override
+        public int queuedLines() {
+            return 0;
+        }
+    }
+
+    private Server server;
+    private EventLoop worker;
+    private Room room;
+    private ClientHandler alice;
+    private ClientHandler bob;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Port 0 binds any free port; the server never accepts a client
+        server = new Server(new String[]{"0"});
+        worker = new EventLoop("Test loop");
+        worker.start();
+        room = new Room(0, server, 1, 2, worker);
+        alice = this.announce("alice");
+        bob = this.announce("bob");
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.stop();
+    }
+
+    private ClientHandler announce(String name) {
+        ClientHandler client = new ClientHandler(new RecordingConnection(), server);
+        client.handleLine("ANNOUNCE|" + name);
+        return client;
+    }
+
+    /** Seats both clients as the matchmaker does, then starts the game */
+    private void seatAndStart(Runnable between) {
+        room.post(() -> room.addClient(alice));
+        room.post(() -> room.addClient(bob));
+        room.post(between);
+        room.post(room::startGame);
+    }
+
+    /** Waits until the room handled every task posted so far */
+    private void awaitRoom() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        room.post(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Tests if a client gone between its match and its seat is not seated, and the other waits again")
+    void disconnectBeforeSeatTest() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        room.post(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.seatAndStart(() -> { });
+        alice.onConnectionLost();
+        gate.countDown();
+        this.awaitRoom();
+
+        assertFalse(room.isStarted());
+        assertTrue(room.isClosed());
+        assertFalse(room.getClients().contains(alice));
+        assertNull(bob.getRoom());
+        assertFalse(bob.isShuttingDown());
+        assertEquals(1, server.getMatchmaker().getWaitingCount());
+    }
+
+    @Test
+    @DisplayName("Tests if a client gone after its seat, before the start, leaves its seat empty")
+    void disconnectAfterSeatTest() throws InterruptedException {
+        this.seatAndStart(() -> alice.onConnectionLost());
+        this.awaitRoom();
+
+        assertFalse(room.isStarted());
+        assertTrue(room.getClients().isEmpty());
+        assertNull(bob.getRoom());
+        assertEquals(1, server.getMatchmaker().getWaitingCount());
+    }
+}
@@ -0,0 +1,43 @@
+import network.model.Game;
+import network.model.HumanPlayer;
+import network.model.Player;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededGameTest {
+
+    private static Game newGame(long seed) {
+        ArrayList<Player> players = new ArrayList<>();
+        for (int seat = 0; seat < 4; seat++) {
+            players.add(new HumanPlayer("player" + (char) ('a' + seat), seat));
+        }
+        // Setting up a game does not talk to the controller
+        Game game = new Game(players, null, new SplittableRandom(seed));
+        game.init();
+        return game;
+    }
+
+    @Test
+    @DisplayName("Tests if the same seed deals the same game")
+    void sameSeedTest() {
+        Game game = newGame(2024);
+        Game again = newGame(2024);
+        assertEquals(game.getCurrentPlayerTurnIndex(), again.getCurrentPlayerTurnIndex());
+        assertEquals(game.getDeckObject().toString(), again.getDeckObject().toString());
+        for (int index = 0; index < game.getPlayers().size(); index++) {
+            assertEquals(game.getPlayers().get(index).getHand().toString(),
+                    again.getPlayers().get(index).getHand().toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Tests if another seed deals another deck")
+    void otherSeedTest() {
+        assertNotEquals(newGame(1).getDeckObject().toString(),
+                newGame(2).getDeckObject().toString());
+    }
+}
@@ -0,0 +1,31 @@
+import network.simulator.Simulator;
+import network.simulator.Simulator.Strategy;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    private static final int GAMES = 200;
+
+    @Test
+    @DisplayName("Tests if every simulated game ends with a winner")
+    void everyGameEndsTest() {
+        Simulator.Tally tally = new Simulator(Strategy.BOT, Strategy.DRAW, Strategy.BOT).run(GAMES, 5);
+        assertEquals(GAMES, tally.getGames());
+        assertEquals(0, tally.getUnfinished());
+        assertEquals(GAMES, tally.getWins(0) + tally.getWins(1) + tally.getWins(2));
+        assertTrue(tally.getAverageTurns() > 0);
+    }
+
+    @Test
+    @DisplayName("Tests if the same seed plays the same games, however they are spread over the threads")
+    void sameSeedTest() {
+        Simulator simulator = new Simulator(Strategy.BOT, Strategy.BOT, Strategy.BOT, Strategy.BOT);
+        Simulator.Tally tally = simulator.run(GAMES, 42);
+        Simulator.Tally again = simulator.run(GAMES, 42);
+        for (int seat = 0; seat < 4; seat++) {
+            assertEquals(tally.getWins(seat), again.getWins(seat));
+        }
+        assertEquals(tally.getAverageTurns(), again.getAverageTurns());
+    }
+}
@@ -0,0 +1,50 @@
+import network.util.TimerWheel;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private TimerWheel timers;
+
+    @BeforeEach
+    void setUp() {
+        timers = new TimerWheel("Test timer");
+    }
+
+    @AfterEach
+    void tearDown() {
+        timers.stop();
+    }
+
+    @Test
+    @DisplayName("Tests if a task runs once its delay passed, and not before")
+    void scheduleTest() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+        TimerWheel.Timeout timeout = timers.schedule(ran::countDown, 200);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    @DisplayName("Tests if a cancelled task never runs, while the others still do")
+    void cancelTest() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch lastRan = new CountDownLatch(1);
+        TimerWheel.Timeout cancelled = timers.schedule(runs::incrementAndGet, 100);
+        timers.schedule(runs::incrementAndGet, 100);
+        timers.schedule(lastRan::countDown, 300);
+
+        assertTrue(cancelled.cancel());
+        assertTrue(lastRan.await(2, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertTrue(cancelled.isCancelled());
+    }
+}